@@ -0,0 +1,233 @@
+// Room load over raw STOMP WebSockets, for comparing the servlet and reactive runtimes.
+// Fills rooms, has each room chat at a steady rate, and reports delivery latency plus the
+// server's heap and threads per connection (from /api/metrics/runtime).
+//
+//   node --experimental-websocket loadtest/room-load.mjs --url http://localhost:8080 --rooms 200
+//
+// Node 22+ has WebSocket built in and doesn't need the flag. Raise the server's admission limits
+// first (app.admission.max-connections, app.admission.max-connections-per-ip), since every
+// connection comes from this machine's address. --format cbor asks for CBOR frames instead of JSON;
+// the server only agrees when started with app.payload-format.cbor-enabled=true.
+
+const args = Object.fromEntries(
+  process.argv.slice(2).reduce((pairs, arg, i, all) => {
+    if (arg.startsWith('--')) pairs.push([arg.slice(2), all[i + 1]])
+    return pairs
+  }, [])
+)
+
+const BASE_URL = args.url || 'http://localhost:8080'
+const WS_URL = `${BASE_URL.replace(/^http/, 'ws')}/ws/websocket`
+const ROOMS = Number(args.rooms || 50)
+const ROOM_SIZE = Number(args['room-size'] || 8)
+const DURATION_S = Number(args.duration || 60)
+const CHATS_PER_ROOM_PER_S = Number(args.rate || 1)
+const OPEN_CONCURRENCY = Number(args.concurrency || 50)
+const FORMAT = args.format || 'json'
+const RUN_ID = Date.now().toString(36)
+
+const latencies = []
+let errors = 0
+let bytesReceived = 0
+
+// Just enough CBOR for server payloads: definite and indefinite lengths (Jackson streams objects and
+// arrays without a count) plus stringref (tags 256 and 25)
+function decodeCbor(bytes) {
+  const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength)
+  const text = new TextDecoder()
+  let pos = 0
+  let strings = null
+  const minRefLength = (n) => (n < 24 ? 3 : n < 256 ? 4 : n < 65536 ? 5 : 7)
+  const argument = (info) => {
+    if (info < 24) return info
+    if (info === 24) return view.getUint8(pos++)
+    if (info === 25) return view.getUint16((pos += 2) - 2)
+    if (info === 26) return view.getUint32((pos += 4) - 4)
+    return Number(view.getBigUint64((pos += 8) - 8))
+  }
+  const value = () => {
+    const initial = view.getUint8(pos++)
+    const major = initial >> 5
+    const info = initial & 0x1f
+    if (major === 7) {
+      if (info === 20) return false
+      if (info === 21) return true
+      if (info === 22 || info === 23) return null
+      if (info === 25) return view.getFloat16 ? view.getFloat16((pos += 2) - 2) : NaN
+      if (info === 26) return view.getFloat32((pos += 4) - 4)
+      return view.getFloat64((pos += 8) - 8)
+    }
+    if (info === 31) {
+      const items = []
+      while (view.getUint8(pos) !== 0xff) items.push(value())
+      pos++
+      if (major === 2 || major === 3) return major === 3 ? items.join('') : new Uint8Array(items.flatMap((chunk) => [...chunk]))
+      if (major === 4) return items
+      const object = {}
+      for (let i = 0; i < items.length; i += 2) object[items[i]] = items[i + 1]
+      return object
+    }
+    const n = argument(info)
+    if (major === 0) return n
+    if (major === 1) return -1 - n
+    if (major === 2 || major === 3) {
+      const chunk = bytes.subarray(pos, (pos += n))
+      const result = major === 3 ? text.decode(chunk) : chunk
+      if (strings && n >= minRefLength(strings.length)) strings.push(result)
+      return result
+    }
+    if (major === 4) return Array.from({ length: n }, value)
+    if (major === 5) {
+      const object = {}
+      for (let i = 0; i < n; i++) object[value()] = value()
+      return object
+    }
+    if (n === 256) {
+      const outer = strings
+      strings = []
+      try { return value() } finally { strings = outer }
+    }
+    if (n === 25) return strings[value()]
+    return value()
+  }
+  return value()
+}
+
+// STOMP frame from a binary WebSocket message: text headers, then content-length bytes of body
+function parseBinaryFrame(bytes) {
+  let end = 0
+  while (end + 1 < bytes.length && !(bytes[end] === 10 && bytes[end + 1] === 10)) end++
+  const lines = new TextDecoder().decode(bytes.subarray(0, end)).split('\n')
+  const headers = Object.fromEntries(lines.slice(1).map((line) => [line.slice(0, line.indexOf(':')), line.slice(line.indexOf(':') + 1)]))
+  const length = Number(headers['content-length'] ?? bytes.length - end - 3)
+  return { command: lines[0], headers, body: bytes.subarray(end + 2, end + 2 + length) }
+}
+
+function onChat(message) {
+  if (message && message.type === 'CHAT' && message.clientTs) latencies.push(Date.now() - message.clientTs)
+}
+
+function frame(command, headers, body = '') {
+  const lines = Object.entries(headers).map(([k, v]) => `${k}:${v}`)
+  return `${command}\n${lines.join('\n')}\n\n${body}\0`
+}
+
+// Resolves once CONNECTED arrives; chat deliveries are timed against the sender's clientTs
+function connect(roomId) {
+  return new Promise((resolve, reject) => {
+    const ws = new WebSocket(WS_URL)
+    ws.binaryType = 'arraybuffer'
+    const client = { ws, heartbeat: null }
+    const connectHeaders = { 'accept-version': '1.2', 'heart-beat': '20000,20000' }
+    if (FORMAT !== 'json') connectHeaders['accept-format'] = FORMAT
+    ws.onopen = () => ws.send(frame('CONNECT', connectHeaders))
+    ws.onerror = () => {
+      errors++
+      reject(new Error('socket error'))
+    }
+    ws.onclose = () => clearInterval(client.heartbeat)
+    ws.onmessage = (event) => {
+      if (event.data instanceof ArrayBuffer) {
+        bytesReceived += event.data.byteLength
+        const message = parseBinaryFrame(new Uint8Array(event.data))
+        if (message.command === 'MESSAGE' && message.headers['payload-format'] === 'cbor') {
+          try {
+            onChat(decodeCbor(message.body))
+          } catch (e) {}
+        }
+        return
+      }
+      const data = String(event.data)
+      bytesReceived += Buffer.byteLength(data)
+      if (data.startsWith('CONNECTED')) {
+        client.heartbeat = setInterval(() => ws.readyState === 1 && ws.send('\n'), 20000)
+        ws.send(frame('SUBSCRIBE', { id: 'chat', destination: `/topic/room/${roomId}/chat` }))
+        resolve(client)
+      } else if (data.startsWith('MESSAGE')) {
+        const body = data.slice(data.indexOf('\n\n') + 2, data.lastIndexOf('\0'))
+        try {
+          onChat(JSON.parse(body))
+        } catch (e) {}
+      }
+    }
+  })
+}
+
+function send(client, destination, payload) {
+  if (client.ws.readyState !== 1) return
+  const body = JSON.stringify(payload)
+  client.ws.send(frame('SEND', { destination, 'content-type': 'application/json' }, body))
+}
+
+async function openRoom(r) {
+  const roomId = `load-${RUN_ID}-${r}`
+  const members = []
+  for (let p = 0; p < ROOM_SIZE; p++) {
+    const client = await connect(roomId)
+    send(client, '/app/join', {
+      username: `p${p}`,
+      roomId,
+      action: p === 0 ? 'create' : 'join',
+      config: p === 0 ? { maxPlayers: ROOM_SIZE, playersPerIpLimit: ROOM_SIZE, isPrivate: true } : undefined
+    })
+    members.push(client)
+    if (p === 0) await new Promise((done) => setTimeout(done, 50)) // room exists before the others join
+  }
+  return { roomId, members }
+}
+
+async function runtime() {
+  const response = await fetch(`${BASE_URL}/api/metrics/runtime`)
+  return response.json()
+}
+
+function percentile(sorted, p) {
+  return sorted.length ? sorted[Math.min(sorted.length - 1, Math.floor(sorted.length * p))] : 0
+}
+
+const before = await runtime()
+console.log(`[Load] ${before.webStack} stack on ${before.jvm}, ${before.cpus} cpus`)
+console.log(`[Load] ${FORMAT} frames: opening ${ROOMS} rooms x ${ROOM_SIZE} connections`)
+
+const rooms = []
+for (let r = 0; r < ROOMS; r += OPEN_CONCURRENCY) {
+  const batch = []
+  for (let i = r; i < Math.min(ROOMS, r + OPEN_CONCURRENCY); i++) {
+    batch.push(openRoom(i).catch(() => null))
+  }
+  rooms.push(...(await Promise.all(batch)).filter(Boolean))
+}
+
+const loaded = await runtime()
+const connections = loaded.connections - before.connections
+console.log(`[Load] ${connections} connections open, ${errors} errors; chatting for ${DURATION_S}s`)
+if (FORMAT === 'cbor') {
+  const formats = await (await fetch(`${BASE_URL}/api/metrics/payload-format`)).json()
+  if (formats.cborSessions === 0) console.log('[Load] server kept JSON: start it with --app.payload-format.cbor-enabled=true')
+}
+
+let seq = 0
+const chatTimer = setInterval(() => {
+  for (const room of rooms) {
+    const sender = room.members[seq % room.members.length]
+    send(sender, `/app/chat/${room.roomId}`, { type: 'CHAT', sender: 'load', content: `probe ${seq}`, clientTs: Date.now() })
+  }
+  seq++
+}, 1000 / CHATS_PER_ROOM_PER_S)
+
+await new Promise((done) => setTimeout(done, DURATION_S * 1000))
+clearInterval(chatTimer)
+
+const after = await runtime()
+const sorted = latencies.sort((a, b) => a - b)
+const heapPerConnection = (after.heapUsedBytes - before.heapUsedBytes) / Math.max(1, connections)
+
+console.log(`[Load] deliveries ${sorted.length}: p50 ${percentile(sorted, 0.5)}ms, p99 ${percentile(sorted, 0.99)}ms, max ${sorted.at(-1) ?? 0}ms`)
+console.log(`[Load] received ${(bytesReceived / 1024).toFixed(1)} KB, ${(bytesReceived / Math.max(1, sorted.length)).toFixed(0)} B per delivery`)
+console.log(`[Load] heap ${(heapPerConnection / 1024).toFixed(1)} KB/connection (~${Math.round((1 << 30) / Math.max(1, heapPerConnection))} connections per GB), ` +
+  `threads ${before.threads} -> ${after.threads}`)
+
+for (const room of rooms) {
+  for (const client of room.members) client.ws.close()
+}
+setTimeout(() => process.exit(0), 500)
@@ -0,0 +1,95 @@
+package com.example.scribble_backend.bench;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.scribble_backend.config.Cbor;
+import com.example.scribble_backend.model.ChatMessage;
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.Player;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+// Per-frame cost of the CBOR path against plain JSON. The server converts from the JSON the broker
+// already serialized (jsonToCbor); setup prints each payload's JSON and CBOR sizes once.
+// payload: chat, state/2 or state/8 (a room state with that many players)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CborEncodingBenchmark {
+
+    @Param({ "chat", "state/2", "state/8" })
+    public String payload;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private Object value;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() {
+        value = "chat".equals(payload) ? chat() : state(Integer.parseInt(payload.substring("state/".length())));
+        json = mapper.writeValueAsBytes(value);
+        cbor = Cbor.fromJson(mapper, json);
+        System.out.println(String.format("[Cbor] %s: json %d B, cbor %d B (%.0f%%)",
+                payload, json.length, cbor.length, 100.0 * cbor.length / json.length));
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public JsonNode jsonDecode() {
+        return mapper.readTree(json);
+    }
+
+    @Benchmark
+    public byte[] jsonToCbor() {
+        return Cbor.fromJson(mapper, json);
+    }
+
+    @Benchmark
+    public JsonNode cborDecode() {
+        return Cbor.decode(cbor);
+    }
+
+    private static ChatMessage chat() {
+        return ChatMessage.builder()
+                .type(ChatMessage.MessageType.CHAT)
+                .sender("player-3")
+                .senderSessionId(UUID.randomUUID().toString())
+                .content("is it a lighthouse?")
+                .serverTs(System.currentTimeMillis())
+                .build();
+    }
+
+    private static GameRoom state(int players) {
+        GameRoom room = new GameRoom();
+        room.setRoomId("482913");
+        room.setLanguage("en_us");
+        for (int i = 0; i < players; i++) {
+            room.addPlayer(new Player(UUID.randomUUID().toString(), "player-" + i, i * 120));
+        }
+        room.setGameRunning(true);
+        room.setCurrentRound(2);
+        return room;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.scribble_backend.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.scribble_backend.model.ChooseWordRequest;
+import com.example.scribble_backend.model.GameRoomConfig;
+import com.example.scribble_backend.model.JoinRequest;
+
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+// /app/join (create, with a custom word list) and /app/chooseWord: the Map<String, Object> decoding
+// plus hand casts the handlers used to do, against the typed records read through a cached reader.
+// Run with -prof gc for the allocation side (gc.alloc.rate.norm is bytes per message).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadDecodingBenchmark {
+
+    private static final byte[] CREATE = ("""
+            {"username":"player-3","roomId":"482913","action":"create","config":{
+              "language":"English","scoringMode":"Normal","drawingTime":120,"rounds":4,"maxPlayers":12,
+              "playersPerIpLimit":999,"customWordsPerTurn":3,"isPrivate":true,"lobbyName":"Friday night",
+              "customWords":["lighthouse","giraffe","submarine","volcano","pancake","telescope","umbrella","cactus"]}}
+            """).getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] CHOOSE_WORD = "{\"word\":\"lighthouse\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final ObjectReader joinReader = mapper.readerFor(JoinRequest.class);
+    private final ObjectReader chooseWordReader = mapper.readerFor(ChooseWordRequest.class);
+
+    @Benchmark
+    public GameRoomConfig createWithMap() {
+        return configFromMap(mapper.readValue(CREATE, Map.class));
+    }
+
+    // Decoding alone, without the bounds checks and word-list cleanup the map path never did
+    @Benchmark
+    public JoinRequest createRecordDecodeOnly() {
+        return joinReader.readValue(CREATE);
+    }
+
+    @Benchmark
+    public GameRoomConfig createWithRecord() {
+        JoinRequest request = joinReader.<JoinRequest>readValue(CREATE).validated();
+        return request.toConfig();
+    }
+
+    @Benchmark
+    public String chooseWordWithMap() {
+        return (String) mapper.readValue(CHOOSE_WORD, Map.class).get("word");
+    }
+
+    @Benchmark
+    public String chooseWordWithRecord() {
+        return chooseWordReader.<ChooseWordRequest>readValue(CHOOSE_WORD).validated().word();
+    }
+
+    // What Spring's message converter does per message: readValue on the shared mapper, no cached reader
+    @Benchmark
+    public String chooseWordWithMapperReadValue() {
+        return mapper.readValue(CHOOSE_WORD, ChooseWordRequest.class).validated().word();
+    }
+
+    @Benchmark
+    public GameRoomConfig createWithMapperReadValue() {
+        return mapper.readValue(CREATE, JoinRequest.class).validated().toConfig();
+    }
+
+    // What GameController.joinRoom did before the request records
+    @SuppressWarnings("unchecked")
+    private static GameRoomConfig configFromMap(Map<String, Object> payload) {
+        Map<String, Object> configMap = (Map<String, Object>) payload.get("config");
+        GameRoomConfig config = new GameRoomConfig();
+        config.setLanguage((String) configMap.get("language"));
+        config.setScoringMode((String) configMap.get("scoringMode"));
+        config.setDrawingTime((Integer) configMap.get("drawingTime"));
+        config.setRounds((Integer) configMap.get("rounds"));
+        config.setMaxPlayers((Integer) configMap.get("maxPlayers"));
+        config.setPlayersPerIpLimit((Integer) configMap.get("playersPerIpLimit"));
+        config.setCustomWordsPerTurn((Integer) configMap.get("customWordsPerTurn"));
+        config.setPrivate((Boolean) configMap.get("isPrivate"));
+        config.setLobbyName((String) configMap.get("lobbyName"));
+        if (configMap.get("customWords") instanceof List<?> words) {
+            config.setCustomWords((List<String>) words);
+        }
+        return config;
+    }
+}
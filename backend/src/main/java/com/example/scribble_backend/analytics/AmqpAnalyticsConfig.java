@@ -0,0 +1,58 @@
+package com.example.scribble_backend.analytics;
+
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.JacksonJsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.scribble_backend.model.GameEventBatch;
+
+// RabbitMQ transport (app.analytics.transport=amqp, broker settings under spring.rabbitmq.*). Each flushed
+// batch is one JSON message on a durable queue. The consumer can run in this process or, with
+// app.analytics.consumer.enabled=false here, in a separate instance that only aggregates.
+@Configuration
+@ConditionalOnProperty(name = "app.analytics.transport", havingValue = "amqp")
+public class AmqpAnalyticsConfig {
+
+    @Value("${app.analytics.queue:scribble.analytics}")
+    private String queueName;
+
+    @Bean
+    public Queue analyticsQueue() {
+        return new Queue(queueName, true);
+    }
+
+    @Bean
+    public MessageConverter analyticsMessageConverter() {
+        return new JacksonJsonMessageConverter("com.example.scribble_backend.model");
+    }
+
+    @Bean
+    public AnalyticsSink amqpAnalyticsSink(RabbitTemplate rabbitTemplate) {
+        return batch -> rabbitTemplate.convertAndSend(queueName, batch); // default exchange routes by queue name
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.analytics.consumer.enabled", havingValue = "true", matchIfMissing = true)
+    public Listener analyticsListener(WordStatsAggregator aggregator) {
+        return new Listener(aggregator);
+    }
+
+    public static class Listener {
+        private final WordStatsAggregator aggregator;
+
+        Listener(WordStatsAggregator aggregator) {
+            this.aggregator = aggregator;
+        }
+
+        @RabbitListener(queues = "${app.analytics.queue:scribble.analytics}")
+        public void onBatch(GameEventBatch batch) {
+            aggregator.consume(batch);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.scribble_backend.analytics;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.scribble_backend.model.GameEvent;
+import com.example.scribble_backend.model.GameEventBatch;
+import com.example.scribble_backend.model.GameRoom;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Game threads only offer to a bounded queue (dropping when it is full); one flusher thread sends batches
+// of up to batch-size events, or whatever arrived within flush-ms, so a slow or absent broker never
+// reaches the game loop.
+@Component
+public class AnalyticsPublisher {
+
+    @Autowired
+    private AnalyticsSink sink;
+
+    @Autowired
+    private Clock clock;
+
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.analytics.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.analytics.flush-ms:1000}")
+    private long flushMs;
+
+    private BlockingQueue<GameEvent> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batchesSent = new LongAdder();
+    private final LongAdder batchesFailed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flusher = new Thread(this::run, "analytics-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) return;
+        running = false;
+        flusher.interrupt();
+        flusher.join(5000);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void roundStarted(GameRoom room) {
+        publish(event(GameEvent.Type.ROUND_START, room).build());
+    }
+
+    public void wordChosen(GameRoom room) {
+        publish(event(GameEvent.Type.WORD_CHOSEN, room).build());
+    }
+
+    public void guessed(GameRoom room, String sessionId, boolean correct) {
+        publish(event(GameEvent.Type.GUESS, room)
+                .sessionId(sessionId)
+                .correct(correct)
+                .elapsedSeconds(room.getDrawingTime() - room.getRoundTime())
+                .build());
+    }
+
+    public void roundEnded(GameRoom room) {
+        publish(event(GameEvent.Type.ROUND_END, room)
+                .elapsedSeconds(room.isWordChosen() ? room.getDrawingTime() - room.getRoundTime() : 0)
+                .correctGuesses(room.getCorrectGuessCount())
+                .guessers(Math.max(0, room.getPlayerCount() - 1))
+                .build());
+    }
+
+    public void disconnected(GameRoom room, String sessionId) {
+        publish(event(GameEvent.Type.DISCONNECT, room)
+                .sessionId(sessionId)
+                .inGame(room.isGameRunning())
+                .build());
+    }
+
+    // Never blocks: a full queue means the sink has fallen behind, and the event is counted and dropped
+    public void publish(GameEvent event) {
+        if (!enabled) return;
+        if (queue.offer(event)) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("published", published.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("queued", queue == null ? 0 : queue.size());
+        stats.put("batchesSent", batchesSent.sum());
+        stats.put("batchesFailed", batchesFailed.sum());
+        return stats;
+    }
+
+    private GameEvent.GameEventBuilder event(GameEvent.Type type, GameRoom room) {
+        String word = room.isWordChosen() ? room.getCurrentWord() : null;
+        return GameEvent.builder()
+                .type(type)
+                .timestamp(clock.millis())
+                .roomId(room.getRoomId())
+                .language(room.getLanguage())
+                .round(room.getCurrentRound())
+                .word(word)
+                .customWord(word != null && room.getCustomWords() != null && room.getCustomWords().contains(word));
+    }
+
+    // A batch closes when it is full or flush-ms after its first event
+    private void run() {
+        List<GameEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                GameEvent first = queue.poll(flushMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) break;
+                    GameEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: send what was collected, then drain the rest
+            }
+            if (batch.isEmpty()) continue;
+            try {
+                sink.send(new GameEventBatch(List.copyOf(batch)));
+                batchesSent.increment();
+            } catch (RuntimeException e) {
+                batchesFailed.increment();
+                System.out.println("[Analytics] Dropped a batch of " + batch.size() + " events: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+}
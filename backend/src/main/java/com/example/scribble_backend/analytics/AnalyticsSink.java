@@ -0,0 +1,8 @@
+package com.example.scribble_backend.analytics;
+
+import com.example.scribble_backend.model.GameEventBatch;
+
+// Where AnalyticsPublisher hands flushed batches; called only from its flusher thread
+public interface AnalyticsSink {
+    void send(GameEventBatch batch);
+}
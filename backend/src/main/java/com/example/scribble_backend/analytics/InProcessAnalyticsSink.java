@@ -0,0 +1,28 @@
+package com.example.scribble_backend.analytics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.scribble_backend.model.GameEventBatch;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Stand-in for the broker when none is configured (and in tests): batches take the same JSON round trip
+// they would over AMQP, then go straight to the aggregator on the flusher thread
+@Component
+@ConditionalOnProperty(name = "app.analytics.transport", havingValue = "in-process", matchIfMissing = true)
+public class InProcessAnalyticsSink implements AnalyticsSink {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WordStatsAggregator aggregator;
+
+    @Override
+    public void send(GameEventBatch batch) {
+        byte[] body = objectMapper.writeValueAsBytes(batch);
+        aggregator.consume(objectMapper.readValue(body, GameEventBatch.class));
+    }
+}
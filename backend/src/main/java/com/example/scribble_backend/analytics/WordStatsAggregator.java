@@ -0,0 +1,159 @@
+package com.example.scribble_backend.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Component;
+
+import com.example.scribble_backend.model.GameEvent;
+import com.example.scribble_backend.model.GameEventBatch;
+
+// Consumer side of the pipeline: folds event batches into per-word difficulty and per-language
+// guess and drop-off figures. Fed by the AMQP listener or, without a broker, the in-process sink.
+@Component
+public class WordStatsAggregator {
+
+    // Only built-in words are tracked; this bounds the table should the word lists grow a lot
+    private static final int MAX_WORDS = 50_000;
+
+    private static final class WordStats {
+        final String language;
+        final String word;
+        long timesChosen;
+        long rounds;
+        long unsolvedRounds;
+        long guesses;
+        long correctGuesses;
+        long secondsToSolve; // summed over correct guesses
+        long guessers; // summed over rounds: players who could have guessed
+        long solvers;
+
+        WordStats(String language, String word) {
+            this.language = language;
+            this.word = word;
+        }
+
+        double solveRate() {
+            return guessers == 0 ? 0 : solvers / (double) guessers;
+        }
+    }
+
+    private static final class LanguageStats {
+        long roundsStarted;
+        long roundsEnded;
+        long guesses;
+        long correctGuesses;
+        final Map<Integer, Long> disconnectsByRound = new TreeMap<>();
+    }
+
+    private final Map<String, WordStats> words = new HashMap<>();
+    private final Map<String, LanguageStats> languages = new HashMap<>();
+    private long eventsConsumed;
+
+    public synchronized void consume(GameEventBatch batch) {
+        if (batch == null || batch.events() == null) return;
+        for (GameEvent event : batch.events()) {
+            if (event == null || event.getType() == null) continue;
+            eventsConsumed++;
+            String language = event.getLanguage() == null ? "unknown" : event.getLanguage();
+            LanguageStats lang = languages.computeIfAbsent(language, l -> new LanguageStats());
+            // Custom words belong to a private word list: they count towards the language, never a public word row
+            WordStats word = event.getWord() == null || event.isCustomWord() ? null : word(language, event.getWord());
+
+            switch (event.getType()) {
+                case ROUND_START:
+                    lang.roundsStarted++;
+                    break;
+                case WORD_CHOSEN:
+                    if (word != null) word.timesChosen++;
+                    break;
+                case GUESS:
+                    lang.guesses++;
+                    if (event.isCorrect()) lang.correctGuesses++;
+                    if (word == null) break;
+                    word.guesses++;
+                    if (event.isCorrect()) {
+                        word.correctGuesses++;
+                        word.secondsToSolve += event.getElapsedSeconds();
+                    }
+                    break;
+                case ROUND_END:
+                    lang.roundsEnded++;
+                    if (word == null) break;
+                    word.rounds++;
+                    word.guessers += event.getGuessers();
+                    word.solvers += event.getCorrectGuesses();
+                    if (event.getCorrectGuesses() == 0) word.unsolvedRounds++;
+                    break;
+                case DISCONNECT:
+                    if (event.isInGame()) lang.disconnectsByRound.merge(event.getRound(), 1L, Long::sum);
+                    break;
+            }
+        }
+    }
+
+    // Hardest first: lowest share of players who solved it, then slowest to solve
+    public synchronized List<Map<String, Object>> getWords(String language, int minRounds, int limit) {
+        List<WordStats> matching = new ArrayList<>();
+        for (WordStats stats : words.values()) {
+            if (stats.rounds < minRounds) continue;
+            if (language != null && !language.equalsIgnoreCase(stats.language)) continue;
+            matching.add(stats);
+        }
+        matching.sort(Comparator.comparingDouble(WordStats::solveRate)
+                .thenComparing(Comparator.comparingDouble(WordStatsAggregator::avgSecondsToSolve).reversed()));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (WordStats stats : matching.subList(0, Math.min(limit, matching.size()))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("language", stats.language);
+            row.put("word", stats.word);
+            row.put("rounds", stats.rounds);
+            row.put("timesChosen", stats.timesChosen);
+            row.put("solveRate", stats.solveRate());
+            row.put("avgSecondsToSolve", avgSecondsToSolve(stats));
+            row.put("unsolvedRounds", stats.unsolvedRounds);
+            row.put("guesses", stats.guesses);
+            result.add(row);
+        }
+        return result;
+    }
+
+    public synchronized Map<String, Object> getLanguages() {
+        Map<String, Object> result = new TreeMap<>();
+        languages.forEach((language, stats) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("roundsStarted", stats.roundsStarted);
+            row.put("roundsEnded", stats.roundsEnded);
+            row.put("guesses", stats.guesses);
+            row.put("correctGuesses", stats.correctGuesses);
+            row.put("disconnectsByRound", new TreeMap<>(stats.disconnectsByRound));
+            result.put(language, row);
+        });
+        return result;
+    }
+
+    public synchronized long getEventsConsumed() {
+        return eventsConsumed;
+    }
+
+    private WordStats word(String language, String word) {
+        String key = language + '\u0000' + word.toLowerCase(Locale.ROOT);
+        WordStats stats = words.get(key);
+        if (stats == null && words.size() < MAX_WORDS) {
+            stats = new WordStats(language, word.toLowerCase(Locale.ROOT));
+            words.put(key, stats);
+        }
+        return stats;
+    }
+
+    private static double avgSecondsToSolve(WordStats stats) {
+        return stats.correctGuesses == 0 ? 0 : stats.secondsToSolve / (double) stats.correctGuesses;
+    }
+}
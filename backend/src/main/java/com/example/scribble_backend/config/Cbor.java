@@ -0,0 +1,47 @@
+package com.example.scribble_backend.config;
+
+import java.io.ByteArrayOutputStream;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORFactory;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.cbor.CBORWriteFeature;
+
+// CBOR (RFC 8949) through Jackson's codec, with stringref back-references (tags 256 and 25): within a
+// frame, a repeated key or value such as "sessionId" or "CHAT" is written once and then referenced by index
+public final class Cbor {
+
+    // Set on the factory, not just the mapper: the factory decides whether to open the namespace (tag 256)
+    // and would otherwise let the generator write references outside of one
+    private static final CBORMapper MAPPER = CBORMapper.builder(CBORFactory.builder()
+                    .enable(CBORWriteFeature.STRINGREF)
+                    .build())
+            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+            .build();
+
+    private Cbor() {
+    }
+
+    public static byte[] encode(JsonNode root) {
+        return MAPPER.writeValueAsBytes(root);
+    }
+
+    // Token by token from the JSON the broker already serialized, without building a tree in between
+    public static byte[] fromJson(ObjectMapper jsonMapper, byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = jsonMapper.createParser(json);
+                JsonGenerator generator = MAPPER.createGenerator(out)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+        return out.toByteArray();
+    }
+
+    public static JsonNode decode(byte[] bytes) {
+        return MAPPER.readTree(bytes);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.scribble_backend.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Lets clients on CBOR send their /app frames as CBOR too (content-type:application/cbor). Strict matching
+// keeps it out of the way of everything that doesn't ask for it, which is all server-side conversion.
+public class CborMessageConverter extends AbstractMessageConverter {
+
+    private final ObjectMapper objectMapper;
+
+    public CborMessageConverter(ObjectMapper objectMapper) {
+        super(PayloadFormatNegotiator.APPLICATION_CBOR);
+        this.objectMapper = objectMapper;
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload)) return null;
+        return objectMapper.treeToValue(Cbor.decode(payload), targetClass);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return Cbor.encode(objectMapper.valueToTree(payload));
+    }
+}
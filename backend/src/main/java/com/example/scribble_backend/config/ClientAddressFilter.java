@@ -0,0 +1,31 @@
+package com.example.scribble_backend.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Resolves the client address once per request, so controllers take it as a @RequestAttribute
+// and stay free of servlet types (the reactive runtime sets the same attribute in a WebFilter)
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ClientAddressFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ConnectionLimiter connectionLimiter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        request.setAttribute(ConnectionLimiter.CLIENT_IP_ATTRIBUTE, connectionLimiter.resolveClientIp(request.getRemoteAddr(),
+                request.getHeader("X-Forwarded-For"), request.getHeader("X-Real-IP")));
+        chain.doFilter(request, response);
+    }
+}
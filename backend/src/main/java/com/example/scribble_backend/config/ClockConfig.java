@@ -0,0 +1,24 @@
+package com.example.scribble_backend.config;
+
+import java.time.Clock;
+import java.util.Random;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Game timing and randomness are injected so the simulation profile can swap in a virtual clock and a fixed seed
+@Configuration
+@Profile("!simulation")
+public class ClockConfig {
+
+    @Bean
+    public Clock gameClock() {
+        return Clock.systemUTC();
+    }
+
+    @Bean
+    public Random gameRandom() {
+        return new Random();
+    }
+}
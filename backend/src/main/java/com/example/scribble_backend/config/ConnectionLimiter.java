@@ -0,0 +1,181 @@
+package com.example.scribble_backend.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Handshake-time admission: a global connection ceiling plus a per-client-IP cap
+@Component
+public class ConnectionLimiter {
+
+    public static final String PERMIT_ATTRIBUTE = "CONNECTION_PERMIT";
+    // Request attribute holding the resolved client address, set for every HTTP request by ClientAddressFilter
+    public static final String CLIENT_IP_ATTRIBUTE = "CLIENT_IP";
+
+    @Value("${app.admission.max-connections:2000}")
+    private int maxConnections;
+
+    @Value("${app.admission.max-connections-per-ip:20}")
+    private int maxConnectionsPerIp;
+
+    @Value("${app.admission.trusted-proxies:127.0.0.1/32,::1/128,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+    private String trustedProxies;
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+
+    // ConcurrentHashMap bins act as the lock stripes; entries are dropped when they reach zero
+    private final Map<String, AtomicInteger> connectionsByIp = new ConcurrentHashMap<>();
+
+    private final List<byte[][]> trustedRanges = new ArrayList<>();
+
+    // Handed out per admitted session; release() is idempotent because disconnect events can repeat
+    public final class Permit {
+        private final String ipAddress;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String ipAddress) {
+            this.ipAddress = ipAddress;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                releaseSlot(ipAddress);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        for (String cidr : trustedProxies.split(",")) {
+            byte[][] range = parseCidr(cidr.trim());
+            if (range != null) {
+                trustedRanges.add(range);
+            }
+        }
+    }
+
+    // Returns null when either limit is already reached
+    public Permit tryAcquire(String ipAddress) {
+        if (totalConnections.incrementAndGet() > maxConnections) {
+            totalConnections.decrementAndGet();
+            return null;
+        }
+
+        boolean[] admitted = new boolean[1];
+        connectionsByIp.compute(ipAddress, (ip, count) -> {
+            if (count == null) count = new AtomicInteger();
+            if (count.get() < maxConnectionsPerIp) {
+                count.incrementAndGet();
+                admitted[0] = true;
+            }
+            return count.get() == 0 ? null : count;
+        });
+
+        if (!admitted[0]) {
+            totalConnections.decrementAndGet();
+            return null;
+        }
+        return new Permit(ipAddress);
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    // Forwarded headers are only believed when they come from one of our own proxies
+    public String resolveClientIp(String remoteAddr, String forwardedFor, String realIp) {
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] hops = forwardedFor.split(",");
+            // Walk right to left: the first hop we don't operate is the real client
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (hop.isEmpty()) continue;
+                if (!isTrustedProxy(hop) || i == 0) {
+                    return hop;
+                }
+            }
+        }
+
+        if (realIp != null && !realIp.isBlank()) {
+            return realIp.trim();
+        }
+        return remoteAddr;
+    }
+
+    private void releaseSlot(String ipAddress) {
+        connectionsByIp.computeIfPresent(ipAddress, (ip, count) -> count.decrementAndGet() <= 0 ? null : count);
+        totalConnections.decrementAndGet();
+    }
+
+    private boolean isTrustedProxy(String address) {
+        byte[] addr = parseLiteral(address);
+        if (addr == null) return false;
+
+        for (byte[][] range : trustedRanges) {
+            byte[] network = range[0];
+            byte[] mask = range[1];
+            if (network.length != addr.length) continue;
+
+            boolean match = true;
+            for (int i = 0; i < addr.length && match; i++) {
+                match = (addr[i] & mask[i]) == (network[i] & mask[i]);
+            }
+            if (match) return true;
+        }
+        return false;
+    }
+
+    private byte[][] parseCidr(String cidr) {
+        if (cidr.isEmpty()) return null;
+        int slash = cidr.indexOf('/');
+        byte[] network = parseLiteral(slash < 0 ? cidr : cidr.substring(0, slash));
+        if (network == null) return null;
+
+        int bits = network.length * 8;
+        if (slash >= 0) {
+            try {
+                bits = Integer.parseInt(cidr.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        byte[] mask = new byte[network.length];
+        for (int i = 0; i < mask.length; i++) {
+            int remaining = Math.max(0, Math.min(8, bits - i * 8));
+            mask[i] = (byte) (0xFF << (8 - remaining));
+        }
+        return new byte[][] {network, mask};
+    }
+
+    // Only numeric addresses are accepted so that header values can never trigger a DNS lookup
+    private byte[] parseLiteral(String address) {
+        if (address == null || address.isEmpty()) return null;
+        boolean ipv6 = address.indexOf(':') >= 0;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            boolean ok = (c >= '0' && c <= '9') || c == '.'
+                    || (ipv6 && (c == ':' || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')));
+            if (!ok) return null;
+        }
+        try {
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.scribble_backend.config;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.session.AbstractSockJsSession;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// STOMP heartbeats and dead-peer reaping on one hashed-wheel thread, replacing the simple broker's
+// heartbeat task (which walks every session on each run) and SockJS's per-session heartbeat tasks on the
+// shared scheduler. Any frame in either direction counts as activity, so busy sessions never get a
+// heartbeat and an idle one gets exactly one per interval. A transport that never sends CONNECT is
+// closed at the connect deadline, which also frees its ConnectionLimiter permit.
+@Component
+public class HeartbeatMonitor implements WebSocketHandlerDecoratorFactory, HeartbeatWheel.Sink {
+
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+
+    @Value("${app.heartbeat.interval-ms:20000}")
+    private long intervalMs;
+
+    // Missing this many of the client's heartbeats in a row closes the connection
+    @Value("${app.heartbeat.missed-before-reap:2.5}")
+    private double missedBeforeReap;
+
+    @Value("${app.heartbeat.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${app.heartbeat.wheel-slots:512}")
+    private int wheelSlots;
+
+    @Value("${app.heartbeat.connect-timeout-ms:10000}")
+    private long connectTimeoutMs;
+
+    // Lazy: the channel is built by the broker configuration, which needs WebSocketConfig (and so this) first
+    @Autowired
+    @Lazy
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    // keepAliveMs: the SockJS heartbeat time for SockJS sessions (their transports need traffic), else 0
+    private record Tracked(HeartbeatWheel.Entry entry, Runnable close, long[] negotiated, long keepAliveMs) {}
+
+    private final Map<String, Tracked> sessions = new ConcurrentHashMap<>();
+
+    private HeartbeatWheel wheel;
+    private ScheduledExecutorService ticker;
+    private ExecutorService closer; // closing can block on a slow transport, so never on the wheel thread
+    private volatile long ticks;
+    private volatile long tickNanos;
+
+    @PostConstruct
+    public void start() {
+        wheel = new HeartbeatWheel(tickMs, wheelSlots, this);
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "heartbeat-wheel"));
+        closer = Executors.newSingleThreadExecutor(r -> daemon(r, "heartbeat-reaper"));
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        closer.shutdownNow();
+    }
+
+    private void tick() {
+        long started = System.nanoTime();
+        try {
+            wheel.advance(now());
+        } catch (RuntimeException e) {
+            System.out.println("[Heartbeat] Tick failed: " + e.getMessage());
+        }
+        tickNanos += System.nanoTime() - started;
+        ticks++;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                long keepAliveMs = 0;
+                if (session instanceof AbstractSockJsSession sockJs) {
+                    // The wheel sends them instead; see inboundInterceptor
+                    sockJs.disableHeartbeat();
+                    keepAliveMs = sockJs.getSockJsServiceConfig().getHeartbeatTime();
+                }
+                HeartbeatWheel.Entry entry = track(session.getId(), () -> close(session), keepAliveMs);
+                super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                    @Override
+                    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                        entry.onWrite(now());
+                        super.sendMessage(message);
+                    }
+                });
+            }
+
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                Tracked tracked = sessions.get(session.getId());
+                if (tracked != null) tracked.entry().onRead(now());
+                super.handleMessage(session, message);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                untrack(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    // For transports that aren't decorated here (the reactive runtime); close runs off the wheel thread
+    public HeartbeatWheel.Entry track(String sessionId, Runnable close) {
+        return track(sessionId, close, 0);
+    }
+
+    private HeartbeatWheel.Entry track(String sessionId, Runnable close, long keepAliveMs) {
+        long now = now();
+        HeartbeatWheel.Entry entry = wheel.newEntry(sessionId, now);
+        Tracked previous = sessions.put(sessionId, new Tracked(entry, close, new long[2], keepAliveMs));
+        if (previous != null) wheel.cancel(previous.entry());
+        wheel.awaitConnect(entry, now + connectTimeoutMs);
+        return entry;
+    }
+
+    public void untrack(String sessionId) {
+        Tracked tracked = sessions.remove(sessionId);
+        if (tracked != null) wheel.cancel(tracked.entry());
+    }
+
+    // Negotiates on CONNECT (STOMP spec: the larger of what each side offers, 0 meaning never). A SockJS
+    // session is written to at least every SockJS heartbeat time whatever was negotiated; the STOMP
+    // heartbeat (a bare EOL, which clients accept between frames at any time) stands in for SockJS's "h"
+    public ChannelInterceptor inboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.CONNECT) {
+                    return message;
+                }
+                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+                Tracked tracked = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+                if (tracked == null) return message;
+
+                long[] client = accessor.getHeartbeat(); // {client sends every, client wants every}
+                long writeInterval = client[1] > 0 ? Math.max(intervalMs, client[1]) : 0;
+                long keepAliveMs = tracked.keepAliveMs();
+                if (keepAliveMs > 0) {
+                    writeInterval = writeInterval > 0 ? Math.min(writeInterval, keepAliveMs) : keepAliveMs;
+                }
+                long readInterval = client[0] > 0 ? Math.max(intervalMs, client[0]) : 0;
+                tracked.negotiated()[0] = client[1] > 0 ? intervalMs : 0;
+                tracked.negotiated()[1] = client[0] > 0 ? intervalMs : 0;
+                wheel.register(tracked.entry(), writeInterval, (long) (readInterval * missedBeforeReap));
+                return message;
+            }
+        };
+    }
+
+    // Tells the client what was agreed, in place of the simple broker's (disabled) heartbeat values
+    public ChannelInterceptor outboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.CONNECT_ACK) {
+                    return message;
+                }
+                Tracked tracked = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+                if (tracked == null) return message;
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                accessor.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, tracked.negotiated().clone());
+                return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+            }
+        };
+    }
+
+    // Sent through the outbound channel like any other frame, so it is serialized with the session's writes.
+    // Only ever called after CONNECT: before it, an entry's sole deadline is the connect deadline
+    @Override
+    public void heartbeat(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.HEARTBEAT);
+        accessor.setSessionId(sessionId);
+        clientOutboundChannel.send(MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders()));
+    }
+
+    // The close runs the usual disconnect handling (the player gets the normal resume grace period and
+    // the connection's permit is released)
+    @Override
+    public void reap(String sessionId) {
+        Tracked tracked = sessions.get(sessionId);
+        if (tracked == null) return;
+        System.out.println("[Heartbeat] Closing silent session " + sessionId);
+        closer.execute(tracked.close());
+    }
+
+    private static void close(WebSocketSession session) {
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("No CONNECT or heartbeat from client"));
+        } catch (IOException e) {
+            System.out.println("[Heartbeat] Close failed for " + session.getId() + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long tickCount = ticks;
+        stats.put("sessions", sessions.size());
+        stats.put("heartbeatsSent", wheel.getHeartbeatsSent());
+        stats.put("sessionsReaped", wheel.getSessionsReaped());
+        stats.put("connectTimeouts", wheel.getConnectTimeouts());
+        stats.put("ticks", tickCount);
+        stats.put("avgTickMicros", tickCount == 0 ? 0 : tickNanos / tickCount / 1000.0);
+        return stats;
+    }
+
+    public static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
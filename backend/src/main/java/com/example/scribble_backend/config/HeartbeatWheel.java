@@ -0,0 +1,199 @@
+package com.example.scribble_backend.config;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Hashed-wheel timer for STOMP heartbeats and the CONNECT deadline. Each connection has exactly one entry,
+// filed in the bucket of its next deadline; message traffic only bumps two volatile timestamps and never touches the wheel.
+// When an entry comes due it either sends a heartbeat, reaps the connection, or is refiled, so the work
+// per tick is proportional to the connections due in that tick, spread by when they connected.
+// Not thread-safe apart from register/cancel and the activity stamps: advance() runs on one thread.
+public class HeartbeatWheel {
+
+    public interface Sink {
+        void heartbeat(String sessionId);
+
+        void reap(String sessionId);
+    }
+
+    public static final class Entry {
+        final String sessionId;
+        volatile long lastRead;
+        volatile long lastWrite;
+        volatile long writeInterval; // 0: the client doesn't want heartbeats
+        volatile long readTimeout; // 0: the client doesn't send them
+        volatile long connectBy; // 0: CONNECT arrived (or nobody is waiting for one)
+        volatile boolean cancelled;
+        final AtomicBoolean filed = new AtomicBoolean(); // set once it is on the wheel
+        long dueTick;
+
+        Entry(String sessionId, long now) {
+            this.sessionId = sessionId;
+            this.lastRead = now;
+            this.lastWrite = now;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public void onRead(long now) {
+            lastRead = now;
+        }
+
+        public void onWrite(long now) {
+            lastWrite = now;
+        }
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Entry>[] buckets;
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+    private final Sink sink;
+    private long currentTick = -1;
+
+    private long heartbeatsSent;
+    private long sessionsReaped;
+    private long connectTimeouts;
+    private long entriesVisited;
+
+    @SuppressWarnings("unchecked")
+    public HeartbeatWheel(long tickMs, int slots, Sink sink) {
+        if (Integer.bitCount(slots) != 1) throw new IllegalArgumentException("slots must be a power of two");
+        this.tickMs = tickMs;
+        this.mask = slots - 1;
+        this.sink = sink;
+        this.buckets = new ArrayDeque[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    public Entry newEntry(String sessionId, long now) {
+        return new Entry(sessionId, now);
+    }
+
+    // Files a connection as soon as its transport is open: it is reaped at the deadline unless a CONNECT
+    // registers it first. Callable from any thread
+    public void awaitConnect(Entry entry, long deadline) {
+        entry.connectBy = deadline;
+        if (entry.filed.compareAndSet(false, true)) {
+            incoming.add(entry);
+        }
+    }
+
+    // Starts timing a connection once its heartbeat intervals are negotiated; callable from any thread.
+    // A repeated CONNECT only updates the intervals, which take effect the next time the entry comes due
+    public void register(Entry entry, long writeInterval, long readTimeout) {
+        entry.writeInterval = writeInterval;
+        entry.readTimeout = readTimeout;
+        entry.connectBy = 0;
+        if ((writeInterval > 0 || readTimeout > 0) && entry.filed.compareAndSet(false, true)) {
+            incoming.add(entry);
+        }
+    }
+
+    // Lazy removal: the entry is dropped when its bucket next comes round
+    public void cancel(Entry entry) {
+        entry.cancelled = true;
+    }
+
+    // Processes every tick up to now, catching up if the thread fell behind
+    public void advance(long now) {
+        long target = now / tickMs;
+        if (currentTick < 0) currentTick = target - 1;
+
+        for (Entry entry; (entry = incoming.poll()) != null;) {
+            schedule(entry, nextDeadline(entry), target);
+        }
+
+        while (currentTick < target) {
+            currentTick++;
+            ArrayDeque<Entry> bucket = buckets[(int) (currentTick & mask)];
+            int size = bucket.size();
+            for (int i = 0; i < size; i++) {
+                Entry entry = bucket.poll();
+                entriesVisited++;
+                if (entry.cancelled) continue;
+                if (entry.dueTick > currentTick) {
+                    bucket.add(entry); // due on a later revolution
+                    continue;
+                }
+                fire(entry, now);
+            }
+        }
+    }
+
+    private void fire(Entry entry, long now) {
+        long connectBy = entry.connectBy;
+        if (connectBy > 0 && now >= connectBy) {
+            entry.cancelled = true;
+            connectTimeouts++;
+            sink.reap(entry.sessionId);
+            return;
+        }
+        if (connectBy == 0 && entry.writeInterval == 0 && entry.readTimeout == 0) {
+            // Negotiated to nothing: off the wheel until a later CONNECT files it again (re-checked for one racing us)
+            entry.filed.set(false);
+            if ((entry.writeInterval == 0 && entry.readTimeout == 0) || !entry.filed.compareAndSet(false, true)) return;
+        }
+        if (entry.readTimeout > 0 && now - entry.lastRead >= entry.readTimeout) {
+            entry.cancelled = true;
+            sessionsReaped++;
+            sink.reap(entry.sessionId);
+            return;
+        }
+        if (entry.writeInterval > 0 && now - entry.lastWrite >= entry.writeInterval) {
+            entry.lastWrite = now;
+            heartbeatsSent++;
+            sink.heartbeat(entry.sessionId);
+        }
+        schedule(entry, nextDeadline(entry), currentTick + 1);
+    }
+
+    private long nextDeadline(Entry entry) {
+        long deadline = Long.MAX_VALUE;
+        if (entry.writeInterval > 0) deadline = entry.lastWrite + entry.writeInterval;
+        if (entry.readTimeout > 0) deadline = Math.min(deadline, entry.lastRead + entry.readTimeout);
+        long connectBy = entry.connectBy;
+        if (connectBy > 0) deadline = Math.min(deadline, connectBy);
+        return deadline;
+    }
+
+    private void schedule(Entry entry, long deadline, long earliestTick) {
+        // Round up, so an entry never fires before its deadline
+        long tick = Math.max(earliestTick, (deadline + tickMs - 1) / tickMs);
+        entry.dueTick = tick;
+        buckets[(int) (tick & mask)].add(entry);
+    }
+
+    public int size() {
+        int size = 0;
+        for (ArrayDeque<Entry> bucket : buckets) {
+            for (Iterator<Entry> it = bucket.iterator(); it.hasNext();) {
+                if (!it.next().cancelled) size++;
+            }
+        }
+        return size;
+    }
+
+    public long getHeartbeatsSent() {
+        return heartbeatsSent;
+    }
+
+    public long getSessionsReaped() {
+        return sessionsReaped;
+    }
+
+    public long getConnectTimeouts() {
+        return connectTimeouts;
+    }
+
+    public long getEntriesVisited() {
+        return entriesVisited;
+    }
+}
@@ -2,16 +2,23 @@ package com.example.scribble_backend.config;
 
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+@Component
 public class HttpHandshakeInterceptor implements HandshakeInterceptor {
 
+    @Autowired
+    private ConnectionLimiter connectionLimiter;
+
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                    WebSocketHandler wsHandler, Map<String, Object> attributes) {
@@ -20,17 +27,22 @@ public class HttpHandshakeInterceptor implements HandshakeInterceptor {
             ServletServerHttpRequest servletRequest = (ServletServerHttpRequest) request;
             HttpServletRequest httpRequest = servletRequest.getServletRequest();
             
-            // Extract IP address
-            String ipAddress = httpRequest.getHeader("X-Forwarded-For");
-            if (ipAddress == null || ipAddress.isEmpty()) {
-                ipAddress = httpRequest.getHeader("X-Real-IP");
-            }
-            if (ipAddress == null || ipAddress.isEmpty()) {
-                ipAddress = httpRequest.getRemoteAddr();
-            }
+            // Extract IP address, trusting forwarded headers only from known proxies
+            String ipAddress = connectionLimiter.resolveClientIp(httpRequest.getRemoteAddr(),
+                    httpRequest.getHeader("X-Forwarded-For"), httpRequest.getHeader("X-Real-IP"));
             
+            // Rejected here, before any SockJS/STOMP session or broker state exists
+            ConnectionLimiter.Permit permit = connectionLimiter.tryAcquire(ipAddress);
+            if (permit == null) {
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return false;
+            }
             
             attributes.put("IP_ADDRESS", ipAddress);
+            attributes.put(ConnectionLimiter.PERMIT_ATTRIBUTE, permit);
+            // Only the raw endpoint can carry binary frames; SockJS transports are text-only
+            attributes.put(PayloadFormatNegotiator.BINARY_FRAMES_ATTRIBUTE, request.getURI().getPath().endsWith("/ws/websocket"));
+            httpRequest.setAttribute(ConnectionLimiter.PERMIT_ATTRIBUTE, permit);
         }
         
         return true;
@@ -39,6 +51,12 @@ public class HttpHandshakeInterceptor implements HandshakeInterceptor {
     @Override
     public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                WebSocketHandler wsHandler, Exception exception) {
-
+        // A failed upgrade never produces a disconnect event, so give the slot back here
+        if (exception != null && request instanceof ServletServerHttpRequest servletRequest) {
+            Object permit = servletRequest.getServletRequest().getAttribute(ConnectionLimiter.PERMIT_ATTRIBUTE);
+            if (permit instanceof ConnectionLimiter.Permit p) {
+                p.release();
+            }
+        }
     }
 }
@@ -0,0 +1,156 @@
+package com.example.scribble_backend.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Per-session payload format. A client on the raw WebSocket endpoint can send "accept-format:cbor" on
+// CONNECT; its MESSAGE frames then carry CBOR instead of JSON, marked with a "payload-format" header.
+// The broker serializes each broadcast once as JSON for all subscribers, so the switch happens here on
+// the way out, once per distinct payload rather than once per recipient. SockJS can't carry binary
+// frames, so those sessions (and anyone who doesn't ask) stay on JSON. That includes the web client on
+// either transport: its STOMP library (stompjs 2.x) turns binary frames into strings and splits them at
+// NUL bytes, which CBOR bodies are full of. So this is a load-script feature (loadtest/room-load.mjs
+// --format cbor) and off unless app.payload-format.cbor-enabled is set: each CBOR frame costs a second
+// pass over the JSON the broker already wrote, which only pays where the bytes on the wire are the point.
+@Component
+public class PayloadFormatNegotiator {
+
+    public static final String ACCEPT_FORMAT_HEADER = "accept-format";
+    public static final String PAYLOAD_FORMAT_HEADER = "payload-format";
+    public static final String BINARY_FRAMES_ATTRIBUTE = "BINARY_FRAMES";
+    public static final String CBOR = "cbor";
+    public static final MimeType APPLICATION_CBOR = MimeType.valueOf("application/cbor");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.payload-format.cbor-enabled:false}")
+    private boolean cborEnabled;
+
+    private final Map<String, String> sessionFormats = new ConcurrentHashMap<>();
+
+    // The broker fans one payload out to every subscriber from the same thread, so the last conversion
+    // on this thread is almost always the one wanted next
+    private static final class LastEncoded {
+        byte[] json;
+        byte[] cbor;
+    }
+
+    private final ThreadLocal<LastEncoded> lastEncoded = ThreadLocal.withInitial(LastEncoded::new);
+
+    private final LongAdder encodes = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder jsonBytes = new LongAdder();
+    private final LongAdder cborBytes = new LongAdder();
+
+    public ChannelInterceptor inboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                MessageHeaders headers = message.getHeaders();
+                SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+                if (sessionId == null) return message;
+
+                if (type == SimpMessageType.CONNECT) {
+                    String format = negotiate(headers);
+                    if (format != null) sessionFormats.put(sessionId, format);
+                } else if (type == SimpMessageType.DISCONNECT) {
+                    sessionFormats.remove(sessionId);
+                }
+                return message;
+            }
+        };
+    }
+
+    public ChannelInterceptor outboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                MessageHeaders headers = message.getHeaders();
+                if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE) return message;
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+                if (sessionId == null || !CBOR.equals(sessionFormats.get(sessionId))) return message;
+                if (!(message.getPayload() instanceof byte[] json) || json.length == 0) return message;
+                Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+                if (contentType == null || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(
+                        contentType instanceof MimeType mimeType ? mimeType : MimeType.valueOf(contentType.toString()))) {
+                    return message;
+                }
+
+                byte[] cbor = toCbor(json);
+                framesSent.increment();
+                jsonBytes.add(json.length);
+                cborBytes.add(cbor.length);
+
+                // Spring only writes a binary WebSocket frame for octet-stream content
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+                accessor.setNativeHeader(PAYLOAD_FORMAT_HEADER, CBOR);
+                return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+            }
+        };
+    }
+
+    public byte[] toCbor(byte[] json) {
+        LastEncoded last = lastEncoded.get();
+        if (last.json != json) {
+            last.cbor = Cbor.fromJson(objectMapper, json);
+            last.json = json;
+            encodes.increment();
+        }
+        return last.cbor;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long json = jsonBytes.sum();
+        long cbor = cborBytes.sum();
+        stats.put("cborSessions", sessionFormats.size());
+        stats.put("cborFrames", framesSent.sum());
+        stats.put("cborEncodes", encodes.sum());
+        stats.put("jsonBytesReplaced", json);
+        stats.put("cborBytesSent", cbor);
+        stats.put("cborToJsonRatio", json == 0 ? 0 : cbor / (double) json);
+        return stats;
+    }
+
+    // First format in the client's list that this server and transport can do; JSON otherwise
+    @SuppressWarnings("unchecked")
+    private String negotiate(MessageHeaders headers) {
+        if (!cborEnabled) return null;
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(headers);
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(BINARY_FRAMES_ATTRIBUTE))) return null;
+
+        Map<String, List<String>> nativeHeaders = (Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+        List<String> accepted = nativeHeaders == null ? null : nativeHeaders.get(ACCEPT_FORMAT_HEADER);
+        if (accepted == null) return null;
+        for (String value : accepted) {
+            for (String format : value.split(",")) {
+                String candidate = format.trim().toLowerCase();
+                if (CBOR.equals(candidate)) return CBOR;
+                if ("json".equals(candidate)) return null;
+            }
+        }
+        return null;
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.scribble_backend.config;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import com.example.scribble_backend.jfr.BroadcastRecorder;
+
+import tools.jackson.databind.ObjectMapper;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -15,20 +25,71 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
+    @Autowired
+    private HttpHandshakeInterceptor handshakeInterceptor;
+
+    @Autowired
+    private HeartbeatMonitor heartbeatMonitor;
+
+    @Autowired
+    private PayloadFormatNegotiator payloadFormats;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BroadcastRecorder broadcastRecorder;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue")
-                .setHeartbeatValue(new long[] {20000, 20000}) // 20 second heartbeat for free tier
-                .setTaskScheduler(taskScheduler()); // Use custom scheduler
+        // Heartbeats are handled by HeartbeatMonitor rather than the broker
+        config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        config.configureBrokerChannel().interceptors(broadcastRecorder);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(heartbeatMonitor);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(heartbeatMonitor.inboundInterceptor(), payloadFormats.inboundInterceptor());
     }
-    
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(heartbeatMonitor.outboundInterceptor(), payloadFormats.outboundInterceptor());
+    }
+
+    // JSON stays the default; CBOR is only used for frames whose content-type asks for it
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new CborMessageConverter(objectMapper));
+        return true;
+    }
+
+    // Used by @Scheduled tasks
+    @Bean
+    public org.springframework.scheduling.TaskScheduler taskScheduler(
+            @Value("${spring.task.scheduling.pool.size:5}") int poolSize) {
+        org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler scheduler = 
+            new org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Load shedding (OverloadMonitor) gets its own thread, so game ticks busy ending rounds can't hold up
+    // the pressure sampler or the draw-batch flushes exactly when they are needed
     @Bean
-    public org.springframework.scheduling.TaskScheduler taskScheduler() {
+    public org.springframework.scheduling.TaskScheduler overloadScheduler() {
         org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler scheduler = 
             new org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(2);
-        scheduler.setThreadNamePrefix("wss-heartbeat-");
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("overload-");
         scheduler.initialize();
         return scheduler;
     }
@@ -37,7 +98,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns(allowedOrigins.split(","))
-                .addInterceptors(new HttpHandshakeInterceptor())
+                .addInterceptors(handshakeInterceptor)
                 .withSockJS();
     }
 }
\ No newline at end of file
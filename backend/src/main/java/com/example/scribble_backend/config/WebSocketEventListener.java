@@ -2,15 +2,18 @@ package com.example.scribble_backend.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
 
 import com.example.scribble_backend.model.ChatMessage;
 import com.example.scribble_backend.model.GameRoom;
 import com.example.scribble_backend.model.Player;
 import com.example.scribble_backend.service.GameService;
+import com.example.scribble_backend.service.InitialSyncService;
+import com.example.scribble_backend.service.RoomBroadcaster;
 
 @Component
 public class WebSocketEventListener {
@@ -19,39 +22,56 @@ public class WebSocketEventListener {
     private GameService gameService;
     
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RoomBroadcaster broadcaster;
+
+    @Autowired
+    private InitialSyncService initialSync;
 
+    @EventListener
+    public void handleSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        initialSync.onSubscribe(headerAccessor.getSessionId(), headerAccessor.getSubscriptionId(), headerAccessor.getDestination());
+    }
+
+    @EventListener
+    public void handleUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        initialSync.onUnsubscribe(headerAccessor.getSessionId(), headerAccessor.getSubscriptionId());
+    }
+
+    // The player keeps their seat until the resume grace period runs out (see GameLoop.reapDisconnectedPlayers)
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         String sessionId = headerAccessor.getSessionId();
         
+        if (headerAccessor.getSessionAttributes() != null
+                && headerAccessor.getSessionAttributes().get(ConnectionLimiter.PERMIT_ATTRIBUTE) instanceof ConnectionLimiter.Permit permit) {
+            permit.release();
+        }
+        
         if (sessionId != null) {
-            GameRoom room = gameService.findRoomBySessionId(sessionId);
-            if (room != null) {
+            initialSync.forget(sessionId);
+            GameRoom room = gameService.markDisconnected(sessionId);
+            long generation = room == null ? GameService.NOT_LIVE : gameService.liveGeneration(room);
+            if (generation != GameService.NOT_LIVE) {
                 Player disconnectedPlayer = room.getPlayerBySessionId(sessionId);
                 String playerName = disconnectedPlayer != null ? disconnectedPlayer.getUsername() : "Unknown";
                 
-                boolean removed = gameService.removePlayerFromRoom(room.getRoomId(), sessionId);
+                if (room.getConnectedPlayerCount() > 0) {
+                    ChatMessage leaveMsg = ChatMessage.builder()
+                            .type(ChatMessage.MessageType.SYSTEM)
+                            .sender("System")
+                            .content(playerName + " lost connection")
+                            .build();
+                    broadcaster.send(room, generation, "chat", leaveMsg);
+                    
+                    broadcaster.send(room, generation, "state", room);
+                }
                 
-                if (removed) {
-                    if (room.getPlayers().isEmpty()) {
-                        gameService.removeRoom(room.getRoomId());
-                    } else {
-                        ChatMessage leaveMsg = ChatMessage.builder()
-                                .type(ChatMessage.MessageType.SYSTEM)
-                                .sender("System")
-                                .content(playerName + " left the game")
-                                .build();
-                        messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/chat", leaveMsg);
-                        
-                        messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/state", room);
-                        
-                        if (room.isGameRunning() && sessionId.equals(room.getCurrentDrawerSessionId())) {
-                            gameService.handleDrawerDisconnect(room);
-                            messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/state", room);
-                        }
-                    }
+                if (room.isGameRunning() && sessionId.equals(room.getCurrentDrawerSessionId())) {
+                    gameService.handleDrawerDisconnect(room);
+                    broadcaster.send(room, generation, "state", room);
                 }
             }
         }
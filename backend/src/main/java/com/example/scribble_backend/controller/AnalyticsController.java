@@ -0,0 +1,58 @@
+package com.example.scribble_backend.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.scribble_backend.analytics.AnalyticsPublisher;
+import com.example.scribble_backend.analytics.WordStatsAggregator;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private static final int MAX_LIMIT = 500;
+
+    @Autowired
+    private WordStatsAggregator aggregator;
+
+    @Autowired
+    private AnalyticsPublisher publisher;
+
+    // Hardest words first, for tuning the word lists
+    @GetMapping("/words")
+    public ResponseEntity<Map<String, Object>> getWords(@RequestParam(required = false) String language,
+                                                        @RequestParam(defaultValue = "3") int minRounds,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        int safeLimit = Math.max(1, Math.min(MAX_LIMIT, limit));
+        List<Map<String, Object>> words = aggregator.getWords(language, Math.max(0, minRounds), safeLimit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("language", language);
+        response.put("minRounds", minRounds);
+        response.put("words", words);
+        return ResponseEntity.ok(response);
+    }
+
+    // Guess rates and in-game disconnects by round, per language
+    @GetMapping("/languages")
+    public ResponseEntity<Map<String, Object>> getLanguages() {
+        return ResponseEntity.ok(aggregator.getLanguages());
+    }
+
+    @GetMapping("/pipeline")
+    public ResponseEntity<Map<String, Object>> getPipeline() {
+        Map<String, Object> response = new HashMap<>(publisher.getStats());
+        response.put("eventsConsumed", aggregator.getEventsConsumed());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,45 +1,90 @@
 package com.example.scribble_backend.controller;
 
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import com.example.scribble_backend.model.ChatMessage;
+import com.example.scribble_backend.model.ChooseWordRequest;
 import com.example.scribble_backend.model.DrawMessage;
 import com.example.scribble_backend.model.GameRoom;
-import com.example.scribble_backend.model.GameRoomConfig;
+import com.example.scribble_backend.model.JoinRequest;
+import com.example.scribble_backend.model.Player;
+import com.example.scribble_backend.model.ResumeRequest;
+import com.example.scribble_backend.service.ChatFilterService;
+import com.example.scribble_backend.service.DrawBatcher;
+import com.example.scribble_backend.service.DrawIngress;
 import com.example.scribble_backend.service.GameService;
+import com.example.scribble_backend.service.InitialSyncService;
+import com.example.scribble_backend.service.LatencyRecorder;
+import com.example.scribble_backend.service.OverloadController;
+import com.example.scribble_backend.service.RoomBroadcaster;
+import com.example.scribble_backend.service.RoomStateWatch;
+import com.example.scribble_backend.service.ThumbnailService;
 
 @Controller
 public class GameController {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RoomBroadcaster broadcaster;
 
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private OverloadController overloadController;
+
+    @Autowired
+    private DrawBatcher drawBatcher;
+
+    @Autowired
+    private DrawIngress drawIngress;
+
+    @Autowired
+    private ChatFilterService chatFilterService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private InitialSyncService initialSync;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @Autowired
+    private RoomStateWatch stateWatch;
+
+    @Value("${app.room-state.max-wait-ms:30000}")
+    private long maxStateWaitMs;
+
     @Value("${app.cors.allowed-origins}")
     private String allowedOrigins;
 
     @MessageMapping("/join")
-    @SuppressWarnings("unchecked")
-    public void joinRoom(@Payload Map<String, Object> payload, SimpMessageHeaderAccessor headerAccessor) {
-        String username = (String) payload.get("username");
-        String roomIdRequested = (String) payload.get("roomId");
-        String action = (String) payload.get("action");
+    public void joinRoom(@Payload JoinRequest payload, SimpMessageHeaderAccessor headerAccessor) {
+        JoinRequest request = payload.validated();
+        String username = request.username();
         String sessionId = headerAccessor.getSessionId(); // THIS IS THE KEY ID
         
         // Extract IP address from session attributes (set by WebSocket handshake interceptor)
@@ -49,56 +94,36 @@ public class GameController {
         }
 
         GameRoom room;
-        if ("create".equals(action)) {
-            // Parse config from payload
-            Map<String, Object> configMap = (Map<String, Object>) payload.get("config");
-            GameRoomConfig config = null;
-            
-            if (configMap != null) {
-                config = new GameRoomConfig();
-                config.setLanguage((String) configMap.get("language"));
-                config.setScoringMode((String) configMap.get("scoringMode"));
-                config.setDrawingTime((Integer) configMap.get("drawingTime"));
-                config.setRounds((Integer) configMap.get("rounds"));
-                config.setMaxPlayers((Integer) configMap.get("maxPlayers"));
-                config.setPlayersPerIpLimit((Integer) configMap.get("playersPerIpLimit"));
-                config.setCustomWordsPerTurn((Integer) configMap.get("customWordsPerTurn"));
-                config.setPrivate((Boolean) configMap.get("isPrivate"));
-                config.setLobbyName((String) configMap.get("lobbyName"));
-                
-                // Parse custom words list
-                Object customWordsObj = configMap.get("customWords");
-                if (customWordsObj instanceof List) {
-                    @SuppressWarnings("unchecked")
-                    List<String> customWordsList = (List<String>) customWordsObj;
-                    config.setCustomWords(customWordsList);
-                }
-            }
-            
-            room = gameService.createRoom(roomIdRequested, username, sessionId, config, ipAddress);
+        if (request.isCreate() && overloadController.isRejectingNewRooms()) {
+            // Shed new rooms first so games already running keep their latency
+            ChatMessage busyMsg = ChatMessage.builder()
+                    .type(ChatMessage.MessageType.SYSTEM)
+                    .sender("System")
+                    .content("Server is busy, please try creating a room again in "
+                            + overloadController.getRetryAfterSeconds() + " seconds.")
+                    .build();
+            broadcaster.sendToSession(sessionId, "errors", busyMsg);
+            return;
+        } else if (request.isCreate()) {
+            room = gameService.createRoom(request.roomId(), username, sessionId, request.toConfig(), ipAddress);
         } else {
-            room = gameService.joinRoom(roomIdRequested, username, sessionId, ipAddress);
+            room = gameService.joinRoom(request.roomId(), username, sessionId, ipAddress,
+                    request.reservation(), request.resumeToken());
         }
 
         if (room != null) {
+            long generation = gameService.liveGeneration(request.roomId(), room);
             ChatMessage joinMsg = ChatMessage.builder()
                     .type(ChatMessage.MessageType.JOIN)
                     .content(username + " joined!")
                     .sender(username)
                     .senderSessionId(sessionId)
                     .build();
-            messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/chat", joinMsg);
-            
-            // Force a small delay to ensure client subscription before state update
-            try { Thread.sleep(100); } catch (InterruptedException e) {}
-            
-            messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/state", room);
+            broadcaster.send(room, generation, "chat", joinMsg);
+            broadcaster.send(room, generation, "state", room);
 
-            if ("join".equals(action) && !room.getDrawHistory().isEmpty()) {
-                for (DrawMessage stroke : room.getDrawHistory()) {
-                    messagingTemplate.convertAndSendToUser(sessionId, "/queue/draw", stroke);
-                }
-            }
+            // The joiner isn't subscribed yet; its own snapshot follows once it is
+            initialSync.requestSync(sessionId, room.getRoomId(), !request.isCreate());
         } else {
             // Send error if join failed (e.g. room full or IP limit)
             ChatMessage errorMsg = ChatMessage.builder()
@@ -106,114 +131,267 @@ public class GameController {
                     .sender("System")
                     .content("Cannot join: Room is full or IP limit reached.")
                     .build();
-            messagingTemplate.convertAndSendToUser(sessionId, "/queue/errors", errorMsg);
+            broadcaster.sendToSession(sessionId, "errors", errorMsg);
         }
     }
 
-    // ... (Keep handleDraw, handleChat, and startGame exactly as they were) ...
+    // Reconnect within the grace period: rebind the seat and replay only what the client missed
+    @MessageMapping("/resume")
+    public void resumeSession(@Payload ResumeRequest payload, SimpMessageHeaderAccessor headerAccessor) {
+        ResumeRequest request = payload.validated();
+        String roomId = request.roomId();
+        String sessionId = headerAccessor.getSessionId();
+        
+        String ipAddress = null;
+        if (headerAccessor.getSessionAttributes() != null) {
+            ipAddress = (String) headerAccessor.getSessionAttributes().get("IP_ADDRESS");
+        }
+        
+        Player player = gameService.resumeSession(roomId, request.resumeToken(), sessionId, ipAddress);
+        if (player == null) {
+            ChatMessage errorMsg = ChatMessage.builder()
+                    .type(ChatMessage.MessageType.SYSTEM)
+                    .sender("System")
+                    .content("Cannot resume: session expired, please join again.")
+                    .build();
+            broadcaster.sendToSession(sessionId, "errors", errorMsg);
+            return;
+        }
+        
+        GameRoom room = gameService.getLoadedRoom(roomId);
+        long generation = gameService.liveGeneration(roomId, room);
+        if (generation == GameService.NOT_LIVE) return;
+        ChatMessage backMsg = ChatMessage.builder()
+                .type(ChatMessage.MessageType.SYSTEM)
+                .sender("System")
+                .content(player.getUsername() + " reconnected")
+                .build();
+        broadcaster.send(room, generation, "chat", backMsg);
+        broadcaster.send(room, generation, "state", room);
+
+        // The gap is replayed once the new session's queues are subscribed
+        initialSync.requestResume(sessionId, roomId, request.lastSeq());
+    }
+    
     @MessageMapping("/draw/{roomId}")
-    public void handleDraw(@DestinationVariable String roomId, @Payload DrawMessage message) {
+    public void handleDraw(@DestinationVariable String roomId, @Payload DrawMessage payload, SimpMessageHeaderAccessor headerAccessor) {
+        long ingressNanos = System.nanoTime();
         GameRoom room = gameService.getRoom(roomId);
         if (room != null) {
-            room.updateActivity(); // Track activity
-            if ("CLEAR".equals(message.getType())) room.clearHistory();
-            else room.addStroke(message);
-            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/draw", message);
+            // Non-drawers, malformed messages and drawers over their budget stop here, before any fan-out
+            DrawMessage message = drawIngress.admit(room, headerAccessor.getSessionId(), payload);
+            if (message == null) return;
+            gameService.touch(room); // Track activity
+            stampIngress(roomId, message);
+            // Under the room lock, so a room retired and recycled since the lookup isn't drawn into; the
+            // generation read there keeps the relay below out of whatever game the room hosts next
+            long generation;
+            synchronized (room) {
+                if (!gameService.isLive(roomId, room)) return;
+                if (DrawMessage.CLEAR.equals(message.getType())) room.clearHistory();
+                else if (!room.applyDraw(message)) return; // e.g. undo of an unknown stroke: nothing to relay
+                generation = room.getGeneration();
+            }
+            thumbnailService.paint(room, generation, message);
+            if (overloadController.isDrawThrottled() || drawBatcher.hasPending(roomId)) {
+                drawBatcher.enqueue(roomId, room, generation, message, ingressNanos);
+            } else {
+                broadcaster.send(room, generation, "draw", message);
+                latencyRecorder.recordSince(roomId, LatencyRecorder.DRAW_DISPATCH, ingressNanos);
+            }
         }
     }
 
     @MessageMapping("/chat/{roomId}")
     public void handleChat(@DestinationVariable String roomId, @Payload ChatMessage message, SimpMessageHeaderAccessor headerAccessor) {
+        long ingressNanos = System.nanoTime();
         String sessionId = headerAccessor.getSessionId();
         GameRoom room = gameService.getRoom(roomId);
+        long generation = gameService.liveGeneration(roomId, room);
+        if (generation == GameService.NOT_LIVE) {
+            return;
+        }
         
-        if (room != null) {
-            room.updateActivity();
-            
-            // Ensure player is registered in the room
-            if (room.getPlayerBySessionId(sessionId) == null) {
-                return;
-            }
+        gameService.touch(room);
+        
+        // Ensure player is registered in the room
+        if (room.getPlayerBySessionId(sessionId) == null) {
+            return;
+        }
+        
+        if (latencyRecorder.isEnabled()) {
+            message.setServerTs(System.currentTimeMillis());
+            latencyRecorder.recordClientLeg(roomId, LatencyRecorder.CHAT_CLIENT, message.getClientTs(), message.getServerTs());
         }
         
         boolean isCorrect = gameService.processGuess(roomId, message.getContent(), sessionId);
         
         if (isCorrect) {
-            room = gameService.getRoom(roomId);
-            
             // Send green message showing who guessed correctly
             ChatMessage successMsg = ChatMessage.builder()
                     .type(ChatMessage.MessageType.GUESS_CORRECT)
                     .sender("System")
                     .content(message.getSender() + " guessed it right!")
+                    .clientTs(message.getClientTs())
+                    .serverTs(message.getServerTs())
                     .build();
-            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/chat", successMsg);
+            broadcaster.send(room, generation, "chat", successMsg);
+            latencyRecorder.recordSince(roomId, LatencyRecorder.GUESS_CORRECT, ingressNanos);
             
             // Broadcast updated state (for scores)
-            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/state", room);
+            broadcaster.send(room, generation, "state", room);
         } else {
-            // Send wrong guesses to chat so everyone can see
-            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/chat", message);
+            // Send wrong guesses to chat so everyone can see, minus profanity and near-miss answer leaks
+            message.setContent(chatFilterService.filter(room, message.getContent()));
+            broadcaster.send(room, generation, "chat", message);
+            latencyRecorder.recordSince(roomId, LatencyRecorder.CHAT_DISPATCH, ingressNanos);
         }
     }
 
+    private void stampIngress(String roomId, DrawMessage message) {
+        if (!latencyRecorder.isEnabled()) return;
+        message.setServerTs(System.currentTimeMillis());
+        latencyRecorder.recordClientLeg(roomId, LatencyRecorder.DRAW_CLIENT, message.getClientTs(), message.getServerTs());
+    }
+
     @MessageMapping("/start/{roomId}")
     public synchronized void startGame(@DestinationVariable String roomId) {
         GameRoom room = gameService.getRoom(roomId);
-        if(room != null) {
+        long generation = gameService.liveGeneration(roomId, room);
+        if(generation != GameService.NOT_LIVE) {
             if (room.isGameRunning()) {
                 return;
             }
-            
-            if (room.getPlayers().size() < 2) {
+            // Checked first, so a lone player on the game-over screen keeps the final scores
+            if (room.getPlayerCount() < 2) {
                 ChatMessage errorMsg = ChatMessage.builder()
                         .type(ChatMessage.MessageType.SYSTEM)
                         .sender("System")
                         .content("Cannot start game: Minimum 2 players required!")
                         .build();
-                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/chat", errorMsg);
+                broadcaster.send(room, generation, "chat", errorMsg);
                 return;
             }
-            
-            room.updateActivity();
+
+            // Starting from the game-over screen is a rematch straight into the first round
+            gameService.rematch(room);
+            gameService.touch(room);
             gameService.startNewRound(room);
-            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/state", room);
+            broadcaster.send(room, generation, "state", room);
             
             ChatMessage startMsg = ChatMessage.builder()
                     .type(ChatMessage.MessageType.SYSTEM)
                     .sender("System")
                     .content("Game Started! Drawer is choosing a word...")
                     .build();
-            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/chat", startMsg);
+            broadcaster.send(room, generation, "chat", startMsg);
         }
     }
+
+    // Any seated player can take a finished room back to the lobby; scores reset, seats and subscriptions stay
+    @MessageMapping("/rematch/{roomId}")
+    public synchronized void rematch(@DestinationVariable String roomId, SimpMessageHeaderAccessor headerAccessor) {
+        GameRoom room = gameService.getLoadedRoom(roomId);
+        long generation = gameService.liveGeneration(roomId, room);
+        if (generation == GameService.NOT_LIVE || room.getPlayerBySessionId(headerAccessor.getSessionId()) == null) return;
+        if (!gameService.rematch(room)) return;
+
+        Player player = room.getPlayerBySessionId(headerAccessor.getSessionId());
+        ChatMessage rematchMsg = ChatMessage.builder()
+                .type(ChatMessage.MessageType.SYSTEM)
+                .sender("System")
+                .content(player.getUsername() + " started a rematch! Back in the lobby.")
+                .build();
+        broadcaster.send(room, generation, "state", room);
+        broadcaster.send(room, generation, "chat", rematchMsg);
+    }
     
     @MessageMapping("/chooseWord/{roomId}")
-    public synchronized void chooseWord(@DestinationVariable String roomId, @Payload Map<String, Object> payload, SimpMessageHeaderAccessor headerAccessor) {
-        String chosenWord = (String) payload.get("word");
+    public synchronized void chooseWord(@DestinationVariable String roomId, @Payload ChooseWordRequest request, SimpMessageHeaderAccessor headerAccessor) {
+        String chosenWord = request.validated().word();
         String sessionId = headerAccessor.getSessionId();
         
         GameRoom room = gameService.getRoom(roomId);
-        if (room != null) {
+        long generation = gameService.liveGeneration(roomId, room);
+        if (generation != GameService.NOT_LIVE) {
             boolean success = gameService.chooseWord(roomId, sessionId, chosenWord);
             
             if (success) {
-                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/state", room);
+                broadcaster.send(room, generation, "state", room);
                 
                 ChatMessage msg = ChatMessage.builder()
                         .type(ChatMessage.MessageType.SYSTEM)
                         .sender("System")
                         .content("Word chosen! Start drawing now!")
                         .build();
-                messagingTemplate.convertAndSend("/topic/room/" + roomId + "/chat", msg);
+                broadcaster.send(room, generation, "chat", msg);
             }
         }
     }
     
-    @CrossOrigin(origins = "${app.cors.allowed-origins}")
+    // Malformed or out-of-bounds payloads get an error back instead of a stack trace in the log
+    @MessageExceptionHandler({IllegalArgumentException.class, MessageConversionException.class})
+    public void handleBadRequest(Exception e, SimpMessageHeaderAccessor headerAccessor) {
+        String reason = e instanceof IllegalArgumentException ? e.getMessage() : "malformed message";
+        ChatMessage errorMsg = ChatMessage.builder()
+                .type(ChatMessage.MessageType.SYSTEM)
+                .sender("System")
+                .content("Invalid request: " + reason)
+                .build();
+        broadcaster.sendToSession(headerAccessor.getSessionId(), "errors", errorMsg);
+    }
+
+    // Pollers send back the ETag they hold; with waitMs the request is parked until the state moves on.
+    // A CompletableFuture rather than DeferredResult, so the same handler runs on the servlet and reactive stacks
+    @CrossOrigin(origins = "${app.cors.allowed-origins}", exposedHeaders = HttpHeaders.ETAG)
     @GetMapping("/api/room/{roomId}/state")
     @ResponseBody
-    public GameRoom getRoomState(@PathVariable String roomId) {
-        return gameService.getRoom(roomId);
+    public CompletableFuture<ResponseEntity<byte[]>> getRoomState(@PathVariable String roomId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        long timeout = Math.max(0, Math.min(waitMs, maxStateWaitMs));
+        GameRoom room = gameService.getRoom(roomId);
+        if (room == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+
+        // Long-poll: a client that already has the current version waits here until it changes
+        if (timeout > 0 && ifNoneMatch != null) {
+            CompletableFuture<Boolean> changed = new CompletableFuture<>();
+            Runnable onChange = () -> changed.complete(true);
+            if (stateWatch.await(room, ifNoneMatch, onChange)) {
+                return changed.completeOnTimeout(false, timeout, TimeUnit.MILLISECONDS)
+                        .thenApply(woken -> {
+                            stateWatch.cancel(roomId, onChange);
+                            return stateResponse(roomId, woken ? null : ifNoneMatch);
+                        });
+            }
+        }
+
+        return CompletableFuture.completedFuture(stateResponse(roomId, ifNoneMatch));
+    }
+
+    private ResponseEntity<byte[]> stateResponse(String roomId, String ifNoneMatch) {
+        GameRoom room = gameService.getLoadedRoom(roomId);
+        if (room == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = stateWatch.etag(room);
+        if (RoomStateWatch.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        RoomStateWatch.Snapshot snapshot = stateWatch.snapshot(room);
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
+    }
+
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.scribble_backend.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.scribble_backend.model.LeaderboardEntry;
+import com.example.scribble_backend.service.LeaderboardService;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "*")
+public class LeaderboardController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getTop(@RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        int safePage = Math.max(0, page);
+        int safeSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        List<LeaderboardEntry> entries = leaderboardService.getTopPage(safePage, safeSize);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("page", safePage);
+        response.put("size", safeSize);
+        response.put("totalPlayers", leaderboardService.getPlayerCount());
+        response.put("entries", entries);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/player/{username}")
+    public ResponseEntity<Map<String, Object>> getPlayer(@PathVariable String username) {
+        LeaderboardEntry entry = leaderboardService.getEntry(username);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("entry", entry);
+        response.put("rank", leaderboardService.getRank(username));
+        return ResponseEntity.ok(response);
+    }
+}
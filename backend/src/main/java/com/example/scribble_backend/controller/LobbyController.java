@@ -1,22 +1,36 @@
 package com.example.scribble_backend.controller;
 
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.scribble_backend.config.ConnectionLimiter;
+import com.example.scribble_backend.model.CreateLobbyRequest;
 import com.example.scribble_backend.model.GameRoom;
 import com.example.scribble_backend.model.GameRoomConfig;
+import com.example.scribble_backend.model.QuickPlayRequest;
 import com.example.scribble_backend.service.GameService;
+import com.example.scribble_backend.service.MatchmakingService;
+import com.example.scribble_backend.service.OverloadController;
+import com.example.scribble_backend.service.RoomStateWatch;
+import com.example.scribble_backend.service.ThumbnailService;
+
+import tools.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/lobby")
@@ -26,37 +40,86 @@ public class LobbyController {
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private OverloadController overloadController;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private MatchmakingService matchmaking;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Last computed list as sent, served as-is while the lobby is paused under overload; kept serialized,
+    // since walking and serializing the rooms is most of what a list request costs
+    private volatile byte[] lastPublicRooms;
+
     @GetMapping("/list")
-    public ResponseEntity<Collection<GameRoom>> getPublicLobbies() {
-        Collection<GameRoom> publicRooms = gameService.getAllPublicRooms();
-        return ResponseEntity.ok(publicRooms);
+    public ResponseEntity<byte[]> getPublicLobbies() {
+        byte[] cached = lastPublicRooms;
+        if (cached != null && overloadController.isLobbyPaused()) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.RETRY_AFTER, Integer.toString(overloadController.getRetryAfterSeconds()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cached);
+        }
+        
+        byte[] publicRooms = objectMapper.writeValueAsBytes(gameService.getAllPublicRooms());
+        lastPublicRooms = publicRooms;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(publicRooms);
+    }
+
+    // Clients revalidate every time; unchanged canvases cost a 304 and no encoding
+    @GetMapping("/{roomId}/thumbnail.png")
+    public ResponseEntity<byte[]> getThumbnail(@PathVariable String roomId,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GameRoom room = gameService.getLoadedRoom(roomId);
+        ThumbnailService.Encoded thumbnail = room == null ? null : thumbnailService.getThumbnail(room);
+        if (thumbnail == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        if (RoomStateWatch.matches(ifNoneMatch, thumbnail.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(thumbnail.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(thumbnail.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.IMAGE_PNG)
+                .body(thumbnail.png());
     }
 
     @PostMapping("/create")
-    @SuppressWarnings("unchecked")
-    public ResponseEntity<Map<String, Object>> createLobby(@RequestBody Map<String, Object> request) {
-        String roomId = (String) request.get("roomId");
-        String username = (String) request.get("username");
-        String sessionId = (String) request.get("sessionId");
+    public ResponseEntity<Map<String, Object>> createLobby(@RequestBody CreateLobbyRequest body) {
+        if (overloadController.isRejectingNewRooms()) {
+            Map<String, Object> busy = new HashMap<>();
+            busy.put("success", false);
+            busy.put("retryAfterSeconds", overloadController.getRetryAfterSeconds());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Integer.toString(overloadController.getRetryAfterSeconds()))
+                    .body(busy);
+        }
         
-        // Parse configuration
-        GameRoomConfig config = new GameRoomConfig();
-        if (request.containsKey("config")) {
-            Map<String, Object> configMap = (Map<String, Object>) request.get("config");
-            
-            if (configMap.containsKey("language")) config.setLanguage((String) configMap.get("language"));
-            if (configMap.containsKey("scoringMode")) config.setScoringMode((String) configMap.get("scoringMode"));
-            if (configMap.containsKey("drawingTime")) config.setDrawingTime((Integer) configMap.get("drawingTime"));
-            if (configMap.containsKey("rounds")) config.setRounds((Integer) configMap.get("rounds"));
-            if (configMap.containsKey("maxPlayers")) config.setMaxPlayers((Integer) configMap.get("maxPlayers"));
-            if (configMap.containsKey("playersPerIpLimit")) config.setPlayersPerIpLimit((Integer) configMap.get("playersPerIpLimit"));
-            if (configMap.containsKey("customWordsPerTurn")) config.setCustomWordsPerTurn((Integer) configMap.get("customWordsPerTurn"));
-            if (configMap.containsKey("customWords")) config.setCustomWords((List<String>) configMap.get("customWords"));
-            if (configMap.containsKey("isPrivate")) config.setPrivate((Boolean) configMap.get("isPrivate"));
-            if (configMap.containsKey("lobbyName")) config.setLobbyName((String) configMap.get("lobbyName"));
+        CreateLobbyRequest request;
+        GameRoomConfig config;
+        try {
+            request = body.validated();
+            config = request.toConfig();
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> invalid = new HashMap<>();
+            invalid.put("success", false);
+            invalid.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(invalid);
         }
         
-        GameRoom room = gameService.createRoom(roomId, username, sessionId, config);
+        GameRoom room = gameService.createRoom(request.roomId(), request.username(), request.sessionId(), config);
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", room != null);
@@ -65,4 +128,48 @@ public class LobbyController {
         
         return ResponseEntity.ok(response);
     }
+
+    // Holds a seat in the fullest open room for the language (or a new one); the client then joins
+    // over /app/join with the returned reservation, which is honoured even if the room fills up meanwhile
+    @PostMapping("/quickplay")
+    public ResponseEntity<Map<String, Object>> quickPlay(@RequestBody QuickPlayRequest body,
+                                                         @RequestAttribute(ConnectionLimiter.CLIENT_IP_ATTRIBUTE) String clientIp) {
+        QuickPlayRequest request;
+        try {
+            request = body.validated();
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> invalid = new HashMap<>();
+            invalid.put("success", false);
+            invalid.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(invalid);
+        }
+
+        // Each held seat blocks everyone else from it until it expires, so a client may only hold a few
+        if (!matchmaking.tryAcquireQuota(clientIp)) {
+            Map<String, Object> limited = new HashMap<>();
+            limited.put("success", false);
+            limited.put("error", "Too many quick play requests, please wait a moment.");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(limited);
+        }
+
+        String language = request.language();
+        MatchmakingService.Reservation reservation = matchmaking.reserveOrCreate(language, request.username(), clientIp,
+                overloadController.isRejectingNewRooms() ? null : () -> gameService.createQuickPlayRoom(language));
+        if (reservation == null) {
+            matchmaking.releaseQuota(clientIp);
+            // Only happens when nothing fits and new rooms are being shed
+            Map<String, Object> busy = new HashMap<>();
+            busy.put("success", false);
+            busy.put("retryAfterSeconds", overloadController.getRetryAfterSeconds());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, Integer.toString(overloadController.getRetryAfterSeconds()))
+                    .body(busy);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("roomId", reservation.roomId());
+        response.put("reservation", reservation.token());
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,164 @@
+package com.example.scribble_backend.controller;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.scribble_backend.config.ConnectionLimiter;
+import com.example.scribble_backend.config.HeartbeatMonitor;
+import com.example.scribble_backend.config.PayloadFormatNegotiator;
+import com.example.scribble_backend.jfr.FlightRecording;
+import com.example.scribble_backend.service.DrawIngress;
+import com.example.scribble_backend.service.LatencyRecorder;
+import com.example.scribble_backend.service.RoomPool;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @Autowired
+    private HeartbeatMonitor heartbeatMonitor;
+
+    @Autowired
+    private ConnectionLimiter connectionLimiter;
+
+    @Autowired
+    private DrawIngress drawIngress;
+
+    @Autowired
+    private PayloadFormatNegotiator payloadFormats;
+
+    @Autowired
+    private FlightRecording flightRecording;
+
+    @Autowired
+    private RoomPool roomPool;
+
+    // Gates the endpoints that change state or leak JVM details; they stay off until a token is configured
+    @Value("${app.metrics.admin-token:}")
+    private String adminToken;
+
+    @Value("${spring.main.web-application-type:servlet}")
+    private String webStack;
+
+    // Percentiles per pipeline stage since startup (or the last reset)
+    @GetMapping("/latency")
+    public ResponseEntity<Map<String, Object>> getLatency() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", latencyRecorder.isEnabled());
+        response.put("stages", latencyRecorder.snapshot());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/latency/room/{roomId}")
+    public ResponseEntity<Map<String, Map<String, Object>>> getRoomLatency(@PathVariable String roomId) {
+        Map<String, Map<String, Object>> stages = latencyRecorder.snapshot(roomId);
+        if (stages == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(stages);
+    }
+
+    @DeleteMapping("/latency")
+    public ResponseEntity<Void> resetLatency(@RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token) {
+        if (adminToken.isBlank()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        latencyRecorder.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/heartbeat")
+    public ResponseEntity<Map<String, Object>> getHeartbeat() {
+        return ResponseEntity.ok(heartbeatMonitor.getStats());
+    }
+
+    @GetMapping("/draw-ingress")
+    public ResponseEntity<Map<String, Object>> getDrawIngress() {
+        return ResponseEntity.ok(drawIngress.getStats());
+    }
+
+    // Bytes saved by sessions that negotiated CBOR
+    @GetMapping("/payload-format")
+    public ResponseEntity<Map<String, Object>> getPayloadFormat() {
+        return ResponseEntity.ok(payloadFormats.getStats());
+    }
+
+    // Retired rooms waiting to be reused, and how often creation found one
+    @GetMapping("/room-pool")
+    public ResponseEntity<Map<String, Object>> getRoomPool() {
+        return ResponseEntity.ok(roomPool.getStats());
+    }
+
+    // What the load script compares across runtimes: heap per connection and thread count, plus the JVM
+    // and core count it ran on, so a run's numbers say where they came from
+    @GetMapping("/runtime")
+    public ResponseEntity<Map<String, Object>> getRuntime() {
+        long heapAfterGc = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && afterGc != null) heapAfterGc += afterGc.getUsed();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("webStack", webStack);
+        response.put("jvm", System.getProperty("java.vm.name") + " " + Runtime.version());
+        response.put("cpus", Runtime.getRuntime().availableProcessors());
+        response.put("connections", connectionLimiter.getTotalConnections());
+        response.put("heapUsedBytes", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        response.put("heapAfterLastGcBytes", heapAfterGc);
+        response.put("threads", ManagementFactory.getThreadMXBean().getThreadCount());
+        return ResponseEntity.ok(response);
+    }
+
+    // The always-on flight recording as it stands, for attributing a spike that just happened
+    @PostMapping("/jfr/dump")
+    public ResponseEntity<Resource> dumpFlightRecording(@RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token)
+            throws IOException {
+        if (adminToken.isBlank() || !flightRecording.isRecording()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Resource dump = flightRecording.dump();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + dump.getFilename() + "\"")
+                .body(dump);
+    }
+
+    private boolean isAdmin(String token) {
+        return token != null && MessageDigest.isEqual(adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
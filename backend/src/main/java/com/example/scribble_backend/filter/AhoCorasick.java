@@ -0,0 +1,178 @@
+package com.example.scribble_backend.filter;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Immutable multi-pattern matcher. Text is folded one char at a time (case, accents, common
+// leetspeak) so match offsets line up with the original message and nothing is copied unless
+// something actually has to be masked.
+public final class AhoCorasick {
+
+    private static final char MASK = '*';
+    private static final char[] FOLD = buildFoldTable();
+
+    // State s has edges edgeChars[edgeStart[s] .. edgeStart[s+1]) sorted by char
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final int[] patternLength; // 0 unless a pattern ends at this state
+    private final int[] outputLink;    // next state on the fail chain that ends a pattern, or -1
+
+    private AhoCorasick(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] fail,
+                        int[] patternLength, int[] outputLink) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.patternLength = patternLength;
+        this.outputLink = outputLink;
+    }
+
+    public static char fold(char c) {
+        return c < FOLD.length ? FOLD[c] : Character.toLowerCase(c);
+    }
+
+    public static AhoCorasick build(Collection<String> patterns) {
+        // Trie construction uses maps, then everything is flattened into arrays for matching
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        children.add(new TreeMap<>());
+        lengths.add(0);
+
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isBlank()) continue;
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = fold(pattern.charAt(i));
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    lengths.add(0);
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            lengths.set(state, pattern.length());
+        }
+
+        int stateCount = children.size();
+        int[] edgeStart = new int[stateCount + 1];
+        int edgeCount = 0;
+        for (int s = 0; s < stateCount; s++) {
+            edgeStart[s] = edgeCount;
+            edgeCount += children.get(s).size();
+        }
+        edgeStart[stateCount] = edgeCount;
+
+        char[] edgeChars = new char[edgeCount];
+        int[] edgeTargets = new int[edgeCount];
+        for (int s = 0; s < stateCount; s++) {
+            int e = edgeStart[s];
+            for (Map.Entry<Character, Integer> edge : children.get(s).entrySet()) {
+                edgeChars[e] = edge.getKey();
+                edgeTargets[e] = edge.getValue();
+                e++;
+            }
+        }
+
+        int[] patternLength = new int[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            patternLength[s] = lengths.get(s);
+        }
+
+        // Breadth-first so every fail target is final before its dependents
+        int[] fail = new int[stateCount];
+        int[] outputLink = new int[stateCount];
+        Arrays.fill(outputLink, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue.add(edgeTargets[e]);
+        }
+        AhoCorasick partial = new AhoCorasick(edgeStart, edgeChars, edgeTargets, fail, patternLength, outputLink);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTargets[e];
+                int f = partial.step(fail[state], edgeChars[e]);
+                fail[child] = f;
+                outputLink[child] = patternLength[f] > 0 ? f : outputLink[f];
+                queue.add(child);
+            }
+        }
+        return partial;
+    }
+
+    // Returns text itself when nothing matched, otherwise a copy with every match replaced by '*'.
+    // With wholeWordsOnly a match must not be glued to letters or digits on either side.
+    public String mask(String text, boolean wholeWordsOnly) {
+        if (text == null || text.isEmpty()) return text;
+
+        char[] out = null;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, fold(text.charAt(i)));
+            for (int s = patternLength[state] > 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                int start = i - patternLength[s] + 1;
+                if (wholeWordsOnly && !isBoundary(text, start, i)) continue;
+
+                if (out == null) out = text.toCharArray();
+                Arrays.fill(out, start, i + 1, MASK);
+            }
+        }
+        return out == null ? text : new String(out);
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int target = find(state, c);
+            if (target >= 0) return target;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+
+    private int find(int state, char c) {
+        int lo = edgeStart[state];
+        int hi = edgeStart[state + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = edgeChars[mid];
+            if (m < c) lo = mid + 1;
+            else if (m > c) hi = mid - 1;
+            else return edgeTargets[mid];
+        }
+        return -1;
+    }
+
+    private static boolean isBoundary(String text, int start, int end) {
+        boolean before = start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1));
+        boolean after = end == text.length() - 1 || !Character.isLetterOrDigit(text.charAt(end + 1));
+        return before && after;
+    }
+
+    private static char[] buildFoldTable() {
+        char[] table = new char[0x250]; // Latin-1 and Latin Extended-A/B cover all four word lists
+        for (char c = 0; c < table.length; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            table[c] = Character.toLowerCase(decomposed.charAt(0));
+        }
+        table['0'] = 'o';
+        table['1'] = 'i';
+        table['3'] = 'e';
+        table['4'] = 'a';
+        table['5'] = 's';
+        table['7'] = 't';
+        table['@'] = 'a';
+        table['$'] = 's';
+        table['ß'] = 's';
+        return table;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.scribble_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scribble.Broadcast")
+@Label("Broadcast")
+@Category("Scribble")
+@Description("A message handed to the broker and fanned out to its subscribers")
+@StackTrace(false)
+public class BroadcastEvent extends Event {
+
+    @Label("Room")
+    public String roomId;
+
+    @Label("Destination")
+    public String destination;
+
+    @Label("Payload Bytes")
+    @DataAmount
+    public int payloadBytes;
+
+    @Label("Subscribers")
+    public int subscribers;
+}
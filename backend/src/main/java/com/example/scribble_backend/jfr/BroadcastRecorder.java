@@ -0,0 +1,59 @@
+package com.example.scribble_backend.jfr;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+// Times each send through the broker channel, which has no executor: the simple broker fans the message
+// out to every subscriber inside send(), so begin/commit around it covers the whole fan-out.
+@Component
+public class BroadcastRecorder implements ChannelInterceptor {
+
+    private static final String ROOM_PREFIX = "/topic/room/";
+
+    // Lazy for the same reason as HeartbeatMonitor's channel: the broker is built after WebSocketConfig
+    @Autowired
+    @Lazy
+    @Qualifier("simpleBrokerMessageHandler")
+    private SimpleBrokerMessageHandler broker;
+
+    private final ThreadLocal<BroadcastEvent> inFlight = new ThreadLocal<>();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        BroadcastEvent event = new BroadcastEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            inFlight.set(event);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        BroadcastEvent event = inFlight.get();
+        if (event == null) return;
+        inFlight.remove();
+        event.end();
+        if (!event.shouldCommit()) return; // under the duration threshold
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        event.destination = destination;
+        event.roomId = roomId(destination);
+        event.payloadBytes = message.getPayload() instanceof byte[] bytes ? bytes.length : -1;
+        event.subscribers = broker.getSubscriptionRegistry().findSubscriptions(message).size();
+        event.commit();
+    }
+
+    private static String roomId(String destination) {
+        if (destination == null || !destination.startsWith(ROOM_PREFIX)) return null;
+        int end = destination.indexOf('/', ROOM_PREFIX.length());
+        return destination.substring(ROOM_PREFIX.length(), end < 0 ? destination.length() : end);
+    }
+}
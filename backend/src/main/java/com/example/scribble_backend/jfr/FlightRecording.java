@@ -0,0 +1,112 @@
+package com.example.scribble_backend.jfr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+// Always-on flight recording: the JDK's low-overhead "default" settings plus the game's own events,
+// kept in a rolling on-disk buffer so a latency spike can be dumped after the fact and traced to a room.
+// Named "scribble", so `jcmd <pid> JFR.dump name=scribble` works too.
+@Component
+public class FlightRecording {
+
+    public static final String NAME = "scribble";
+
+    @Value("${app.jfr.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jfr.settings:default}")
+    private String settings;
+
+    @Value("${app.jfr.max-age-minutes:30}")
+    private long maxAgeMinutes;
+
+    @Value("${app.jfr.max-size-mb:200}")
+    private long maxSizeMb;
+
+    // Broadcasts happen per room per second, so only slow fan-outs are kept
+    @Value("${app.jfr.broadcast-threshold:1 ms}")
+    private String broadcastThreshold;
+
+    @Value("${app.jfr.dump-dir:${java.io.tmpdir}}")
+    private String dumpDir;
+
+    private Recording recording;
+
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        if (!enabled) return;
+        Map<String, String> config = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+        for (String event : new String[] { "scribble.GameTick", "scribble.Guess", "scribble.RoomLifecycle", "scribble.RoundEnd" }) {
+            config.put(event + "#enabled", "true");
+            config.put(event + "#threshold", "0 ms");
+        }
+        config.put("scribble.Broadcast#enabled", "true");
+        config.put("scribble.Broadcast#threshold", broadcastThreshold);
+
+        recording = new Recording(config);
+        recording.setName(NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.start();
+        System.out.println("[JFR] Recording '" + NAME + "' started (" + settings + " settings, last " + maxAgeMinutes + " min)");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) recording.close();
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    // What the rolling buffer holds right now; the recording keeps running. The dump goes to a temporary
+    // file that is deleted when the returned stream is closed, so repeated dumps don't pile up on disk.
+    public Resource dump() throws IOException {
+        if (recording == null) throw new IllegalStateException("Flight recording is disabled");
+        Path dir = Files.createDirectories(Path.of(dumpDir));
+        Path file = Files.createTempFile(dir, "scribble-", ".jfr");
+        InputStream in;
+        long size;
+        try {
+            recording.dump(file);
+            size = Files.size(file);
+            in = Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        String filename = "scribble-" + Instant.now().toString().replace(':', '-') + ".jfr";
+        System.out.println("[JFR] Dumped " + size + " bytes (" + filename + ")");
+        return new InputStreamResource(in) {
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.scribble_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scribble.GameTick")
+@Label("Game Tick")
+@Category("Scribble")
+@Description("One pass of the game loop over every room")
+@StackTrace(false)
+public class GameTickEvent extends Event {
+
+    @Label("Rooms")
+    public int rooms;
+
+    @Label("Rooms Running")
+    public int roomsRunning;
+}
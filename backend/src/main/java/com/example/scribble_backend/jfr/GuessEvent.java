@@ -0,0 +1,30 @@
+package com.example.scribble_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scribble.Guess")
+@Label("Guess")
+@Category("Scribble")
+@StackTrace(false)
+public class GuessEvent extends Event {
+
+    public static final String CORRECT = "CORRECT";
+    public static final String WRONG = "WRONG";
+    public static final String NOT_RUNNING = "NOT_RUNNING";
+    public static final String NOT_IN_ROOM = "NOT_IN_ROOM";
+    public static final String DRAWER = "DRAWER";
+    public static final String ALREADY_GUESSED = "ALREADY_GUESSED";
+
+    @Label("Room")
+    public String roomId;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Seconds Into Round")
+    public int elapsedSeconds;
+}
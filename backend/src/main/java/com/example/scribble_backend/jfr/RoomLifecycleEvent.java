@@ -0,0 +1,38 @@
+package com.example.scribble_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scribble.RoomLifecycle")
+@Label("Room Lifecycle")
+@Category("Scribble")
+@StackTrace(false)
+public class RoomLifecycleEvent extends Event {
+
+    public static final String CREATED = "CREATED";
+    public static final String THAWED = "THAWED";
+    public static final String REMATCH = "REMATCH";
+    public static final String RETIRED = "RETIRED";
+    public static final String HIBERNATED = "HIBERNATED";
+
+    @Label("Room")
+    public String roomId;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Players")
+    public int players;
+
+    public static void commit(String roomId, String action, int players) {
+        RoomLifecycleEvent event = new RoomLifecycleEvent();
+        if (!event.isEnabled()) return;
+        event.roomId = roomId;
+        event.action = action;
+        event.players = players;
+        event.commit();
+    }
+}
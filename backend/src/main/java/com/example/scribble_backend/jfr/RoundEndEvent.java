@@ -0,0 +1,50 @@
+package com.example.scribble_backend.jfr;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.StrokeHistory;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("scribble.RoundEnd")
+@Label("Round End")
+@Category("Scribble")
+@Description("Draw history size when a round ends, which is what late joiners are sent")
+@StackTrace(false)
+public class RoundEndEvent extends Event {
+
+    @Label("Room")
+    public String roomId;
+
+    @Label("Round")
+    public int round;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Correct Guesses")
+    public int correctGuesses;
+
+    @Label("Raw Points")
+    public int rawPoints;
+
+    @Label("Stored Points")
+    public int storedPoints;
+
+    public static void commit(GameRoom room) {
+        RoundEndEvent event = new RoundEndEvent();
+        if (!event.isEnabled()) return;
+        StrokeHistory strokes = room.getStrokes();
+        event.roomId = room.getRoomId();
+        event.round = room.getCurrentRound();
+        event.players = room.getPlayerCount();
+        event.correctGuesses = room.getCorrectGuessCount();
+        event.rawPoints = strokes == null ? 0 : strokes.getRawPointCount();
+        event.storedPoints = strokes == null ? 0 : strokes.getStoredPointCount();
+        event.commit();
+    }
+}
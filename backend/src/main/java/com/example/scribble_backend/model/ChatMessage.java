@@ -1,5 +1,7 @@
 package com.example.scribble_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +16,12 @@ public class ChatMessage {
     private String sender;
     private String senderSessionId; // <--- ADD THIS FIELD
     private MessageType type; 
+
+    // Optional latency probes (epoch millis): set by the sender and at server ingress
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long clientTs;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long serverTs;
     
     public enum MessageType {
         CHAT, JOIN, LEAVE, SYSTEM, GUESS_CORRECT
@@ -0,0 +1,9 @@
+package com.example.scribble_backend.model;
+
+// Payload of /app/chooseWord; the word still has to be one of the drawer's choices
+public record ChooseWordRequest(String word) {
+
+    public ChooseWordRequest validated() {
+        return new ChooseWordRequest(RequestValidation.requireText("word", word, RoomConfigRequest.MAX_WORD_LENGTH));
+    }
+}
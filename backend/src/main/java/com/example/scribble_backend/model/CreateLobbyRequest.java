@@ -0,0 +1,17 @@
+package com.example.scribble_backend.model;
+
+// Body of POST /api/lobby/create
+public record CreateLobbyRequest(String roomId, String username, String sessionId, RoomConfigRequest config) {
+
+    public CreateLobbyRequest validated() {
+        return new CreateLobbyRequest(
+                RequestValidation.requireText("roomId", roomId, JoinRequest.MAX_ROOM_ID_LENGTH),
+                RequestValidation.requireText("username", username, JoinRequest.MAX_USERNAME_LENGTH),
+                sessionId,
+                config);
+    }
+
+    public GameRoomConfig toConfig() {
+        return config == null ? new GameRoomConfig() : config.toConfig();
+    }
+}
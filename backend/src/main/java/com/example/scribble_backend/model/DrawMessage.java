@@ -1,15 +1,38 @@
 package com.example.scribble_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 
+// Stroke protocol: BEGIN (style + first points), APPEND (more points), END, then UNDO/REDO by strokeId.
+// FILL floods from points[0..1]. STROKE is the server's form of a stored stroke in history snapshots.
+// DRAW is the old one-segment-per-message form and is still accepted.
 @Data
+@JsonInclude(JsonInclude.Include.NON_DEFAULT) // unused fields are left off the wire
 public class DrawMessage {
-    private String type; 
+    public static final String DRAW = "DRAW";
+    public static final String BEGIN = "BEGIN";
+    public static final String APPEND = "APPEND";
+    public static final String END = "END";
+    public static final String FILL = "FILL";
+    public static final String UNDO = "UNDO";
+    public static final String REDO = "REDO";
+    public static final String CLEAR = "CLEAR";
+    public static final String STROKE = "STROKE";
+
+    private String type;
     private double prevX;
     private double prevY;
     private double currX;
     private double currY;
     private String color;
     private int lineWidth;
-    
-}
\ No newline at end of file
+
+    private String strokeId;
+    private int[] points; // x0, y0, x1, y1, ... on the 0..1000 grid
+    private boolean undone; // only in snapshots, for strokes that can still be redone
+
+    // Optional latency probes (epoch millis): set by the sender and at server ingress
+    private Long clientTs;
+    private Long serverTs;
+}
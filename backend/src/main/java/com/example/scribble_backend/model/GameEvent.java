@@ -0,0 +1,31 @@
+package com.example.scribble_backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One analytics fact from a game; which fields are set depends on the type
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameEvent {
+    private Type type;
+    private long timestamp; // epoch millis on the game clock
+    private String roomId;
+    private String language;
+    private int round;
+    private String word; // null until one is chosen
+    private boolean customWord;
+    private String sessionId; // guesser or disconnecting player
+    private boolean correct;
+    private int elapsedSeconds; // drawing time used when the guess landed or the round ended
+    private int correctGuesses;
+    private int guessers;
+    private boolean inGame; // for DISCONNECT: whether a game was running
+
+    public enum Type {
+        ROUND_START, WORD_CHOSEN, GUESS, ROUND_END, DISCONNECT
+    }
+}
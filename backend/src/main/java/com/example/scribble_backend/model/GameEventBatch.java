@@ -0,0 +1,7 @@
+package com.example.scribble_backend.model;
+
+import java.util.List;
+
+// What goes on the wire: one message per flushed batch
+public record GameEventBatch(List<GameEvent> events) {
+}
@@ -1,126 +1,397 @@
 package com.example.scribble_backend.model;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.example.scribble_backend.filter.AhoCorasick;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
+// Laid out for many idle rooms per node: players live in fixed slots, per-slot and
+// per-letter flags are bitmasks, and collections are only allocated once used.
+// The slots, the bitmasks and the stroke history are guarded by the room's monitor: every
+// method that reads or writes them is synchronized, including the round and rematch resets.
 @Data
 public class GameRoom {
+    public static final int MAX_SLOTS = 64; // one bit per slot in the masks below
+    private static final int INITIAL_SLOTS = 4;
+
     private String roomId;
-    private List<Player> players = new CopyOnWriteArrayList<>();
-    
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Player[] slots;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int playerCount;
+
     private String language = "English";
     private String scoringMode = "Chill";
     private int drawingTime = 120;
     private int maxPlayers = 24;
     private int playersPerIpLimit = 999;
     private int customWordsPerTurn = 3;
-    private List<String> customWords = new ArrayList<>();
+    private List<String> customWords;
     private boolean isPrivate = false;
     private String lobbyName = "";
-    
-    private List<String> wordChoices = new ArrayList<>();
+
+    private List<String> wordChoices;
     private boolean wordChosen = false;
-    
+
     private String currentWord;
+    @JsonIgnore
+    private AhoCorasick answerFilter; // built when the word is chosen, masks answer leaks in chat
     private String currentDrawerSessionId;
     private int roundTime = 60;
     private boolean gameRunning = false;
-    
-    private List<Integer> hintTimes = new ArrayList<>();
+
+    private int[] hintTimes;
     private int hintsRevealed = 0;
-    
+
     private int currentRound = 1;
     private int maxRounds = 3;
-    private int drawerIndex = -1;
-    
-    private Set<String> playersWhoGuessedCorrectly = new HashSet<>();
+    private int drawerIndex = -1; // slot of the current drawer
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long guessedMask; // bit per player slot
     private long roundStartTime = 0;
-    
-    private List<DrawMessage> drawHistory = new ArrayList<>();
-    private Set<Integer> revealedIndices = new HashSet<>();
-    private Set<String> skipVotes = new HashSet<>();
-    
-    private long lastActivityTime = System.currentTimeMillis();
-
-    public void addPlayer(Player player) {
-        this.players.add(player);
-    }
-    
-    public void addStroke(DrawMessage stroke) {
-        this.drawHistory.add(stroke);
-    }
-    
-    public void clearHistory() {
-        this.drawHistory.clear();
-    }
-    
-    public String getHintWord() {
+
+    @JsonIgnore
+    private StrokeHistory strokes; // serialized through getDrawHistory()
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long revealedMask; // bit per letter index
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long skipVoteMask; // bit per player slot
+
+    private long lastActivityTime; // set from the game clock on create and thaw
+
+    @JsonIgnore
+    private RoomMessageLog messageLog;
+
+    // Bumped by recycle(): whoever keeps a room past its lookup can tell it was handed out again
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long generation;
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized RoomMessageLog getMessageLog() {
+        if (messageLog == null) {
+            messageLog = new RoomMessageLog();
+        }
+        return messageLog;
+    }
+
+    // Takes the first free slot; slots never shift, so masks stay valid across joins and leaves
+    public synchronized int addPlayer(Player player) {
+        if (slots == null) {
+            slots = new Player[INITIAL_SLOTS];
+        }
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == null) {
+                slots[i] = player;
+                playerCount++;
+                return i;
+            }
+        }
+        if (slots.length >= MAX_SLOTS) {
+            return -1;
+        }
+        int slot = slots.length;
+        slots = Arrays.copyOf(slots, Math.min(MAX_SLOTS, slots.length * 2));
+        slots[slot] = player;
+        playerCount++;
+        return slot;
+    }
+
+    public synchronized boolean removePlayer(String sessionId) {
+        int slot = slotOf(sessionId);
+        if (slot < 0) return false;
+
+        slots[slot] = null;
+        playerCount--;
+        long bit = ~(1L << slot);
+        guessedMask &= bit;
+        skipVoteMask &= bit;
+        return true;
+    }
+
+    // Snapshot in slot order; mutate through addPlayer/removePlayer
+    public synchronized List<Player> getPlayers() {
+        if (playerCount == 0) return Collections.emptyList();
+
+        List<Player> result = new ArrayList<>(playerCount);
+        for (Player p : slots) {
+            if (p != null) result.add(p);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public synchronized int getPlayerCount() {
+        return playerCount;
+    }
+
+    public synchronized Player getPlayerInSlot(int slot) {
+        if (slots == null || slot < 0 || slot >= slots.length) return null;
+        return slots[slot];
+    }
+
+    // First occupied, connected slot at or after start; -1 if none before the end
+    public synchronized int findDrawerSlot(int start) {
+        if (slots == null) return -1;
+        for (int i = Math.max(0, start); i < slots.length; i++) {
+            if (slots[i] != null && slots[i].isConnected()) return i;
+        }
+        return -1;
+    }
+
+    public synchronized int findOccupiedSlot(int start) {
+        if (slots == null) return -1;
+        for (int i = Math.max(0, start); i < slots.length; i++) {
+            if (slots[i] != null) return i;
+        }
+        return -1;
+    }
+
+    public synchronized boolean applyDraw(DrawMessage message) {
+        if (strokes == null) {
+            strokes = new StrokeHistory();
+        }
+        return strokes.apply(message);
+    }
+
+    public synchronized void clearHistory() {
+        this.strokes = null;
+    }
+
+    public synchronized List<DrawMessage> getDrawHistory() {
+        return strokes == null ? Collections.emptyList() : strokes.snapshot();
+    }
+
+    public List<String> getWordChoices() {
+        return wordChoices == null ? Collections.emptyList() : wordChoices;
+    }
+
+    public List<String> getCustomWords() {
+        return customWords == null ? Collections.emptyList() : customWords;
+    }
+
+    public void setCustomWords(List<String> customWords) {
+        this.customWords = customWords == null || customWords.isEmpty() ? null : customWords;
+    }
+
+    public int[] getHintTimes() {
+        return hintTimes == null ? new int[0] : hintTimes;
+    }
+
+    public boolean isHintTime(int time) {
+        if (hintTimes == null) return false;
+        for (int t : hintTimes) {
+            if (t == time) return true;
+        }
+        return false;
+    }
+
+    public synchronized boolean isRevealed(int index) {
+        return index < 64 && (revealedMask & (1L << index)) != 0;
+    }
+
+    public synchronized void reveal(int index) {
+        if (index < 64) {
+            revealedMask |= 1L << index;
+        }
+    }
+
+    public synchronized String getHintWord() {
         if (currentWord == null || currentWord.isEmpty()) {
             return "_ _ _ _ _";
         }
-        
+
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < currentWord.length(); i++) {
             char c = currentWord.charAt(i);
-            
-            if (revealedIndices.contains(i) || c == ' ' || c == '-') {
+
+            if (isRevealed(i) || c == ' ' || c == '-') {
                 sb.append(c);
             } else {
                 sb.append("_");
             }
-            
+
             if (i < currentWord.length() - 1) {
                 sb.append(" ");
             }
         }
-        
+
         return sb.toString().trim();
     }
-    
+
     public boolean isGameRunning() {
         return gameRunning;
     }
-    
+
     public void setGameRunning(boolean gameRunning) {
         this.gameRunning = gameRunning;
     }
-    
-    public Player getPlayerBySessionId(String sessionId) {
-        return players.stream()
-                .filter(p -> p.getSessionId().equals(sessionId))
-                .findFirst()
-                .orElse(null);
+
+    public synchronized Player getPlayerBySessionId(String sessionId) {
+        int slot = slotOf(sessionId);
+        return slot < 0 ? null : slots[slot];
     }
-    
-    public boolean allPlayersGuessed() {
-        int nonDrawerPlayers = players.size() - 1;
-        return playersWhoGuessedCorrectly.size() >= nonDrawerPlayers && nonDrawerPlayers > 0;
+
+    public synchronized boolean hasGuessedCorrectly(String sessionId) {
+        int slot = slotOf(sessionId);
+        return slot >= 0 && (guessedMask & (1L << slot)) != 0;
+    }
+
+    public synchronized boolean markGuessedCorrectly(String sessionId) {
+        int slot = slotOf(sessionId);
+        if (slot < 0) return false;
+        guessedMask |= 1L << slot;
+        return true;
     }
-    
+
+    public synchronized int getCorrectGuessCount() {
+        return Long.bitCount(guessedMask);
+    }
+
+    // Kept for the JSON state; built on demand from the slot mask
+    public synchronized Set<String> getPlayersWhoGuessedCorrectly() {
+        if (guessedMask == 0) return Collections.emptySet();
+
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null && (guessedMask & (1L << i)) != 0) {
+                result.add(slots[i].getSessionId());
+            }
+        }
+        return result;
+    }
+
+    public synchronized int getConnectedPlayerCount() {
+        if (slots == null) return 0;
+        int count = 0;
+        for (Player p : slots) {
+            if (p != null && p.isConnected()) count++;
+        }
+        return count;
+    }
+
+    // Players inside their reconnect grace period don't hold the round open
+    public synchronized boolean allPlayersGuessed() {
+        if (slots == null) return false;
+        int guessed = 0;
+        int waiting = 0;
+        for (int i = 0; i < slots.length; i++) {
+            Player p = slots[i];
+            if (p == null || p.getSessionId().equals(currentDrawerSessionId)) continue;
+            if ((guessedMask & (1L << i)) != 0) {
+                guessed++;
+            } else if (p.isConnected()) {
+                waiting++;
+            }
+        }
+        return waiting == 0 && guessed > 0;
+    }
+
     public boolean isGameOver() {
         return currentRound > maxRounds;
     }
-    
-    public void resetRoundData() {
-        playersWhoGuessedCorrectly.clear();
-        revealedIndices.clear();
-        skipVotes.clear();
-        drawHistory.clear();
+
+    public synchronized void resetRoundData(long now) {
+        guessedMask = 0;
+        skipVoteMask = 0;
+        revealedMask = 0;
+        answerFilter = null;
+        clearHistory();
         hintsRevealed = 0;
-        hintTimes.clear();
-        roundStartTime = System.currentTimeMillis();
+        hintTimes = null;
+        roundStartTime = now;
     }
-    
-    public void updateActivity() {
-        this.lastActivityTime = System.currentTimeMillis();
+
+    // Back to the lobby after a finished game: same seats and sessions, scores and rounds start over
+    public synchronized void resetForRematch(long now) {
+        if (slots != null) {
+            for (Player p : slots) {
+                if (p != null) p.setScore(0);
+            }
+        }
+        currentRound = 1;
+        drawerIndex = -1;
+        gameRunning = false;
+        currentWord = null;
+        currentDrawerSessionId = null;
+        wordChoices = null;
+        wordChosen = false;
+        roundTime = drawingTime;
+        resetRoundData(now);
+        updateActivity(now);
+    }
+
+    // Returns a retired room to its just-constructed state for RoomPool, keeping the slot array and
+    // the message ring. GameRoomRecycleTest compares every field with a new room's, so one added above
+    // fails it until it is reset here.
+    public synchronized void recycle() {
+        generation++;
+        roomId = null;
+        if (slots != null) Arrays.fill(slots, null);
+        playerCount = 0;
+        language = "English";
+        scoringMode = "Chill";
+        drawingTime = 120;
+        maxPlayers = 24;
+        playersPerIpLimit = 999;
+        customWordsPerTurn = 3;
+        customWords = null;
+        isPrivate = false;
+        lobbyName = "";
+        wordChoices = null;
+        wordChosen = false;
+        currentWord = null;
+        answerFilter = null;
+        currentDrawerSessionId = null;
+        roundTime = 60;
+        gameRunning = false;
+        hintTimes = null;
+        hintsRevealed = 0;
+        currentRound = 1;
+        maxRounds = 3;
+        drawerIndex = -1;
+        guessedMask = 0;
+        roundStartTime = 0;
+        strokes = null;
+        revealedMask = 0;
+        skipVoteMask = 0;
+        lastActivityTime = 0;
+        if (messageLog != null) messageLog.reset();
     }
-    
-    public boolean isInactive(long inactiveThresholdMs) {
-        return (System.currentTimeMillis() - lastActivityTime) > inactiveThresholdMs;
+
+    public void updateActivity(long now) {
+        this.lastActivityTime = now;
+    }
+
+    public boolean isInactive(long now, long inactiveThresholdMs) {
+        return (now - lastActivityTime) > inactiveThresholdMs;
+    }
+
+    private int slotOf(String sessionId) {
+        if (slots == null || sessionId == null) return -1;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null && sessionId.equals(slots[i].getSessionId())) return i;
+        }
+        return -1;
     }
-}
\ No newline at end of file
+}
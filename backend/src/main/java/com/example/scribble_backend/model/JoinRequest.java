@@ -0,0 +1,28 @@
+package com.example.scribble_backend.model;
+
+// Payload of /app/join; config is only read when action is "create", reservation comes from quick play,
+// resumeToken is the one the server handed this client for the room last time it was seated there
+public record JoinRequest(String username, String roomId, String action, RoomConfigRequest config, String reservation,
+                          String resumeToken) {
+
+    public static final int MAX_USERNAME_LENGTH = 24;
+    public static final int MAX_ROOM_ID_LENGTH = 64;
+
+    public JoinRequest validated() {
+        return new JoinRequest(
+                RequestValidation.requireText("username", username, MAX_USERNAME_LENGTH),
+                RequestValidation.requireText("roomId", roomId, MAX_ROOM_ID_LENGTH),
+                action,
+                config,
+                RequestValidation.optionalText("reservation", reservation, MAX_ROOM_ID_LENGTH),
+                RequestValidation.optionalText("resumeToken", resumeToken, MAX_ROOM_ID_LENGTH));
+    }
+
+    public boolean isCreate() {
+        return "create".equals(action);
+    }
+
+    public GameRoomConfig toConfig() {
+        return config == null ? null : config.toConfig();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.scribble_backend.model;
+
+import java.util.Comparator;
+
+public record LeaderboardEntry(String username, long score, int gamesPlayed) {
+
+    // Highest score first, ties broken by name so every entry has a stable position
+    public static final Comparator<LeaderboardEntry> RANKING = Comparator
+            .comparingLong(LeaderboardEntry::score).reversed()
+            .thenComparing(LeaderboardEntry::username);
+
+    public LeaderboardEntry plus(long points, int games) {
+        return new LeaderboardEntry(username, score + points, gamesPlayed + games);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.scribble_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,11 +14,19 @@ public class Player {
     private String username;
     private int score;
     private String ipAddress;
+
+    // Kept private to the owning client; lets a dropped connection reclaim this seat
+    @JsonIgnore
+    private String resumeToken;
+    private boolean connected = true;
+    @JsonIgnore
+    private long disconnectedAt;
     
     public Player(String sessionId, String username, int score) {
         this.sessionId = sessionId;
         this.username = username;
         this.score = score;
         this.ipAddress = null;
+        this.connected = true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.scribble_backend.model;
+
+// Body of POST /api/lobby/quickplay
+public record QuickPlayRequest(String username, String language) {
+
+    public QuickPlayRequest validated() {
+        return new QuickPlayRequest(
+                RequestValidation.requireText("username", username, JoinRequest.MAX_USERNAME_LENGTH),
+                language == null ? "English" : RequestValidation.oneOf("language", language, RoomConfigRequest.LANGUAGES));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.scribble_backend.model;
+
+import java.util.Set;
+
+// Shared checks for the request records; failures carry a message that is safe to show the client
+final class RequestValidation {
+
+    private RequestValidation() {
+    }
+
+    static String requireText(String field, String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return optionalText(field, value, maxLength);
+    }
+
+    static String optionalText(String field, String value, int maxLength) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        if (trimmed.length() > maxLength) {
+            throw new IllegalArgumentException(field + " must be at most " + maxLength + " characters");
+        }
+        return trimmed;
+    }
+
+    static int inRange(String field, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(field + " must be between " + min + " and " + max);
+        }
+        return value;
+    }
+
+    static String oneOf(String field, String value, Set<String> allowed) {
+        if (!allowed.contains(value)) {
+            throw new IllegalArgumentException("Unknown " + field + ": " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.scribble_backend.model;
+
+// lastSeq is the highest "seq" header the client saw before it dropped
+public record ResumeRequest(String roomId, String resumeToken, long lastSeq) {
+
+    public ResumeRequest validated() {
+        return new ResumeRequest(
+                RequestValidation.requireText("roomId", roomId, JoinRequest.MAX_ROOM_ID_LENGTH),
+                RequestValidation.requireText("resumeToken", resumeToken, JoinRequest.MAX_ROOM_ID_LENGTH),
+                Math.max(0, lastSeq));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.scribble_backend.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Lobby settings as sent by the client; absent fields keep the GameRoomConfig defaults
+public record RoomConfigRequest(
+        String language,
+        String scoringMode,
+        Integer drawingTime,
+        Integer rounds,
+        Integer maxPlayers,
+        Integer playersPerIpLimit,
+        Integer customWordsPerTurn,
+        List<String> customWords,
+        Boolean isPrivate,
+        String lobbyName) {
+
+    public static final int MIN_DRAWING_TIME = 60;
+    public static final int MAX_DRAWING_TIME = 240;
+    public static final int MAX_ROUNDS = 10;
+    public static final int MAX_PLAYERS = 24;
+    public static final int MAX_CUSTOM_WORDS = 500;
+    public static final int MAX_WORD_LENGTH = 32;
+    public static final int MAX_LOBBY_NAME_LENGTH = 40;
+
+    static final Set<String> LANGUAGES = Set.of("English", "German", "French", "Italian");
+    private static final Set<String> SCORING_MODES = Set.of("Chill", "Normal", "Competitive");
+
+    // Throws IllegalArgumentException naming the first field that is out of bounds
+    public GameRoomConfig toConfig() {
+        GameRoomConfig config = new GameRoomConfig();
+        if (language != null) config.setLanguage(RequestValidation.oneOf("language", language, LANGUAGES));
+        if (scoringMode != null) config.setScoringMode(RequestValidation.oneOf("scoringMode", scoringMode, SCORING_MODES));
+        if (drawingTime != null) {
+            config.setDrawingTime(RequestValidation.inRange("drawingTime", drawingTime, MIN_DRAWING_TIME, MAX_DRAWING_TIME));
+        }
+        if (rounds != null) config.setRounds(RequestValidation.inRange("rounds", rounds, 1, MAX_ROUNDS));
+        if (maxPlayers != null) config.setMaxPlayers(RequestValidation.inRange("maxPlayers", maxPlayers, 2, MAX_PLAYERS));
+        if (playersPerIpLimit != null) {
+            config.setPlayersPerIpLimit(RequestValidation.inRange("playersPerIpLimit", playersPerIpLimit, 1, 999));
+        }
+        if (customWordsPerTurn != null) {
+            config.setCustomWordsPerTurn(RequestValidation.inRange("customWordsPerTurn", customWordsPerTurn, 1, 5));
+        }
+        if (customWords != null) config.setCustomWords(cleanWords(customWords));
+        if (isPrivate != null) config.setPrivate(isPrivate);
+        if (lobbyName != null) config.setLobbyName(RequestValidation.optionalText("lobbyName", lobbyName, MAX_LOBBY_NAME_LENGTH));
+        return config;
+    }
+
+    private static List<String> cleanWords(List<String> words) {
+        if (words.size() > MAX_CUSTOM_WORDS) {
+            throw new IllegalArgumentException("customWords can have at most " + MAX_CUSTOM_WORDS + " words");
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String word : words) {
+            String trimmed = RequestValidation.optionalText("custom word", word, MAX_WORD_LENGTH);
+            if (trimmed != null && !trimmed.isEmpty()) {
+                unique.add(trimmed);
+            }
+        }
+        return new ArrayList<>(unique);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.scribble_backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Bounded ring of the most recent outbound room messages, used to replay what a
+// resuming client missed instead of resending the whole room
+public class RoomMessageLog {
+
+    public static final int DEFAULT_CAPACITY = 512;
+
+    public record Entry(long seq, String channel, Object payload) {}
+
+    private final int capacity;
+    private Entry[] entries; // allocated on first append
+    private long lastSeq = 0;
+
+    public RoomMessageLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RoomMessageLog(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized long append(String channel, Object payload) {
+        if (entries == null) {
+            entries = new Entry[capacity];
+        }
+        long seq = ++lastSeq;
+        entries[(int) (seq % capacity)] = new Entry(seq, channel, payload);
+        return seq;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    // Returns null when messages after afterSeq have already been overwritten
+    public synchronized List<Entry> since(long afterSeq) {
+        if (afterSeq >= lastSeq) return List.of();
+
+        long oldestRetained = Math.max(1, lastSeq - capacity + 1);
+        if (afterSeq + 1 < oldestRetained) return null;
+
+        List<Entry> missed = new ArrayList<>((int) (lastSeq - afterSeq));
+        for (long seq = afterSeq + 1; seq <= lastSeq; seq++) {
+            missed.add(entries[(int) (seq % capacity)]);
+        }
+        return missed;
+    }
+
+    public synchronized void clear() {
+        entries = null;
+    }
+
+    // For a pooled room: same ring, new sequence
+    public synchronized void reset() {
+        if (entries != null) Arrays.fill(entries, null);
+        lastSeq = 0;
+    }
+}
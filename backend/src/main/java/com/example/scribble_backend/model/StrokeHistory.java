@@ -0,0 +1,319 @@
+package com.example.scribble_backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// A room's stored canvas as a list of stroke objects. Clients already send points on the 0..1000 grid;
+// repeated points are dropped and each stroke is simplified (Ramer-Douglas-Peucker) when it ends, so
+// history and late-join replay keep the shape without every sub-pixel wiggle. Undo only flags a stroke;
+// drawing anything new drops the undone ones, which is what makes them unrecoverable in every drawing app
+public class StrokeHistory {
+    public static final double EPSILON = 1.5; // max deviation in canvas units, under a pixel on typical screens
+    private static final int MAX_OPEN_POINTS = 256; // long strokes are simplified in place, then stored in pieces
+    private static final int CANVAS_SIZE = 1000;
+
+    private static final class Stroke {
+        final String type; // STROKE or FILL
+        final String id;
+        final String color;
+        final int lineWidth;
+        final int[] points;
+        boolean undone;
+
+        Stroke(String type, String id, String color, int lineWidth, int[] points) {
+            this.type = type;
+            this.id = id;
+            this.color = color;
+            this.lineWidth = lineWidth;
+            this.points = points;
+        }
+    }
+
+    private final List<Stroke> strokes = new ArrayList<>();
+    private List<DrawMessage> committedSnapshot; // rebuilt only after strokes change
+    private int rawPointCount;
+    private int legacyStrokes;
+
+    // The stroke still being drawn
+    private String openId;
+    private boolean openLegacy;
+    private String color;
+    private int lineWidth;
+    private int[] xs;
+    private int[] ys;
+    private int points;
+
+    // Returns false for messages that don't change the canvas (unknown stroke, nothing to undo, ...)
+    public synchronized boolean apply(DrawMessage message) {
+        String type = message.getType() == null ? DrawMessage.DRAW : message.getType();
+        String id = message.getStrokeId();
+        switch (type) {
+            case DrawMessage.DRAW:
+                addSegment(message);
+                return true;
+            case DrawMessage.BEGIN:
+                if (id == null) return false;
+                commitOpenStroke();
+                dropUndone();
+                open(id, false, message.getColor(), message.getLineWidth());
+                appendPoints(message.getPoints());
+                return true;
+            case DrawMessage.APPEND:
+            case DrawMessage.END:
+                if (id == null || !id.equals(openId)) return false;
+                appendPoints(message.getPoints());
+                if (DrawMessage.END.equals(type)) commitOpenStroke();
+                return true;
+            case DrawMessage.FILL:
+                int[] at = message.getPoints();
+                if (id == null || at == null || at.length < 2) return false;
+                commitOpenStroke();
+                dropUndone();
+                rawPointCount++;
+                add(new Stroke(DrawMessage.FILL, id, message.getColor(), 0, new int[] {toCanvas(at[0]), toCanvas(at[1])}));
+                return true;
+            case DrawMessage.UNDO:
+            case DrawMessage.REDO:
+                if (id == null) return false;
+                if (id.equals(openId)) commitOpenStroke();
+                return setUndone(id, DrawMessage.UNDO.equals(type));
+            default:
+                return false;
+        }
+    }
+
+    // Includes the open stroke as drawn so far; later APPENDs for its id continue it on the client
+    public synchronized List<DrawMessage> snapshot() {
+        if (committedSnapshot == null) {
+            List<DrawMessage> messages = new ArrayList<>(strokes.size());
+            for (Stroke stroke : strokes) {
+                messages.add(message(stroke.type, stroke.id, stroke.color, stroke.lineWidth, stroke.points, stroke.undone));
+            }
+            committedSnapshot = Collections.unmodifiableList(messages);
+        }
+        if (points == 0) return committedSnapshot;
+
+        List<DrawMessage> messages = new ArrayList<>(committedSnapshot.size() + 1);
+        messages.addAll(committedSnapshot);
+        messages.add(message(DrawMessage.STROKE, openId, color, lineWidth, interleave(xs, ys, points), false));
+        return Collections.unmodifiableList(messages);
+    }
+
+    public synchronized int getRawPointCount() {
+        return rawPointCount;
+    }
+
+    public synchronized int getStoredPointCount() {
+        int stored = points;
+        for (Stroke stroke : strokes) {
+            stored += stroke.points.length / 2;
+        }
+        return stored;
+    }
+
+    // Old clients send one segment per message; consecutive ones with the same style form a stroke
+    private void addSegment(DrawMessage segment) {
+        int x0 = toCanvas(segment.getPrevX());
+        int y0 = toCanvas(segment.getPrevY());
+        int x1 = toCanvas(segment.getCurrX());
+        int y1 = toCanvas(segment.getCurrY());
+
+        boolean continues = points > 0 && openLegacy
+                && xs[points - 1] == x0 && ys[points - 1] == y0
+                && lineWidth == segment.getLineWidth()
+                && (color == null ? segment.getColor() == null : color.equals(segment.getColor()));
+        if (!continues) {
+            commitOpenStroke();
+            dropUndone();
+            open("segments-" + (++legacyStrokes), true, segment.getColor(), segment.getLineWidth());
+            appendPoint(x0, y0);
+            rawPointCount++;
+        }
+        appendPoint(x1, y1);
+        rawPointCount++;
+        compactIfFull();
+    }
+
+    private void open(String id, boolean legacy, String color, int lineWidth) {
+        this.openId = id;
+        this.openLegacy = legacy;
+        this.color = color;
+        this.lineWidth = lineWidth;
+    }
+
+    private void appendPoints(int[] coordinates) {
+        if (coordinates == null) return;
+        for (int i = 0; i + 1 < coordinates.length; i += 2) {
+            appendPoint(toCanvas(coordinates[i]), toCanvas(coordinates[i + 1]));
+            rawPointCount++;
+            compactIfFull();
+        }
+    }
+
+    private void appendPoint(int x, int y) {
+        if (xs == null) {
+            xs = new int[32];
+            ys = new int[32];
+        } else if (points == xs.length) {
+            xs = Arrays.copyOf(xs, points * 2);
+            ys = Arrays.copyOf(ys, points * 2);
+        }
+        // Repeated points add nothing to the shape
+        if (points > 0 && xs[points - 1] == x && ys[points - 1] == y) return;
+        xs[points] = x;
+        ys[points] = y;
+        points++;
+    }
+
+    // Simplifies what is there so far; if that doesn't free enough room, stores a piece under the same
+    // id (undo acts on every piece) and continues from its last point
+    private void compactIfFull() {
+        if (points < MAX_OPEN_POINTS) return;
+
+        boolean[] keep = simplify(xs, ys, points, EPSILON);
+        int kept = 0;
+        for (int i = 0; i < points; i++) {
+            if (!keep[i]) continue;
+            xs[kept] = xs[i];
+            ys[kept] = ys[i];
+            kept++;
+        }
+        points = kept;
+        if (points < MAX_OPEN_POINTS / 2) return;
+
+        int lastX = xs[points - 1];
+        int lastY = ys[points - 1];
+        String id = openId;
+        boolean legacy = openLegacy;
+        String pieceColor = color;
+        int pieceWidth = lineWidth;
+        commitOpenStroke();
+        open(id, legacy, pieceColor, pieceWidth);
+        appendPoint(lastX, lastY);
+    }
+
+    private void commitOpenStroke() {
+        if (points > 0) {
+            int[] stored;
+            if (points == 1) {
+                stored = new int[] {xs[0], ys[0]}; // a dot
+            } else {
+                boolean[] keep = simplify(xs, ys, points, EPSILON);
+                int kept = 0;
+                for (boolean k : keep) {
+                    if (k) kept++;
+                }
+                stored = new int[kept * 2];
+                int j = 0;
+                for (int i = 0; i < points; i++) {
+                    if (!keep[i]) continue;
+                    stored[j++] = xs[i];
+                    stored[j++] = ys[i];
+                }
+            }
+            add(new Stroke(DrawMessage.STROKE, openId, color, lineWidth, stored));
+        }
+        points = 0;
+        openId = null;
+        openLegacy = false;
+        color = null;
+    }
+
+    private void add(Stroke stroke) {
+        strokes.add(stroke);
+        committedSnapshot = null;
+    }
+
+    private void dropUndone() {
+        if (strokes.removeIf(stroke -> stroke.undone)) {
+            committedSnapshot = null;
+        }
+    }
+
+    private boolean setUndone(String id, boolean undone) {
+        boolean changed = false;
+        for (Stroke stroke : strokes) {
+            if (id.equals(stroke.id) && stroke.undone != undone) {
+                stroke.undone = undone;
+                changed = true;
+            }
+        }
+        if (changed) committedSnapshot = null;
+        return changed;
+    }
+
+    private static DrawMessage message(String type, String id, String color, int lineWidth, int[] points, boolean undone) {
+        DrawMessage m = new DrawMessage();
+        m.setType(type);
+        m.setStrokeId(id);
+        m.setColor(color);
+        m.setLineWidth(lineWidth);
+        m.setPoints(points); // stored arrays are never modified after commit
+        m.setUndone(undone);
+        return m;
+    }
+
+    private static int[] interleave(int[] xs, int[] ys, int n) {
+        int[] coordinates = new int[n * 2];
+        for (int i = 0; i < n; i++) {
+            coordinates[2 * i] = xs[i];
+            coordinates[2 * i + 1] = ys[i];
+        }
+        return coordinates;
+    }
+
+    // Iterative Ramer-Douglas-Peucker; endpoints are always kept
+    static boolean[] simplify(int[] xs, int[] ys, int n, double epsilon) {
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        double maxAllowed = epsilon * epsilon;
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+
+        while (top > 0) {
+            int end = stack[--top];
+            int start = stack[--top];
+
+            int farthest = -1;
+            double farthestDist = maxAllowed;
+            for (int i = start + 1; i < end; i++) {
+                double d = distanceSq(xs[i], ys[i], xs[start], ys[start], xs[end], ys[end]);
+                if (d > farthestDist) {
+                    farthestDist = d;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                stack[top++] = start;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = end;
+            }
+        }
+        return keep;
+    }
+
+    // Distance to the segment rather than the infinite line, so closed loops aren't collapsed
+    private static double distanceSq(int px, int py, int ax, int ay, int bx, int by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSq));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return ex * ex + ey * ey;
+    }
+
+    // Rounds the legacy segments' doubles; grid points only get clamped
+    private static int toCanvas(double coordinate) {
+        return (int) Math.max(0, Math.min(CANVAS_SIZE, Math.round(coordinate)));
+    }
+}
@@ -1,16 +1,26 @@
 package com.example.scribble_backend.scheduler;
 
+import java.util.List;
 import java.util.Random;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.example.scribble_backend.analytics.AnalyticsPublisher;
+import com.example.scribble_backend.jfr.GameTickEvent;
+import com.example.scribble_backend.jfr.RoundEndEvent;
 import com.example.scribble_backend.model.ChatMessage;
 import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.Player;
 import com.example.scribble_backend.service.GameService;
+import com.example.scribble_backend.service.InitialSyncService;
+import com.example.scribble_backend.service.MatchmakingService;
+import com.example.scribble_backend.service.OverloadController;
+import com.example.scribble_backend.service.RoomBroadcaster;
+import com.example.scribble_backend.service.ThumbnailService;
 
 @Component
 @EnableScheduling
@@ -20,7 +30,35 @@ public class GameLoop {
     private GameService gameService;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private RoomBroadcaster broadcaster;
+
+    @Autowired
+    private OverloadController overloadController;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private InitialSyncService initialSync;
+
+    @Autowired
+    private Random random;
+
+    @Autowired
+    private MatchmakingService matchmaking;
+
+    @Autowired
+    private AnalyticsPublisher analytics;
+
+    // In simulation the driver calls tick() itself and nothing waits on the wall clock
+    @Value("${app.simulation.manual-ticks:false}")
+    private boolean manualTicks;
+
+    @Value("${app.session.resume-grace-ms:60000}")
+    private long resumeGraceMs;
+
+    @Value("${app.hibernation.ttl-ms:604800000}")
+    private long hibernatedRoomTtlMs;
 
     
     // Clean up inactive rooms every 2 minutes for free tier optimization
@@ -35,41 +73,102 @@ public class GameLoop {
         }
     }
     
+    // Joiners that never subscribed to their snapshot queue get it over the room topic instead
+    @Scheduled(fixedRate = 1000)
+    public void expireInitialSyncs() {
+        initialSync.expireStale();
+    }
+
+    // Quick-play seats whose player never arrived go back to the pool
+    @Scheduled(fixedRate = 5000)
+    public void expireReservations() {
+        matchmaking.expireReservations();
+    }
+
+    // Hibernated private lobbies are kept on disk for a week
+    @Scheduled(fixedRate = 3600000)
+    public void purgeHibernatedRooms() {
+        int purged = gameService.purgeHibernatedRooms(hibernatedRoomTtlMs);
+        if (purged > 0) {
+            System.out.println("[Cleanup] Purged " + purged + " hibernated rooms");
+        }
+    }
+    
+    // Drop players whose connection didn't come back within the resume grace period
+    @Scheduled(fixedRate = 5000)
+    public void reapDisconnectedPlayers() {
+        for (GameRoom room : gameService.getAllRooms()) {
+            long generation = gameService.liveGeneration(room);
+            if (generation == GameService.NOT_LIVE) continue;
+            List<Player> expired = gameService.removeExpiredPlayers(room, resumeGraceMs);
+            if (expired.isEmpty()) continue;
+            
+            if (room.getPlayerCount() == 0) {
+                gameService.retireRoom(room);
+                continue;
+            }
+            
+            for (Player player : expired) {
+                ChatMessage leaveMsg = ChatMessage.builder()
+                        .type(ChatMessage.MessageType.SYSTEM)
+                        .sender("System")
+                        .content(player.getUsername() + " left the game")
+                        .build();
+                broadcaster.send(room, generation, "chat", leaveMsg);
+            }
+            broadcaster.send(room, generation, "state", room);
+        }
+    }
+    
     @Scheduled(fixedRate = 1000)
     public void gameTick() {
+        if (manualTicks) return;
+        overloadController.recordTickStart(System.nanoTime(), 1000);
+        tick();
+    }
+
+    // One game second for every room
+    public void tick() {
+        GameTickEvent event = new GameTickEvent();
+        event.begin();
         for (GameRoom room : gameService.getAllRooms()) {
+            // Sends below carry it, so none reaches a room retired and handed out again meanwhile
+            long generation = gameService.liveGeneration(room);
+            if (generation == GameService.NOT_LIVE) continue;
+            event.rooms++;
             if (room.isGameRunning() && room.getRoundTime() > 0) {
+                event.roomsRunning++;
                 
                
                 room.setRoundTime(room.getRoundTime() - 1);
 
-                if (room.isWordChosen() && room.getHintTimes() != null && !room.getHintTimes().isEmpty()) {
+                if (room.isWordChosen()) {
                     int currentTime = room.getRoundTime();
                     
-                    if (room.getHintTimes().contains(currentTime) && room.getHintsRevealed() < room.getHintTimes().size()) {
+                    if (room.isHintTime(currentTime) && room.getHintsRevealed() < room.getHintTimes().length) {
                         revealRandomLetter(room);
                         room.setHintsRevealed(room.getHintsRevealed() + 1);
                         
-                        messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/state", room);
+                        broadcaster.send(room, generation, "state", room);
                     }
                 }
 
-                messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/time", room.getRoundTime());
+                broadcaster.sendVolatile(room, generation, "time", room.getRoundTime());
 
                 if (room.allPlayersGuessed()) {
-                    endRoundAndStartNext(room);
+                    endRoundAndStartNext(room, generation);
                 }
                 
         
                 if (room.getRoundTime() == 0) {
                     if (!room.isWordChosen()) {
                         if (room.getWordChoices() != null && !room.getWordChoices().isEmpty()) {
-                            String randomWord = room.getWordChoices().get(new Random().nextInt(room.getWordChoices().size()));
+                            String randomWord = room.getWordChoices().get(random.nextInt(room.getWordChoices().size()));
                             gameService.chooseWord(room.getRoomId(), room.getCurrentDrawerSessionId(), randomWord);
                             
-                            messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/state", room);
+                            broadcaster.send(room, generation, "state", room);
                         } else {
-                            endRoundAndStartNext(room);
+                            endRoundAndStartNext(room, generation);
                         }
                     } else {
                         String oldWord = room.getCurrentWord();
@@ -79,13 +178,14 @@ public class GameLoop {
                                 .sender("System")
                                 .content("Time's up! Word was: " + oldWord)
                                 .build();
-                        messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/chat", timeUpMsg);
+                        broadcaster.send(room, generation, "chat", timeUpMsg);
                         
-                        endRoundAndStartNext(room);
+                        endRoundAndStartNext(room, generation);
                     }
                 }
             }
         }
+        event.commit();
     }
 
     private void revealRandomLetter(GameRoom room) {
@@ -93,28 +193,31 @@ public class GameLoop {
         if (word == null || word.isEmpty()) return;
 
 
+        // Reveal flags are a 64-bit mask, longer custom words only hint their first 64 letters
         java.util.List<Integer> unrevealedPositions = new java.util.ArrayList<>();
-        for (int i = 0; i < word.length(); i++) {
+        for (int i = 0; i < Math.min(word.length(), 64); i++) {
             char c = word.charAt(i);
-            if (!room.getRevealedIndices().contains(i) && c != ' ' && c != '-') {
+            if (!room.isRevealed(i) && c != ' ' && c != '-') {
                 unrevealedPositions.add(i);
             }
         }
 
         if (!unrevealedPositions.isEmpty()) {
-            Random rand = new Random();
-            int randomIndex = unrevealedPositions.get(rand.nextInt(unrevealedPositions.size()));
-            room.getRevealedIndices().add(randomIndex);
+            int randomIndex = unrevealedPositions.get(random.nextInt(unrevealedPositions.size()));
+            room.reveal(randomIndex);
         }
     }
     
-    private void endRoundAndStartNext(GameRoom room) {
+    private void endRoundAndStartNext(GameRoom room, long generation) {
         String oldWord = room.getCurrentWord();
+        analytics.roundEnded(room);
+        RoundEndEvent.commit(room);
         
      
         com.example.scribble_backend.model.DrawMessage clearMsg = new com.example.scribble_backend.model.DrawMessage();
         clearMsg.setType("CLEAR");
-        messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/draw", clearMsg);
+        broadcaster.send(room, generation, "draw", clearMsg);
+        thumbnailService.paint(room, generation, clearMsg);
         
     
         ChatMessage wordRevealMsg = ChatMessage.builder()
@@ -122,10 +225,10 @@ public class GameLoop {
                 .sender("System")
                 .content("The word was: " + oldWord)
                 .build();
-        messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/chat", wordRevealMsg);
+        broadcaster.send(room, generation, "chat", wordRevealMsg);
         
     
-        try { Thread.sleep(500); } catch (InterruptedException e) { }
+        pause(500);
         
      
         gameService.startNewRound(room);
@@ -137,17 +240,16 @@ public class GameLoop {
                     .sender("System")
                     .content("🎉 GAME OVER! Winner: " + getWinner(room))
                     .build();
-            messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/chat", gameOverMsg);
-            
-            messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/state", room);
-            
-            try { Thread.sleep(10000); } catch (InterruptedException e) { }
-            gameService.removeRoom(room.getRoomId());
-            return;
+            broadcaster.send(room, generation, "chat", gameOverMsg);
         }
         
+        // A finished room keeps its final scores up until someone asks for a rematch (/app/rematch)
+        broadcaster.send(room, generation, "state", room);
+    }
     
-        messagingTemplate.convertAndSend("/topic/room/" + room.getRoomId() + "/state", room);
+    private void pause(long millis) {
+        if (manualTicks) return;
+        try { Thread.sleep(millis); } catch (InterruptedException e) { }
     }
     
     private String getScoreSummary(GameRoom room) {
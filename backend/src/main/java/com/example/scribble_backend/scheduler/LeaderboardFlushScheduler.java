@@ -0,0 +1,20 @@
+package com.example.scribble_backend.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.scribble_backend.service.LeaderboardService;
+
+@Component
+public class LeaderboardFlushScheduler {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    // Write-behind: game threads only enqueue, this job batches the disk writes
+    @Scheduled(fixedDelayString = "${app.leaderboard.flush-interval-ms:5000}")
+    public void flushLeaderboard() {
+        leaderboardService.flush();
+    }
+}
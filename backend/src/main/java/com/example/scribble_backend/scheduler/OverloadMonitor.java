@@ -0,0 +1,33 @@
+package com.example.scribble_backend.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.scribble_backend.service.DrawBatcher;
+import com.example.scribble_backend.service.OverloadController;
+
+@Component
+public class OverloadMonitor {
+
+    @Autowired
+    private OverloadController overloadController;
+
+    @Autowired
+    private DrawBatcher drawBatcher;
+
+    private long flushCount = 0;
+
+    @Scheduled(fixedRate = 500, scheduler = "overloadScheduler")
+    public void evaluateLoad() {
+        overloadController.evaluate();
+    }
+
+    // 50ms batches when throttled, stretched to 100ms once we are also refusing new rooms
+    @Scheduled(fixedDelay = 50, scheduler = "overloadScheduler")
+    public void flushDrawBatches() {
+        flushCount++;
+        if (overloadController.isRejectingNewRooms() && flushCount % 2 != 0) return;
+        drawBatcher.flush();
+    }
+}
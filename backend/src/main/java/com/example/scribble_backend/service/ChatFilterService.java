@@ -0,0 +1,93 @@
+package com.example.scribble_backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.filter.AhoCorasick;
+import com.example.scribble_backend.model.GameRoom;
+
+import jakarta.annotation.PostConstruct;
+
+// Masks profanity and the current answer in chat with one pass per automaton over each message
+@Service
+public class ChatFilterService {
+
+    @Value("${app.chat-filter.enabled:true}")
+    private boolean enabled;
+
+    // Built once at startup; matching never touches these maps' values other than to read them
+    private final Map<String, AhoCorasick> profanityByLanguage = new ConcurrentHashMap<>();
+    private AhoCorasick englishProfanity;
+
+    @PostConstruct
+    public void init() {
+        englishProfanity = AhoCorasick.build(loadList("profanity/en.txt"));
+        profanityByLanguage.put("English", englishProfanity);
+        profanityByLanguage.put("German", withEnglish("profanity/de.txt"));
+        profanityByLanguage.put("French", withEnglish("profanity/fr.txt"));
+        profanityByLanguage.put("Italian", withEnglish("profanity/it.txt"));
+    }
+
+    // Built once per round when the drawer picks a word; also catches "ice cream" typed as "icecream" or "ice-cream"
+    public AhoCorasick buildAnswerFilter(String word) {
+        if (word == null || word.isBlank()) return null;
+
+        Set<String> variants = new LinkedHashSet<>();
+        String trimmed = word.trim();
+        variants.add(trimmed);
+        variants.add(trimmed.replace(" ", "").replace("-", ""));
+        variants.add(trimmed.replace(' ', '-'));
+        variants.add(trimmed.replace('-', ' '));
+        return AhoCorasick.build(variants);
+    }
+
+    public String filter(GameRoom room, String text) {
+        if (!enabled || text == null || text.isEmpty()) return text;
+
+        AhoCorasick profanity = profanityByLanguage.getOrDefault(room.getLanguage(), englishProfanity);
+        String result = profanity.mask(text, true);
+
+        // The answer is masked even inside longer words so it can't be smuggled out as "xxapplexx"
+        AhoCorasick answer = room.getAnswerFilter();
+        if (answer != null && room.isWordChosen()) {
+            result = answer.mask(result, false);
+        }
+        return result;
+    }
+
+    // Players swear in English whatever the lobby language is
+    private AhoCorasick withEnglish(String filename) {
+        List<String> words = loadList(filename);
+        words.addAll(loadList("profanity/en.txt"));
+        return AhoCorasick.build(words);
+    }
+
+    private List<String> loadList(String filename) {
+        List<String> words = new ArrayList<>();
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(filename);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    words.add(line);
+                }
+            }
+        } catch (IOException | NullPointerException e) {
+            System.err.println("[ChatFilter] Could not load " + filename);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.scribble_backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+
+// Under overload, coalesces a room's draw segments into one frame per flush instead of one frame per segment
+@Service
+public class DrawBatcher {
+
+    @Autowired
+    private RoomBroadcaster broadcaster;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    private final Map<String, Batch> pending = new ConcurrentHashMap<>();
+
+    private static final class Batch {
+        final GameRoom room;
+        final long generation;
+        final List<DrawMessage> messages = new ArrayList<>();
+        long[] ingressNanos = new long[8];
+
+        Batch(GameRoom room, long generation) {
+            this.room = room;
+            this.generation = generation;
+        }
+    }
+
+    // roomId and generation as the caller looked the room up
+    public void enqueue(String roomId, GameRoom room, long generation, DrawMessage message, long ingressNanos) {
+        pending.compute(roomId, (id, batch) -> {
+            if (batch == null || batch.room != room || batch.generation != generation) batch = new Batch(room, generation);
+            int index = batch.messages.size();
+            if (index == batch.ingressNanos.length) {
+                batch.ingressNanos = Arrays.copyOf(batch.ingressNanos, index * 2);
+            }
+            batch.ingressNanos[index] = ingressNanos;
+            batch.messages.add(message);
+            return batch;
+        });
+    }
+
+    // Once throttling ends, new segments must still queue behind anything not yet flushed
+    public boolean hasPending(String roomId) {
+        return pending.containsKey(roomId);
+    }
+
+    public int flush() {
+        if (pending.isEmpty()) return 0;
+
+        int sent = 0;
+        for (String roomId : pending.keySet()) {
+            Batch batch = pending.remove(roomId);
+            if (batch == null || batch.messages.isEmpty()) continue;
+            // Dropped if the room was retired and handed out again by RoomPool since: the game is gone
+            Object payload = batch.messages.size() == 1 ? batch.messages.get(0) : batch.messages;
+            if (!broadcaster.send(batch.room, batch.generation, "draw", payload)) continue;
+            // Batching delay counts towards each segment's dispatch time
+            for (int i = 0; i < batch.messages.size(); i++) {
+                latencyRecorder.recordSince(roomId, LatencyRecorder.DRAW_DISPATCH, batch.ingressNanos[i]);
+            }
+            sent++;
+        }
+        return sent;
+    }
+}
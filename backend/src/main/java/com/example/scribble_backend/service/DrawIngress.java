@@ -0,0 +1,199 @@
+package com.example.scribble_backend.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+
+// Gate in front of /app/draw: only the room's current drawer may draw, every field is bounded before
+// anything stores or relays it, and each drawer spends from a segment budget (token bucket), so one
+// client can't multiply the room's fan-out. Rejections are silent and counted; replying to a flood
+// would only add to it.
+@Service
+public class DrawIngress {
+
+    public static final int CANVAS_SIZE = 1000;
+    public static final int MAX_LINE_WIDTH = 64;
+    public static final int MAX_STROKE_ID_LENGTH = 64;
+    public static final int MAX_POINTS_PER_MESSAGE = 256;
+    // FILL, UNDO, REDO and CLEAR make every client flood or repaint the whole canvas
+    private static final int CANVAS_WIDE_COST = 50;
+
+    private static final Pattern COLOR = Pattern.compile("#(?:[0-9a-fA-F]{3}|[0-9a-fA-F]{6})");
+    private static final Set<String> TYPES = Set.of(DrawMessage.DRAW, DrawMessage.BEGIN, DrawMessage.APPEND,
+            DrawMessage.END, DrawMessage.FILL, DrawMessage.UNDO, DrawMessage.REDO, DrawMessage.CLEAR);
+
+    @Value("${app.draw.segments-per-second:300}")
+    private double segmentsPerSecond;
+
+    @Value("${app.draw.burst-segments:600}")
+    private double burstSegments;
+
+    // One budget per room, reset whenever the turn passes to another drawer
+    private static final class Quota {
+        String drawerSessionId;
+        double tokens;
+        long refilledAt;
+    }
+
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+
+    private final LongAdder notDrawer = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder thinned = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    // Returns the message to apply and relay (sanitized in place, possibly thinned), or null to drop it
+    public DrawMessage admit(GameRoom room, String sessionId, DrawMessage message) {
+        if (sessionId == null || !sessionId.equals(room.getCurrentDrawerSessionId())) {
+            notDrawer.increment();
+            return null;
+        }
+        if (!sanitize(message)) {
+            invalid.increment();
+            return null;
+        }
+        return spend(room.getRoomId(), sessionId, message);
+    }
+
+    public void forget(String roomId) {
+        quotas.remove(roomId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rejectedNotDrawer", notDrawer.sum());
+        stats.put("rejectedInvalid", invalid.sum());
+        stats.put("thinned", thinned.sum());
+        stats.put("throttled", throttled.sum());
+        return stats;
+    }
+
+    // Clamps what can be clamped; rejects what can't be trusted at all (unknown type, bad color, NaN, oversized)
+    private boolean sanitize(DrawMessage message) {
+        String type = message.getType() == null ? DrawMessage.DRAW : message.getType();
+        if (!TYPES.contains(type)) return false;
+        message.setType(type);
+        message.setServerTs(null); // stamped by the server only
+        message.setUndone(false); // a snapshot-only flag
+
+        String strokeId = message.getStrokeId();
+        if (strokeId != null && (strokeId.isEmpty() || strokeId.length() > MAX_STROKE_ID_LENGTH)) return false;
+
+        switch (type) {
+            case DrawMessage.UNDO:
+            case DrawMessage.REDO:
+            case DrawMessage.CLEAR:
+                message.setColor(null);
+                message.setLineWidth(0);
+                message.setPoints(null);
+                return true;
+            case DrawMessage.FILL:
+                int[] at = message.getPoints();
+                if (at == null || at.length < 2) return false;
+                message.setPoints(Arrays.copyOf(at, 2));
+                message.setLineWidth(0);
+                break;
+            case DrawMessage.DRAW:
+                if (!Double.isFinite(message.getPrevX()) || !Double.isFinite(message.getPrevY())
+                        || !Double.isFinite(message.getCurrX()) || !Double.isFinite(message.getCurrY())) {
+                    return false;
+                }
+                message.setPrevX(clamp(message.getPrevX()));
+                message.setPrevY(clamp(message.getPrevY()));
+                message.setCurrX(clamp(message.getCurrX()));
+                message.setCurrY(clamp(message.getCurrY()));
+                message.setPoints(null);
+                break;
+            default:
+                break; // BEGIN, APPEND, END carry points and style as-is
+        }
+
+        if (message.getColor() != null && !COLOR.matcher(message.getColor()).matches()) return false;
+        if (!DrawMessage.FILL.equals(type)) {
+            message.setLineWidth(Math.max(1, Math.min(MAX_LINE_WIDTH, message.getLineWidth())));
+        }
+
+        int[] points = message.getPoints();
+        if (points != null) {
+            if (points.length > 2 * MAX_POINTS_PER_MESSAGE) return false;
+            if (points.length % 2 != 0) points = Arrays.copyOf(points, points.length - 1);
+            for (int i = 0; i < points.length; i++) {
+                points[i] = Math.max(0, Math.min(CANVAS_SIZE, points[i]));
+            }
+            message.setPoints(points);
+        }
+        return true;
+    }
+
+    private DrawMessage spend(String roomId, String sessionId, DrawMessage message) {
+        Quota quota = quotas.computeIfAbsent(roomId, id -> new Quota());
+        synchronized (quota) {
+            long now = System.nanoTime();
+            if (!sessionId.equals(quota.drawerSessionId)) {
+                quota.drawerSessionId = sessionId;
+                quota.tokens = burstSegments;
+            } else {
+                quota.tokens = Math.min(burstSegments, quota.tokens + (now - quota.refilledAt) / 1e9 * segmentsPerSecond);
+            }
+            quota.refilledAt = now;
+
+            int cost = cost(message);
+            if (quota.tokens >= cost) {
+                quota.tokens -= cost;
+                return message;
+            }
+
+            // Over budget: a stroke keeps its shape at lower resolution instead of breaking into gaps
+            int affordable = (int) quota.tokens;
+            int[] points = message.getPoints();
+            if (points != null && !DrawMessage.FILL.equals(message.getType()) && affordable >= 2) {
+                message.setPoints(thin(points, affordable));
+                quota.tokens -= affordable;
+                thinned.increment();
+                return message;
+            }
+            throttled.increment();
+            return null;
+        }
+    }
+
+    // One token per stroke segment
+    private static int cost(DrawMessage message) {
+        switch (message.getType()) {
+            case DrawMessage.DRAW:
+                return 1;
+            case DrawMessage.BEGIN:
+            case DrawMessage.APPEND:
+            case DrawMessage.END:
+                return Math.max(1, message.getPoints() == null ? 0 : message.getPoints().length / 2);
+            default:
+                return CANVAS_WIDE_COST;
+        }
+    }
+
+    // Keeps `keep` evenly spaced points, always including the first and last
+    static int[] thin(int[] points, int keep) {
+        int count = points.length / 2;
+        int[] kept = new int[keep * 2];
+        for (int i = 0; i < keep; i++) {
+            int from = (int) ((long) i * (count - 1) / (keep - 1));
+            kept[2 * i] = points[2 * from];
+            kept[2 * i + 1] = points[2 * from + 1];
+        }
+        return kept;
+    }
+
+    private static double clamp(double coordinate) {
+        return Math.max(0, Math.min(CANVAS_SIZE, coordinate));
+    }
+}
@@ -4,23 +4,73 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.example.scribble_backend.analytics.AnalyticsPublisher;
+import com.example.scribble_backend.jfr.GuessEvent;
+import com.example.scribble_backend.jfr.RoomLifecycleEvent;
 import com.example.scribble_backend.model.GameRoom;
 import com.example.scribble_backend.model.GameRoomConfig;
 import com.example.scribble_backend.model.Player;
+import com.example.scribble_backend.model.StrokeHistory;
 
 @Service
 public class GameService {
 
+    private static final Logger log = LoggerFactory.getLogger(GameService.class);
+
+    // No room generation is negative, so sends made with this are always dropped
+    public static final long NOT_LIVE = -1;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private RoomHibernationStore hibernationStore;
+
+    @Autowired
+    private ChatFilterService chatFilterService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @Autowired
+    private RoomStateWatch stateWatch;
+
+    @Autowired
+    private DrawIngress drawIngress;
+
+    @Autowired
+    private MatchmakingService matchmaking;
+
+    @Autowired
+    private AnalyticsPublisher analytics;
+
+    @Autowired
+    private RoomPool roomPool;
+
+    @Autowired
+    private Clock clock;
+
+    @Autowired
+    private Random random;
+
     private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
     private final Map<String, List<String>> wordListsByLanguage = new ConcurrentHashMap<>();
     
@@ -61,8 +111,14 @@ public class GameService {
         return words;
     }
 
+    // Returns null when the id is taken, by a live room (quick play draws from the same 6-digit ids) or
+    // by a parked private lobby; creating over the latter would shadow it and, once the new room retired,
+    // overwrite its file
     public GameRoom createRoom(String roomId, String playerName, String sessionId, GameRoomConfig config) {
-        GameRoom room = new GameRoom();
+        if (hibernationStore.isParked(roomId)) {
+            return null;
+        }
+        GameRoom room = roomPool.acquire();
         room.setRoomId(roomId);
         
         if (config != null) {
@@ -80,10 +136,34 @@ public class GameService {
         }
         
         Player host = new Player(sessionId, playerName, 0);
+        host.setResumeToken(newResumeToken());
         room.addPlayer(host);
-        rooms.put(room.getRoomId(), room);
+        room.updateActivity(clock.millis());
+        if (rooms.putIfAbsent(room.getRoomId(), room) != null) {
+            // Never published, so nothing else holds it
+            roomPool.release(room);
+            return null;
+        }
+        matchmaking.track(room);
+        RoomLifecycleEvent.commit(room.getRoomId(), RoomLifecycleEvent.CREATED, 1);
         return room;
     }
+
+    // Empty public room for quick play; seats are handed out through MatchmakingService reservations
+    public GameRoom createQuickPlayRoom(String language) {
+        GameRoom room = roomPool.acquire();
+        room.setLanguage(language);
+        room.setLobbyName("Quick Play");
+        room.updateActivity(clock.millis());
+        while (true) {
+            room.setRoomId(Integer.toString(100000 + random.nextInt(900000)));
+            if (rooms.putIfAbsent(room.getRoomId(), room) == null) {
+                matchmaking.track(room);
+                RoomLifecycleEvent.commit(room.getRoomId(), RoomLifecycleEvent.CREATED, 0);
+                return room;
+            }
+        }
+    }
     
     public GameRoom createRoom(String roomId, String playerName, String sessionId, GameRoomConfig config, String ipAddress) {
         GameRoom room = createRoom(roomId, playerName, sessionId, config);
@@ -101,42 +181,212 @@ public class GameService {
     }
 
     public GameRoom joinRoom(String roomId, String playerName, String sessionId, String ipAddress) {
-        GameRoom room = rooms.get(roomId);
-        if (room != null) {
+        return joinRoom(roomId, playerName, sessionId, ipAddress, null, null);
+    }
+
+    // reservation is a quick-play token for this room, honoured only for the name it was made for;
+    // seats reserved by others count as taken.
+    // resumeToken lets a player who dropped out (e.g. reloaded the page) take their own seat back.
+    public GameRoom joinRoom(String roomId, String playerName, String sessionId, String ipAddress,
+                             String reservation, String resumeToken) {
+        GameRoom room = getRoom(roomId);
+        if (room == null) {
+            return null;
+        }
+        // Check and seat under the room lock, so two joiners can't both take the last seat
+        synchronized (room) {
+            // Retired between the lookup and the lock; retireRoom holds the same lock while it removes
+            if (rooms.get(roomId) != room) {
+                return null;
+            }
+
+            // The seat is still held for its owner, so it doesn't count against the room's capacity
+            Player returning = findPlayerByResumeToken(room, resumeToken);
+            if (returning != null) {
+                rebindSession(room, returning, sessionId, ipAddress);
+                matchmaking.update(room);
+                return room;
+            }
+
             if (room.isGameOver()) {
                 return null;
             }
             
-            if (room.getPlayers().size() >= room.getMaxPlayers()) {
+            String held = matchmaking.reservedFor(room, reservation, playerName);
+            if (matchmaking.freeSeats(room, held) <= 0) {
                 return null;
             }
             
             boolean playerExists = room.getPlayers().stream()
                     .anyMatch(p -> p.getSessionId().equals(sessionId));
             if (!playerExists) {
+                if (countPlayersFromIp(room, ipAddress) >= room.getPlayersPerIpLimit()) {
+                    return null;
+                }
                 Player newPlayer = new Player(sessionId, playerName, 0);
                 newPlayer.setIpAddress(ipAddress);
+                newPlayer.setResumeToken(newResumeToken());
                 room.addPlayer(newPlayer);
             }
-            room.updateActivity();
+            room.updateActivity(clock.millis());
+            matchmaking.redeem(room, held);
+            matchmaking.update(room);
             return room;
         }
-        return null;
     }
     
     public GameRoom joinRoom(String roomId, String playerName, String sessionId) {
         return joinRoom(roomId, playerName, sessionId, null);
     }
+    
+    // Reattach a dropped player to a new socket session; returns null if the token is unknown
+    public Player resumeSession(String roomId, String resumeToken, String sessionId, String ipAddress) {
+        GameRoom room = getLoadedRoom(roomId);
+        if (room == null) return null;
+
+        synchronized (room) {
+            if (rooms.get(roomId) != room) return null;
+            Player player = findPlayerByResumeToken(room, resumeToken);
+            if (player == null) return null;
 
+            rebindSession(room, player, sessionId, ipAddress);
+            return player;
+        }
+    }
+    
+    // Keep the player's seat and score while the client has a chance to reconnect
+    public GameRoom markDisconnected(String sessionId) {
+        GameRoom room = findRoomBySessionId(sessionId);
+        if (room == null) return null;
+        
+        Player player = room.getPlayerBySessionId(sessionId);
+        if (player == null) return null;
+        
+        player.setConnected(false);
+        player.setDisconnectedAt(clock.millis());
+        analytics.disconnected(room, sessionId);
+        return room;
+    }
+    
+    public List<Player> removeExpiredPlayers(GameRoom room, long graceMs) {
+        List<Player> expired = new ArrayList<>();
+        long now = clock.millis();
+        for (Player player : room.getPlayers()) {
+            if (!player.isConnected() && now - player.getDisconnectedAt() > graceMs) {
+                expired.add(player);
+            }
+        }
+        for (Player player : expired) {
+            removePlayerFromRoom(room.getRoomId(), player.getSessionId());
+        }
+        return expired;
+    }
+    
+    private int countPlayersFromIp(GameRoom room, String ipAddress) {
+        if (ipAddress == null) return 0;
+        int count = 0;
+        for (Player p : room.getPlayers()) {
+            if (ipAddress.equals(p.getIpAddress())) count++;
+        }
+        return count;
+    }
+    
+    private Player findPlayerByResumeToken(GameRoom room, String resumeToken) {
+        if (resumeToken == null) return null;
+        return room.getPlayers().stream()
+                .filter(p -> resumeToken.equals(p.getResumeToken()))
+                .findFirst()
+                .orElse(null);
+    }
+    
+    private void rebindSession(GameRoom room, Player player, String sessionId, String ipAddress) {
+        String oldSessionId = player.getSessionId();
+        player.setSessionId(sessionId);
+        if (ipAddress != null) {
+            player.setIpAddress(ipAddress);
+        }
+        player.setConnected(true);
+        player.setDisconnectedAt(0);
+        player.setResumeToken(newResumeToken()); // single use, a leaked token can't be replayed
+        
+        // Guess and vote flags are keyed by slot, so only the drawer id needs moving
+        if (oldSessionId.equals(room.getCurrentDrawerSessionId())) {
+            room.setCurrentDrawerSessionId(sessionId);
+        }
+        room.updateActivity(clock.millis());
+    }
+    
+    private String newResumeToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    // Falls back to the hibernation store, so a parked lobby comes back on first lookup
     public GameRoom getRoom(String roomId) {
-        return rooms.get(roomId);
+        if (roomId == null) return null;
+        GameRoom room = rooms.get(roomId);
+        if (room != null || !hibernationStore.isEnabled()) {
+            return room;
+        }
+        // Read outside the map, so a slow disk holds up this lookup and not every room in the same bin
+        GameRoom thawed = hibernationStore.thaw(roomId);
+        if (thawed == null) {
+            return rooms.get(roomId);
+        }
+        thawed.updateActivity(clock.millis());
+        // Under the room lock, so retireRoom can't park it again before the old file is gone
+        synchronized (thawed) {
+            GameRoom current = rooms.putIfAbsent(roomId, thawed);
+            if (current != null) {
+                return current; // thawed by a concurrent lookup
+            }
+            hibernationStore.discard(roomId);
+        }
+        RoomLifecycleEvent.commit(roomId, RoomLifecycleEvent.THAWED, thawed.getPlayerCount());
+        return thawed;
     }
 
+    // Rooms already in play are listed too; the lobby shows their live thumbnail
     public Collection<GameRoom> getAllPublicRooms() {
         return rooms.values().stream()
-                .filter(room -> !room.isPrivate() && !room.isGameRunning() && !room.isGameOver() && !room.getPlayers().isEmpty())
+                .filter(room -> !room.isPrivate() && !room.isGameOver() && room.getPlayerCount() > 0)
                 .toList();
     }
+
+    // Records player activity against the game clock
+    public void touch(GameRoom room) {
+        room.updateActivity(clock.millis());
+    }
+
+    // False once the room has been retired, including when RoomPool has since handed the same object out
+    // under another id; callers holding a looked-up room check it under the room lock before writing
+    public boolean isLive(String roomId, GameRoom room) {
+        return roomId != null && rooms.get(roomId) == room;
+    }
+
+    // The generation to send under (RoomBroadcaster) for a room looked up as roomId, or NOT_LIVE once it
+    // is no longer registered there. Read before the check: a recycle in between leaves the caller with
+    // the old game's generation, whose sends are dropped, never with the next game's
+    public long liveGeneration(String roomId, GameRoom room) {
+        if (room == null) return NOT_LIVE;
+        long generation = room.getGeneration();
+        return isLive(roomId, room) ? generation : NOT_LIVE;
+    }
+
+    // Same for a room reached some other way (getAllRooms, by session); its current id is the one checked
+    public long liveGeneration(GameRoom room) {
+        String roomId;
+        long generation;
+        synchronized (room) {
+            roomId = room.getRoomId();
+            generation = room.getGeneration();
+        }
+        return isLive(roomId, room) ? generation : NOT_LIVE;
+    }
+
+    // Unlike getRoom, never thaws a hibernated room
+    public GameRoom getLoadedRoom(String roomId) {
+        return roomId == null ? null : rooms.get(roomId);
+    }
     
     public Collection<GameRoom> getAllRooms() {
         return rooms.values();
@@ -145,7 +395,7 @@ public class GameService {
     // Find room by player session ID
     public GameRoom findRoomBySessionId(String sessionId) {
         for (GameRoom room : rooms.values()) {
-            if (room.getPlayers().stream().anyMatch(p -> p.getSessionId().equals(sessionId))) {
+            if (room.getPlayerBySessionId(sessionId) != null) {
                 return room;
             }
         }
@@ -156,11 +406,9 @@ public class GameService {
     public boolean removePlayerFromRoom(String roomId, String sessionId) {
         GameRoom room = rooms.get(roomId);
         if (room != null) {
-            Player toRemove = room.getPlayerBySessionId(sessionId);
-            if (toRemove != null) {
-                room.getPlayers().remove(toRemove);
-                return true;
-            }
+            boolean removed = room.removePlayer(sessionId);
+            matchmaking.update(room);
+            return removed;
         }
         return false;
     }
@@ -169,12 +417,13 @@ public class GameService {
     public void handleDrawerDisconnect(GameRoom room) {
         if (room == null || !room.isGameRunning()) return;
         
-        if (room.getPlayers().isEmpty()) {
+        int connected = room.getConnectedPlayerCount();
+        if (connected == 0) {
             room.setGameRunning(false);
             return;
         }
         
-        if (room.getPlayers().size() == 1) {
+        if (connected == 1) {
             endGame(room);
             return;
         }
@@ -182,51 +431,89 @@ public class GameService {
         startNewRound(room);
     }
     
-    public void removeRoom(String roomId) {
-        rooms.remove(roomId);
+    // Private lobbies are parked on disk so friends can come back to them; everything else is dropped
+    public void retireRoom(GameRoom room) {
+        boolean hibernate;
+        boolean reusable;
+        // Under the room lock, so a join can't seat someone between the emptiness check and the removal
+        synchronized (room) {
+            if (rooms.get(room.getRoomId()) != room) return;
+            hibernate = room.isPrivate() && !room.isGameOver() && room.getConnectedPlayerCount() == 0;
+            if (hibernate) {
+                hibernationStore.hibernate(room);
+            }
+            rooms.remove(room.getRoomId(), room);
+            reusable = room.getPlayerCount() == 0;
+        }
+        matchmaking.remove(room);
+        RoomLifecycleEvent.commit(room.getRoomId(),
+                hibernate ? RoomLifecycleEvent.HIBERNATED : RoomLifecycleEvent.RETIRED, room.getPlayerCount());
+        thumbnailService.discard(room.getRoomId());
+        latencyRecorder.discard(room.getRoomId());
+        stateWatch.discard(room.getRoomId());
+        drawIngress.forget(room.getRoomId());
+        // A room that still has seated players may still be played in by them; it's left to the GC
+        if (reusable) roomPool.release(room);
+    }
+
+    // A finished game goes back to the lobby in place, so nobody has to re-join or re-subscribe
+    public boolean rematch(GameRoom room) {
+        synchronized (room) {
+            if (!room.isGameOver() || room.isGameRunning()) return false;
+            room.resetForRematch(clock.millis());
+        }
+        RoomLifecycleEvent.commit(room.getRoomId(), RoomLifecycleEvent.REMATCH, room.getPlayerCount());
+        drawIngress.forget(room.getRoomId());
+        matchmaking.update(room);
+        return true;
     }
     
     public int cleanupInactiveRooms(long publicInactiveMs, long privateInactiveMs) {
-        List<String> roomsToRemove = new ArrayList<>();
+        List<GameRoom> roomsToRemove = new ArrayList<>();
         
         for (GameRoom room : rooms.values()) {
             long threshold = room.isPrivate() ? privateInactiveMs : publicInactiveMs;
             
-            if ((room.isInactive(threshold) || room.getPlayers().isEmpty()) && !room.isGameRunning()) {
-                roomsToRemove.add(room.getRoomId());
+            boolean abandoned = room.getPlayerCount() == 0 && !matchmaking.hasReservations(room);
+            if ((room.isInactive(clock.millis(), threshold) || abandoned) && !room.isGameRunning()) {
+                roomsToRemove.add(room);
             }
         }
         
-        for (String roomId : roomsToRemove) {
-            removeRoom(roomId);
+        for (GameRoom room : roomsToRemove) {
+            retireRoom(room);
         }
         
         return roomsToRemove.size();
     }
+    
+    public int purgeHibernatedRooms(long ttlMs) {
+        return hibernationStore.purgeExpired(ttlMs);
+    }
 
     public void startNewRound(GameRoom room) {
-        List<Player> players = room.getPlayers();
-        if (players.isEmpty()) return;
+        if (room.getPlayerCount() == 0) return;
 
-        room.setDrawerIndex(room.getDrawerIndex() + 1);
-
-        // Handle case where drawerIndex is out of bounds (e.g. player left or joined)
-        if (room.getDrawerIndex() >= players.size()) {
-            room.setDrawerIndex(0);
+        // Drawer rotation walks the player slots, skipping players inside their reconnect grace period
+        int nextSlot = room.findDrawerSlot(room.getDrawerIndex() + 1);
+        if (nextSlot < 0) {
             room.setCurrentRound(room.getCurrentRound() + 1);
+            nextSlot = room.findDrawerSlot(0);
         }
         
-        // Double check index validity after reset
-        if (room.getDrawerIndex() >= players.size()) {
-             room.setDrawerIndex(0);
+        // Nobody connected: fall back to any seated player so the round still resolves
+        if (nextSlot < 0) {
+            nextSlot = room.findOccupiedSlot(0);
         }
+        room.setDrawerIndex(nextSlot);
+        logStrokeCompression(room);
 
         if (room.isGameOver()) {
             endGame(room);
             return;
         }
 
-        room.resetRoundData();
+        room.resetRoundData(clock.millis());
         room.setGameRunning(true);
         room.setRoundTime(15); // 15 seconds to choose a word
 
@@ -235,16 +522,14 @@ public class GameService {
         
         if (room.getCustomWords() != null && !room.getCustomWords().isEmpty()) {
             List<String> customList = new ArrayList<>(room.getCustomWords());
-            Random rand = new Random();
             for (int i = 0; i < Math.min(numChoices, customList.size()); i++) {
-                int idx = rand.nextInt(customList.size());
+                int idx = random.nextInt(customList.size());
                 choices.add(customList.remove(idx));
             }
         } else {
             List<String> wordList = getWordListForLanguage(room.getLanguage());
-            Random rand = new Random();
             for (int i = 0; i < numChoices; i++) {
-                choices.add(wordList.get(rand.nextInt(wordList.size())));
+                choices.add(wordList.get(random.nextInt(wordList.size())));
             }
         }
         
@@ -254,33 +539,41 @@ public class GameService {
 
         calculateHintTimes(room);
 
-        Player drawer = players.get(room.getDrawerIndex());
+        Player drawer = room.getPlayerInSlot(room.getDrawerIndex());
         room.setCurrentDrawerSessionId(drawer.getSessionId());
+        analytics.roundStarted(room);
     }
     
     public void endGame(GameRoom room) {
         room.setGameRunning(false);
         room.setCurrentWord("GAME OVER");
         room.setCurrentDrawerSessionId(null);
+        matchmaking.update(room);
+        leaderboardService.recordGame(room.getPlayers());
     }
 
     public boolean processGuess(String roomId, String guess, String senderSessionId) {
+        GuessEvent event = new GuessEvent();
+        event.begin();
+        event.roomId = roomId;
+
         GameRoom room = rooms.get(roomId);
-        if (room == null || !room.isGameRunning()) return false;
+        if (room == null || !room.isGameRunning()) return guessOutcome(event, GuessEvent.NOT_RUNNING, false);
         
         // Ensure player is actually in the room (prevents ghost players)
-        if (room.getPlayerBySessionId(senderSessionId) == null) return false;
+        if (room.getPlayerBySessionId(senderSessionId) == null) return guessOutcome(event, GuessEvent.NOT_IN_ROOM, false);
         
-        if (senderSessionId.equals(room.getCurrentDrawerSessionId())) return false; // Drawer cannot guess
-        if (room.getPlayersWhoGuessedCorrectly().contains(senderSessionId)) return false; // Already guessed
+        if (senderSessionId.equals(room.getCurrentDrawerSessionId())) return guessOutcome(event, GuessEvent.DRAWER, false); // Drawer cannot guess
+        if (room.hasGuessedCorrectly(senderSessionId)) return guessOutcome(event, GuessEvent.ALREADY_GUESSED, false); // Already guessed
 
         boolean isCorrect = room.getCurrentWord() != null && room.getCurrentWord().equalsIgnoreCase(guess.trim());
+        event.elapsedSeconds = room.getDrawingTime() - room.getRoundTime();
         
         if (isCorrect) {
-            room.getPlayersWhoGuessedCorrectly().add(senderSessionId);
+            room.markGuessedCorrectly(senderSessionId);
             
             int timeElapsed = room.getDrawingTime() - room.getRoundTime();
-            int points = calculatePoints(timeElapsed, room.getPlayersWhoGuessedCorrectly().size(), room.getScoringMode(), room.getDrawingTime());
+            int points = calculatePoints(timeElapsed, room.getCorrectGuessCount(), room.getScoringMode(), room.getDrawingTime());
             
             Player guesser = room.getPlayerBySessionId(senderSessionId);
             if (guesser != null) {
@@ -292,28 +585,36 @@ public class GameService {
                 drawer.setScore(drawer.getScore() + 10);
             }
         }
+        if (room.isWordChosen()) analytics.guessed(room, senderSessionId, isCorrect);
         
-        return isCorrect;
+        return guessOutcome(event, isCorrect ? GuessEvent.CORRECT : GuessEvent.WRONG, isCorrect);
+    }
+
+    private static boolean guessOutcome(GuessEvent event, String outcome, boolean result) {
+        event.outcome = outcome;
+        event.commit();
+        return result;
     }
     
     private void calculateHintTimes(GameRoom room) {
         int drawTime = room.getDrawingTime();
-        List<Integer> hintTimes = new ArrayList<>();
         
         int numHints = Math.max(2, Math.min(5, drawTime / 30));
         int startBuffer = 15;
         int availableTime = drawTime - startBuffer;
         int interval = availableTime / (numHints + 1);
         
+        // Already descending since interval * i grows with i
+        int[] hintTimes = new int[numHints];
+        int count = 0;
         for (int i = 1; i <= numHints; i++) {
             int hintTime = drawTime - (startBuffer + (interval * i));
             if (hintTime > 0) {
-                hintTimes.add(hintTime);
+                hintTimes[count++] = hintTime;
             }
         }
         
-        hintTimes.sort((a, b) -> Integer.compare(b, a));
-        room.setHintTimes(hintTimes);
+        room.setHintTimes(count == numHints ? hintTimes : Arrays.copyOf(hintTimes, count));
     }
     
     public boolean chooseWord(String roomId, String sessionId, String chosenWord) {
@@ -324,13 +625,26 @@ public class GameService {
         if (!room.getWordChoices().contains(chosenWord)) return false;
         
         room.setCurrentWord(chosenWord);
+        room.setAnswerFilter(chatFilterService.buildAnswerFilter(chosenWord));
         room.setWordChosen(true);
         room.setRoundTime(room.getDrawingTime()); // Start the drawing timer
-        room.getWordChoices().clear();
+        room.setWordChoices(null);
+        analytics.wordChosen(room);
         
         return true;
     }
     
+    private void logStrokeCompression(GameRoom room) {
+        if (!log.isDebugEnabled()) return;
+        StrokeHistory strokes = room.getStrokes();
+        if (strokes == null || strokes.getRawPointCount() == 0) return;
+
+        int raw = strokes.getRawPointCount();
+        int stored = strokes.getStoredPointCount();
+        log.debug("Room {}: {} stroke points stored as {} ({}x)",
+                room.getRoomId(), raw, stored, String.format("%.1f", raw / (double) Math.max(1, stored)));
+    }
+
     private int calculatePoints(int timeElapsed, int guessPosition, String scoringMode, int maxTime) {
         int basePoints = 50;
         int timeBonus = Math.max(0, (maxTime - timeElapsed) * 2);
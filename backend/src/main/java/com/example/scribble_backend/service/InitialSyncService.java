@@ -0,0 +1,218 @@
+package com.example.scribble_backend.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.Player;
+import com.example.scribble_backend.model.RoomMessageLog;
+
+import jakarta.annotation.PostConstruct;
+
+// A joining client subscribes only after it sent /app/join, so its first snapshot is held here until
+// the subscriptions show up. The snapshot then goes straight down that session's outbound channel,
+// addressed to its subscription id, so it can't race the broker registering the subscription.
+// A resuming client goes through the same path, with the messages it missed instead of the canvas.
+@Service
+public class InitialSyncService {
+
+    public static final String STATE_QUEUE = "/user/queue/state";
+    public static final String DRAW_QUEUE = "/user/queue/draw";
+    public static final String REPLAY_QUEUE = "/user/queue/replay";
+    public static final String SESSION_QUEUE = "/user/queue/session";
+
+    private static final long NO_RESUME = -1;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private RoomBroadcaster broadcaster;
+
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel clientOutboundChannel;
+
+    @Autowired
+    @Qualifier("brokerMessageConverter")
+    private MessageConverter messageConverter;
+
+    // Clients that never subscribe to the state queue still get the snapshot over the room topic
+    @Value("${app.session.initial-sync-timeout-ms:3000}")
+    private long syncTimeoutMs;
+
+    private SimpMessagingTemplate sessionTemplate;
+
+    // sessionId -> destination -> subscription id, only for the queues a snapshot goes to
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, PendingSync> pending = new ConcurrentHashMap<>();
+
+    // resumeAfter is the last seq a resuming client saw, NO_RESUME for a fresh join
+    private record PendingSync(String roomId, boolean withCanvas, long resumeAfter, long deadline) {
+
+        boolean isResume() {
+            return resumeAfter != NO_RESUME;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        sessionTemplate = new SimpMessagingTemplate(clientOutboundChannel);
+        sessionTemplate.setMessageConverter(messageConverter);
+    }
+
+    public void requestSync(String sessionId, String roomId, boolean withCanvas) {
+        pending.put(sessionId, new PendingSync(roomId, withCanvas, NO_RESUME, System.currentTimeMillis() + syncTimeoutMs));
+        tryDeliver(sessionId);
+    }
+
+    // The gap is read from the room's message log when the snapshot goes out, not now
+    public void requestResume(String sessionId, String roomId, long lastSeq) {
+        pending.put(sessionId, new PendingSync(roomId, false, Math.max(0, lastSeq), System.currentTimeMillis() + syncTimeoutMs));
+        tryDeliver(sessionId);
+    }
+
+    public void onSubscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null) return;
+        if (!STATE_QUEUE.equals(destination) && !DRAW_QUEUE.equals(destination)
+                && !REPLAY_QUEUE.equals(destination) && !SESSION_QUEUE.equals(destination)) return;
+
+        subscriptions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(destination, subscriptionId);
+        tryDeliver(sessionId);
+    }
+
+    public void onUnsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> subs = subscriptions.get(sessionId);
+        if (subs != null && subscriptionId != null) {
+            subs.values().remove(subscriptionId);
+        }
+    }
+
+    public void forget(String sessionId) {
+        subscriptions.remove(sessionId);
+        pending.remove(sessionId);
+    }
+
+    // Falls back to the pre-handshake behaviour for sessions that didn't subscribe in time
+    public int expireStale() {
+        if (pending.isEmpty()) return 0;
+
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        for (Map.Entry<String, PendingSync> entry : pending.entrySet()) {
+            PendingSync sync = entry.getValue();
+            if (sync.deadline() > now || !pending.remove(entry.getKey(), sync)) continue;
+
+            GameRoom room = gameService.getLoadedRoom(sync.roomId());
+            if (room != null && sync.isResume()) {
+                String sessionId = entry.getKey();
+                long seq = deliverGap(room, sync.resumeAfter(),
+                        canvas -> broadcaster.sendToSession(sessionId, "draw", canvas),
+                        missed -> broadcaster.sendToSession(sessionId, "replay", missed));
+                broadcaster.sendToSession(sessionId, "state", room);
+                sendSessionInfo(room, sessionId, seq, info -> broadcaster.sendToSession(sessionId, "session", info));
+            } else if (room != null) {
+                if (sync.withCanvas()) {
+                    broadcaster.sendToSession(entry.getKey(), "draw", room.getDrawHistory());
+                }
+                broadcaster.send(room, gameService.liveGeneration(sync.roomId(), room), "state", room);
+                sendSessionInfo(room, entry.getKey(), room.getMessageLog().getLastSeq(),
+                        info -> broadcaster.sendToSession(entry.getKey(), "session", info));
+            }
+            expired++;
+        }
+        return expired;
+    }
+
+    // seq is the last room message the client has been sent, live or replayed; it resumes after it next time
+    private void sendSessionInfo(GameRoom room, String sessionId, long seq, Consumer<Map<String, Object>> send) {
+        Player player = room.getPlayerBySessionId(sessionId);
+        if (player == null) return;
+
+        Map<String, Object> info = new HashMap<>();
+        info.put("roomId", room.getRoomId());
+        info.put("resumeToken", player.getResumeToken());
+        info.put("seq", seq);
+        send.accept(info);
+    }
+
+    // Sends what came after afterSeq, or the whole canvas if the log no longer reaches back that far.
+    // Returns the seq the client is caught up to.
+    private long deliverGap(GameRoom room, long afterSeq, Consumer<List<DrawMessage>> sendCanvas,
+                            Consumer<RoomMessageLog.Entry> sendMissed) {
+        List<RoomMessageLog.Entry> missed = room.getMessageLog().since(afterSeq);
+        if (missed == null) {
+            // Chat in the gap is lost, but the canvas is rebuilt from scratch
+            long seq = room.getMessageLog().getLastSeq();
+            sendCanvas.accept(room.getDrawHistory());
+            return seq;
+        }
+        for (RoomMessageLog.Entry entry : missed) {
+            // State is a snapshot, the one sent after the replay supersedes any missed copies
+            if (!RoomBroadcaster.STATE_CHANNEL.equals(entry.channel())) {
+                sendMissed.accept(entry);
+            }
+        }
+        return afterSeq + missed.size();
+    }
+
+    private void tryDeliver(String sessionId) {
+        PendingSync sync = pending.get(sessionId);
+        Map<String, String> subs = subscriptions.get(sessionId);
+        if (sync == null || subs == null) return;
+
+        String stateSub = subs.get(STATE_QUEUE);
+        String drawSub = subs.get(DRAW_QUEUE);
+        String replaySub = subs.get(REPLAY_QUEUE);
+        String sessionSub = subs.get(SESSION_QUEUE);
+        if (stateSub == null || sessionSub == null || (sync.withCanvas() && drawSub == null)) return;
+        if (sync.isResume() && (drawSub == null || replaySub == null)) return;
+
+        // Join and subscribe can land on different inbound threads; only one of them delivers
+        if (!pending.remove(sessionId, sync)) return;
+
+        GameRoom room = gameService.getLoadedRoom(sync.roomId());
+        if (room == null || room.getPlayerBySessionId(sessionId) == null) return;
+
+        if (sync.isResume()) {
+            long seq = deliverGap(room, sync.resumeAfter(),
+                    canvas -> sendToSubscription(sessionId, drawSub, DRAW_QUEUE, canvas),
+                    missed -> sendToSubscription(sessionId, replaySub, REPLAY_QUEUE, missed));
+            sendToSubscription(sessionId, stateSub, STATE_QUEUE, room);
+            sendSessionInfo(room, sessionId, seq, info -> sendToSubscription(sessionId, sessionSub, SESSION_QUEUE, info));
+            return;
+        }
+
+        if (sync.withCanvas()) {
+            List<DrawMessage> canvas = room.getDrawHistory();
+            if (!canvas.isEmpty()) {
+                sendToSubscription(sessionId, drawSub, DRAW_QUEUE, canvas);
+            }
+        }
+        long seq = room.getMessageLog().getLastSeq();
+        sendToSubscription(sessionId, stateSub, STATE_QUEUE, room);
+        sendSessionInfo(room, sessionId, seq, info -> sendToSubscription(sessionId, sessionSub, SESSION_QUEUE, info));
+    }
+
+    private void sendToSubscription(String sessionId, String subscriptionId, String destination, Object payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setLeaveMutable(true);
+        sessionTemplate.convertAndSend(destination, payload, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.scribble_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Per-stage delivery latency, kept globally and per room in HDR histograms (microsecond resolution)
+@Service
+public class LatencyRecorder {
+
+    // Server-side stages, measured from the moment the inbound message reached the handler
+    public static final String DRAW_DISPATCH = "draw.ingress-to-dispatch";
+    public static final String CHAT_DISPATCH = "chat.ingress-to-dispatch";
+    public static final String GUESS_CORRECT = "guess.ingress-to-correct";
+    // Client send time to server ingress; only meaningful when client clocks are roughly in sync
+    public static final String DRAW_CLIENT = "draw.client-to-ingress";
+    public static final String CHAT_CLIENT = "chat.client-to-ingress";
+
+    private static final long HIGHEST_MICROS = 60_000_000L;
+    private static final long MAX_CLIENT_SKEW_MS = 60_000L;
+
+    @Value("${app.latency.enabled:true}")
+    private boolean enabled;
+
+    private final Map<String, ConcurrentHistogram> global = new ConcurrentHashMap<>();
+    // Rooms get coarser histograms (2 significant digits) to keep thousands of them cheap
+    private final Map<String, Map<String, ConcurrentHistogram>> byRoom = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordSince(String roomId, String stage, long startNanos) {
+        if (!enabled) return;
+        record(roomId, stage, (System.nanoTime() - startNanos) / 1000);
+    }
+
+    // clientTs and serverTs are epoch millis; negative or wildly large gaps are clock skew, not latency
+    public void recordClientLeg(String roomId, String stage, Long clientTs, long serverTs) {
+        if (!enabled || clientTs == null) return;
+        long deltaMs = serverTs - clientTs;
+        if (deltaMs < 0 || deltaMs > MAX_CLIENT_SKEW_MS) return;
+        record(roomId, stage, deltaMs * 1000);
+    }
+
+    public void discard(String roomId) {
+        byRoom.remove(roomId);
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        return summarize(global);
+    }
+
+    public Map<String, Map<String, Object>> snapshot(String roomId) {
+        Map<String, ConcurrentHistogram> room = byRoom.get(roomId);
+        return room == null ? null : summarize(room);
+    }
+
+    public void reset() {
+        global.values().forEach(AbstractHistogram::reset);
+        byRoom.clear();
+    }
+
+    private void record(String roomId, String stage, long micros) {
+        long value = Math.max(0, Math.min(HIGHEST_MICROS, micros));
+        global.computeIfAbsent(stage, s -> new ConcurrentHistogram(HIGHEST_MICROS, 3)).recordValue(value);
+        if (roomId != null) {
+            byRoom.computeIfAbsent(roomId, id -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(stage, s -> new ConcurrentHistogram(HIGHEST_MICROS, 2))
+                    .recordValue(value);
+        }
+    }
+
+    private Map<String, Map<String, Object>> summarize(Map<String, ConcurrentHistogram> histograms) {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        histograms.forEach((stage, histogram) -> {
+            AbstractHistogram copy = histogram.copy(); // consistent view while recording continues
+            if (copy.getTotalCount() == 0) return;
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", copy.getTotalCount());
+            summary.put("p50Ms", millis(copy.getValueAtPercentile(50)));
+            summary.put("p90Ms", millis(copy.getValueAtPercentile(90)));
+            summary.put("p99Ms", millis(copy.getValueAtPercentile(99)));
+            summary.put("p999Ms", millis(copy.getValueAtPercentile(99.9)));
+            summary.put("maxMs", millis(copy.getMaxValue()));
+            summary.put("meanMs", Math.round(copy.getMean()) / 1000.0);
+            result.put(stage, summary);
+        });
+        return result;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
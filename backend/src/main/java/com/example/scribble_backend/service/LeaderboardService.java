@@ -0,0 +1,256 @@
+package com.example.scribble_backend.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.LeaderboardEntry;
+import com.example.scribble_backend.model.Player;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Totals are keyed by display name. There are no accounts, so the board is unauthenticated: anyone
+// who plays under a name adds to that name's total.
+@Service
+public class LeaderboardService {
+
+    private final Map<String, LeaderboardEntry> totals = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<LeaderboardEntry> ranking = new ConcurrentSkipListSet<>(LeaderboardEntry.RANKING);
+
+    // Score deltas waiting to be appended to the store by flush()
+    private final ConcurrentLinkedQueue<LeaderboardEntry> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    // Pages and ranks are read from an immutable copy of the ranking, rebuilt at most once per
+    // refresh interval after a change; readers never wait on a rebuild, they use the previous copy
+    private record RankSnapshot(LeaderboardEntry[] ordered, Map<String, Integer> positions, long version) {}
+
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile RankSnapshot snapshot = new RankSnapshot(new LeaderboardEntry[0], Map.of(), 0);
+    private volatile long nextRebuildAt = System.nanoTime();
+
+    @Value("${app.leaderboard.file:data/leaderboard.tsv}")
+    private String storeFile;
+
+    @Value("${app.leaderboard.max-batch:5000}")
+    private int maxBatch;
+
+    @Value("${app.leaderboard.rank-refresh-ms:1000}")
+    private long rankRefreshMs;
+
+    @PostConstruct
+    public void load() {
+        Path path = Path.of(storeFile);
+        if (!Files.exists(path)) return;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t");
+                if (parts.length != 3) continue;
+                try {
+                    apply(parts[0], Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+                } catch (NumberFormatException e) {
+                    // Skip torn lines from a crash mid-append
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[Leaderboard] Failed to load " + storeFile + ": " + e.getMessage());
+            return;
+        }
+
+        // Collapse the delta log into one line per player
+        compact(path);
+        rebuildSnapshot();
+        System.out.println("[Leaderboard] Loaded " + totals.size() + " players");
+    }
+
+    // Called from game threads: only touches in-memory structures and the write queue
+    public void recordGame(Collection<Player> players) {
+        for (Player player : players) {
+            String username = normalize(player.getUsername());
+            if (username == null) continue;
+
+            apply(username, player.getScore(), 1);
+            pendingWrites.offer(new LeaderboardEntry(username, player.getScore(), 1));
+        }
+    }
+
+    public List<LeaderboardEntry> getTopPage(int page, int size) {
+        LeaderboardEntry[] ordered = currentSnapshot().ordered();
+        long from = (long) page * size;
+        if (from >= ordered.length) return List.of();
+        return List.of(ordered).subList((int) from, (int) Math.min(ordered.length, from + size));
+    }
+
+    public LeaderboardEntry getEntry(String username) {
+        String key = normalize(username);
+        return key == null ? null : totals.get(key);
+    }
+
+    // 1-based rank as of the current snapshot, or -1 if the player isn't in it yet
+    public int getRank(String username) {
+        String key = normalize(username);
+        if (key == null) return -1;
+        Integer position = currentSnapshot().positions().get(key);
+        return position == null ? -1 : position + 1;
+    }
+
+    public int getPlayerCount() {
+        return totals.size();
+    }
+
+    public int flush() {
+        if (pendingWrites.isEmpty()) return 0;
+
+        // Merge the batch per player so a busy player costs one line, not one per game
+        Map<String, LeaderboardEntry> batch = new LinkedHashMap<>();
+        LeaderboardEntry delta;
+        int drained = 0;
+        while (drained < maxBatch && (delta = pendingWrites.poll()) != null) {
+            batch.merge(delta.username(), delta, (a, b) -> a.plus(b.score(), b.gamesPlayed()));
+            drained++;
+        }
+
+        StringWriter lines = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(lines)) {
+            for (LeaderboardEntry entry : batch.values()) {
+                writeLine(writer, entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory writer
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        Path path = Path.of(storeFile);
+        try {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long start = channel.size();
+                try {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                } catch (IOException e) {
+                    // Cut the partial batch back off, so a retry can't count the lines that got through twice
+                    channel.truncate(start);
+                    bytes.rewind();
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            // Only a batch with nothing of it left in the file is retried; one that couldn't be cut back
+            // off is dropped rather than counted twice
+            if (bytes.position() == 0) {
+                pendingWrites.addAll(batch.values());
+                System.err.println("[Leaderboard] Flush failed, will retry: " + e.getMessage());
+            } else {
+                System.err.println("[Leaderboard] Flush failed, dropped a partly written batch: " + e.getMessage());
+            }
+            return 0;
+        }
+        return drained;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        while (flush() > 0) {
+            // Drain everything before the JVM exits
+        }
+    }
+
+    private void apply(String username, long points, int games) {
+        totals.compute(username, (key, current) -> {
+            LeaderboardEntry updated = current == null
+                    ? new LeaderboardEntry(key, points, games)
+                    : current.plus(points, games);
+            if (current != null) ranking.remove(current);
+            ranking.add(updated);
+            return updated;
+        });
+        version.incrementAndGet();
+    }
+
+    private RankSnapshot currentSnapshot() {
+        RankSnapshot current = snapshot;
+        if (current.version() == version.get()) return current;
+        if (System.nanoTime() - nextRebuildAt < 0) return current;
+        // Whoever loses the race keeps serving the previous snapshot
+        if (!rebuildLock.tryLock()) return current;
+        try {
+            if (snapshot == current) rebuildSnapshot();
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // The skip list is already in rank order, so a rebuild is one O(n) walk. A player being updated
+    // mid-walk can show up under both the old and the new score; only the first one is kept.
+    private void rebuildSnapshot() {
+        long builtVersion = version.get();
+        List<LeaderboardEntry> ordered = new ArrayList<>(totals.size());
+        Map<String, Integer> positions = new HashMap<>(totals.size() * 2);
+        for (LeaderboardEntry entry : ranking) {
+            if (positions.putIfAbsent(entry.username(), ordered.size()) == null) {
+                ordered.add(entry);
+            }
+        }
+        snapshot = new RankSnapshot(ordered.toArray(new LeaderboardEntry[0]), positions, builtVersion);
+        nextRebuildAt = System.nanoTime() + rankRefreshMs * 1_000_000L;
+    }
+
+    private void compact(Path path) {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (LeaderboardEntry entry : totals.values()) {
+                    writeLine(writer, entry);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[Leaderboard] Compaction failed: " + e.getMessage());
+        }
+    }
+
+    private void writeLine(BufferedWriter writer, LeaderboardEntry entry) throws IOException {
+        writer.write(entry.username());
+        writer.write('\t');
+        writer.write(Long.toString(entry.score()));
+        writer.write('\t');
+        writer.write(Integer.toString(entry.gamesPlayed()));
+        writer.newLine();
+    }
+
+    private String normalize(String username) {
+        if (username == null) return null;
+        String cleaned = username.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ').trim();
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.scribble_backend.service;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.GameRoom;
+
+// Index of public rooms that can take another player, one sorted set per language ordered by free
+// seats, so quick play finds the fullest room with space in O(log n). A quick-play seat is reserved
+// here before the player's socket joins; joins count other players' reservations as taken seats.
+// A reservation belongs to the username it was made for, and each client address may hold only a few.
+@Service
+public class MatchmakingService {
+
+    @Autowired
+    private Clock clock;
+
+    @Value("${app.matchmaking.reservation-ms:15000}")
+    private long reservationMs;
+
+    @Value("${app.matchmaking.max-reservations-per-ip:3}")
+    private int maxReservationsPerIp;
+
+    public record Reservation(String roomId, String token) {}
+
+    private record Slot(int free, String roomId, GameRoom room) implements Comparable<Slot> {
+        @Override
+        public int compareTo(Slot other) {
+            int byFree = Integer.compare(free, other.free);
+            return byFree != 0 ? byFree : roomId.compareTo(other.roomId);
+        }
+    }
+
+    // Rooms GameService currently holds; anything else (removed, replaced) is never filed again
+    private final Map<String, GameRoom> tracked = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentSkipListSet<Slot>> byLanguage = new ConcurrentHashMap<>();
+    // Where each room is currently filed, so an update can find and replace its old entry
+    private final Map<String, Slot> filed = new ConcurrentHashMap<>();
+    private final Map<String, Held> reservations = new ConcurrentHashMap<>();
+    private final Map<String, Object> creationLocks = new ConcurrentHashMap<>();
+    // Outstanding reservations per client address; entries are dropped when they reach zero
+    private final Map<String, AtomicInteger> heldByIp = new ConcurrentHashMap<>();
+
+    private record Hold(String username, String clientIp, long expiresAt) {}
+
+    // Reservation tokens for one room
+    private static final class Held {
+        final GameRoom room;
+        final Map<String, Hold> tokens = new ConcurrentHashMap<>();
+
+        Held(GameRoom room) {
+            this.room = room;
+        }
+    }
+
+    // Takes one of clientIp's reservation slots; false when it already holds the maximum
+    public boolean tryAcquireQuota(String clientIp) {
+        boolean[] admitted = new boolean[1];
+        heldByIp.compute(clientIp, (ip, count) -> {
+            if (count == null) count = new AtomicInteger();
+            if (count.get() < maxReservationsPerIp) {
+                count.incrementAndGet();
+                admitted[0] = true;
+            }
+            return count.get() == 0 ? null : count;
+        });
+        return admitted[0];
+    }
+
+    public void releaseQuota(String clientIp) {
+        heldByIp.computeIfPresent(clientIp, (ip, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    // Best fit: the fullest room that still has a seat. Entries can be stale by the time the room lock
+    // is taken, so each candidate is re-checked under it and refiled if it no longer fits
+    public Reservation reserve(String language, String username, String clientIp) {
+        ConcurrentSkipListSet<Slot> slots = byLanguage.get(language);
+        if (slots == null) return null;
+
+        for (Slot slot : slots) {
+            GameRoom room = slot.room();
+            synchronized (room) {
+                if (filed.get(room.getRoomId()) != slot) continue;
+                if (freeSeats(room, null) <= 0) {
+                    update(room);
+                    continue;
+                }
+                return hold(room, username, clientIp);
+            }
+        }
+        return null;
+    }
+
+    // Falls back to a new room from newRoom (null when new rooms aren't allowed). Creation is serialized
+    // per language, so a burst of players arriving at an empty pool fills one room instead of opening many
+    public Reservation reserveOrCreate(String language, String username, String clientIp, Supplier<GameRoom> newRoom) {
+        Reservation reservation = reserve(language, username, clientIp);
+        if (reservation != null || newRoom == null) return reservation;
+
+        synchronized (creationLocks.computeIfAbsent(language, l -> new Object())) {
+            reservation = reserve(language, username, clientIp);
+            if (reservation != null) return reservation;
+            GameRoom room = newRoom.get();
+            synchronized (room) {
+                return hold(room, username, clientIp);
+            }
+        }
+    }
+
+    // Seats left for a joiner holding token (null for none); everyone else's live reservations are taken seats
+    public int freeSeats(GameRoom room, String token) {
+        synchronized (room) {
+            int capacity = Math.min(room.getMaxPlayers(), GameRoom.MAX_SLOTS);
+            return capacity - room.getPlayerCount() - activeReservations(room.getRoomId(), token);
+        }
+    }
+
+    // token if it is a live reservation in room made for username, otherwise null
+    public String reservedFor(GameRoom room, String token, String username) {
+        if (token == null) return null;
+        Held held = reservations.get(room.getRoomId());
+        Hold hold = held == null ? null : held.tokens.get(token);
+        if (hold == null || hold.expiresAt() <= clock.millis() || !hold.username().equals(username)) return null;
+        return token;
+    }
+
+    // Called once the player holding token has taken the seat
+    public void redeem(GameRoom room, String token) {
+        if (token == null) return;
+        Held held = reservations.get(room.getRoomId());
+        if (held == null) return;
+        Hold hold = held.tokens.remove(token);
+        if (hold == null) return;
+        releaseQuota(hold.clientIp());
+        if (held.tokens.isEmpty()) {
+            reservations.remove(room.getRoomId(), held);
+        }
+    }
+
+    public boolean hasReservations(GameRoom room) {
+        return activeReservations(room.getRoomId(), null) > 0;
+    }
+
+    public void track(GameRoom room) {
+        tracked.put(room.getRoomId(), room);
+        update(room);
+    }
+
+    // Refiles the room under its current free-seat count, or drops it if it can't take anyone
+    public void update(GameRoom room) {
+        synchronized (room) {
+            String roomId = room.getRoomId();
+            if (tracked.get(roomId) != room) return;
+            int free = room.isPrivate() || room.isGameOver() ? 0 : freeSeats(room, null);
+            Slot previous = filed.get(roomId);
+            if (previous != null && previous.free() == free) return;
+
+            if (previous != null) {
+                ConcurrentSkipListSet<Slot> old = byLanguage.get(room.getLanguage());
+                if (old != null) old.remove(previous);
+            }
+            if (free <= 0) {
+                filed.remove(roomId);
+                return;
+            }
+            Slot slot = new Slot(free, roomId, room);
+            byLanguage.computeIfAbsent(room.getLanguage(), l -> new ConcurrentSkipListSet<>()).add(slot);
+            filed.put(roomId, slot);
+        }
+    }
+
+    public void remove(GameRoom room) {
+        synchronized (room) {
+            if (!tracked.remove(room.getRoomId(), room)) return;
+            Slot previous = filed.remove(room.getRoomId());
+            if (previous != null) {
+                ConcurrentSkipListSet<Slot> slots = byLanguage.get(previous.room().getLanguage());
+                if (slots != null) slots.remove(previous);
+            }
+            Held held = reservations.remove(room.getRoomId());
+            if (held != null) {
+                held.tokens.forEach((token, hold) -> {
+                    if (held.tokens.remove(token, hold)) releaseQuota(hold.clientIp());
+                });
+            }
+        }
+    }
+
+    // Players who reserved and never joined give their seat back
+    public int expireReservations() {
+        long now = clock.millis();
+        int expired = 0;
+        for (Held held : reservations.values()) {
+            int before = expired;
+            for (Map.Entry<String, Hold> entry : held.tokens.entrySet()) {
+                if (entry.getValue().expiresAt() <= now && held.tokens.remove(entry.getKey(), entry.getValue())) {
+                    releaseQuota(entry.getValue().clientIp());
+                    expired++;
+                }
+            }
+            if (expired == before) continue;
+            if (held.tokens.isEmpty()) {
+                reservations.remove(held.room.getRoomId(), held);
+            }
+            update(held.room); // a full room may have become joinable again
+        }
+        return expired;
+    }
+
+    public int getIndexedRoomCount() {
+        return filed.size();
+    }
+
+    private Reservation hold(GameRoom room, String username, String clientIp) {
+        String token = UUID.randomUUID().toString();
+        reservations.computeIfAbsent(room.getRoomId(), id -> new Held(room)).tokens
+                .put(token, new Hold(username, clientIp, clock.millis() + reservationMs));
+        update(room);
+        return new Reservation(room.getRoomId(), token);
+    }
+
+    private int activeReservations(String roomId, String exceptToken) {
+        Held held = reservations.get(roomId);
+        if (held == null) return 0;
+        long now = clock.millis();
+        int count = 0;
+        for (Map.Entry<String, Hold> entry : held.tokens.entrySet()) {
+            if (entry.getValue().expiresAt() > now && !entry.getKey().equals(exceptToken)) count++;
+        }
+        return count;
+    }
+}
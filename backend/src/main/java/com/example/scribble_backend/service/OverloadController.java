@@ -0,0 +1,130 @@
+package com.example.scribble_backend.service;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+// Sheds non-essential work in steps as load rises so running games keep their timing
+@Service
+public class OverloadController {
+
+    public enum Level {
+        NORMAL,          // everything on
+        THROTTLE_DRAW,   // draw segments are batched per room
+        REJECT_NEW_ROOMS, // plus: room creation refused with a retry hint
+        PAUSE_LOBBY      // plus: lobby list served from the last snapshot
+    }
+
+    // Pressure ratio (worst signal / its watermark) needed to enter each level above NORMAL
+    private static final double[] ENTER_RATIO = {0, 1.0, 1.5, 2.0};
+    private static final double EXIT_FACTOR = 0.8; // hysteresis so the level doesn't flap
+    private static final double SMOOTHING = 0.3;
+
+    @Autowired
+    @Qualifier("clientInboundChannelExecutor")
+    private Executor inboundExecutor;
+
+    @Value("${app.overload.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.overload.tick-lag-watermark-ms:200}")
+    private double tickLagWatermarkMs;
+
+    @Value("${app.overload.inbound-queue-watermark:500}")
+    private double inboundQueueWatermark;
+
+    @Value("${app.overload.send-latency-watermark-ms:20}")
+    private double sendLatencyWatermarkMs;
+
+    @Value("${app.overload.retry-after-seconds:30}")
+    private int retryAfterSeconds;
+
+    private volatile Level level = Level.NORMAL;
+
+    // Unlocked EWMAs: a lost update from concurrent senders only nudges the average
+    private volatile double tickLagMs;
+    private volatile double sendLatencyMs;
+    private volatile int inboundQueueDepth;
+    private long lastTickStartNanos;
+
+    public void recordTickStart(long startNanos, long periodMs) {
+        if (lastTickStartNanos != 0) {
+            double lag = Math.max(0, (startNanos - lastTickStartNanos) / 1_000_000.0 - periodMs);
+            tickLagMs = tickLagMs + SMOOTHING * (lag - tickLagMs);
+        }
+        lastTickStartNanos = startNanos;
+    }
+
+    public void recordSend(long elapsedNanos) {
+        double ms = elapsedNanos / 1_000_000.0;
+        sendLatencyMs = sendLatencyMs + SMOOTHING * (ms - sendLatencyMs);
+    }
+
+    public Level evaluate() {
+        inboundQueueDepth = currentInboundQueueDepth();
+        if (!enabled) return level;
+
+        double pressure = Math.max(tickLagMs / tickLagWatermarkMs,
+                Math.max(inboundQueueDepth / inboundQueueWatermark, sendLatencyMs / sendLatencyWatermarkMs));
+
+        // Step up as far as the pressure warrants, but recover one level per evaluation
+        int target = level.ordinal();
+        while (target + 1 < ENTER_RATIO.length && pressure >= ENTER_RATIO[target + 1]) {
+            target++;
+        }
+        if (target == level.ordinal() && target > 0 && pressure < ENTER_RATIO[target] * EXIT_FACTOR) {
+            target--;
+        }
+
+        Level next = Level.values()[target];
+        if (next != level) {
+            System.out.println("[Overload] " + level + " -> " + next + String.format(
+                    " (tick lag %.0fms, inbound queue %d, send %.1fms)", tickLagMs, inboundQueueDepth, sendLatencyMs));
+            level = next;
+        }
+        return level;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public boolean isDrawThrottled() {
+        return level.ordinal() >= Level.THROTTLE_DRAW.ordinal();
+    }
+
+    public boolean isRejectingNewRooms() {
+        return level.ordinal() >= Level.REJECT_NEW_ROOMS.ordinal();
+    }
+
+    public boolean isLobbyPaused() {
+        return level.ordinal() >= Level.PAUSE_LOBBY.ordinal();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public double getTickLagMs() {
+        return tickLagMs;
+    }
+
+    public double getSendLatencyMs() {
+        return sendLatencyMs;
+    }
+
+    public int getInboundQueueDepth() {
+        return inboundQueueDepth;
+    }
+
+    private int currentInboundQueueDepth() {
+        if (inboundExecutor instanceof ThreadPoolTaskExecutor pool) {
+            return pool.getThreadPoolExecutor().getQueue().size();
+        }
+        return 0;
+    }
+}
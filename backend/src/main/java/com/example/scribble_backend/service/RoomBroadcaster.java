@@ -0,0 +1,78 @@
+package com.example.scribble_backend.service;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.GameRoom;
+
+@Service
+public class RoomBroadcaster {
+
+    public static final String SEQ_HEADER = "seq";
+    public static final String STATE_CHANNEL = "state";
+
+    // Channels whose messages change what GET /api/room/{id}/state returns (strokes and the timer are in it)
+    private static final Set<String> POLLED_CHANNELS = Set.of(STATE_CHANNEL, "draw", "time");
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private OverloadController overloadController;
+
+    @Autowired
+    private RoomStateWatch stateWatch;
+
+    // Sequenced send: the message is kept in the room's replay log and carries a "seq" header.
+    // generation is the room's as the caller looked it up (GameService.liveGeneration); once RoomPool has
+    // recycled the room for another game the message is dropped and false returned. Checked, logged and
+    // sent under the room lock, so recycle() can't land in between and seqs go out in order
+    public boolean send(GameRoom room, long generation, String channel, Object payload) {
+        String roomId;
+        synchronized (room) {
+            if (room.getGeneration() != generation) return false;
+            roomId = room.getRoomId();
+            long seq = room.getMessageLog().append(channel, payload);
+            long start = System.nanoTime();
+            messagingTemplate.convertAndSend(destination(roomId, channel), payload,
+                    Map.<String, Object>of(SEQ_HEADER, seq));
+            overloadController.recordSend(System.nanoTime() - start);
+        }
+        if (POLLED_CHANNELS.contains(channel)) {
+            stateWatch.changed(roomId);
+        }
+        return true;
+    }
+
+    // Unsequenced send for values that are superseded every tick (e.g. the timer); dropped like send's
+    public boolean sendVolatile(GameRoom room, long generation, String channel, Object payload) {
+        String roomId;
+        synchronized (room) {
+            if (room.getGeneration() != generation) return false;
+            roomId = room.getRoomId();
+            messagingTemplate.convertAndSend(destination(roomId, channel), payload);
+        }
+        if (POLLED_CHANNELS.contains(channel)) {
+            stateWatch.changed(roomId);
+        }
+        return true;
+    }
+
+    // Clients are anonymous, so the user destination only resolves when the session id header matches
+    public void sendToSession(String sessionId, String queue, Object payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(sessionId, "/queue/" + queue, payload, accessor.getMessageHeaders());
+    }
+
+    public static String destination(String roomId, String channel) {
+        return "/topic/room/" + roomId + "/" + channel;
+    }
+}
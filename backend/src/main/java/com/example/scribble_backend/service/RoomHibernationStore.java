@@ -0,0 +1,191 @@
+package com.example.scribble_backend.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.GameRoom;
+
+// Parks idle rooms as small deflated files so the hot rooms map only holds rooms people are using
+@Service
+public class RoomHibernationStore {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_ROOM_ID_LENGTH = 64;
+    private static final String SUFFIX = ".room";
+
+    @Value("${app.hibernation.dir:data/rooms}")
+    private String storeDir;
+
+    @Value("${app.hibernation.enabled:true}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Only the lobby configuration survives; seats and round state are not worth keeping for an empty room
+    public boolean hibernate(GameRoom room) {
+        Path path = pathFor(room.getRoomId());
+        if (!enabled || path == null) return false;
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream file = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(
+                         new BufferedOutputStream(new DeflaterOutputStream(file, deflater)))) {
+                write(out, room);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("[Hibernation] Failed to store room " + room.getRoomId() + ": " + e.getMessage());
+            return false;
+        } finally {
+            deflater.end(); // a caller-supplied Deflater is not released by the stream
+        }
+    }
+
+    // A parked lobby keeps its id: nobody else may create a room under it until it is thawed or purged
+    public boolean isParked(String roomId) {
+        Path path = pathFor(roomId);
+        return enabled && path != null && Files.exists(path);
+    }
+
+    // Reads the stored room, or returns null when the id was never hibernated. The file stays until
+    // discard(), so the id remains taken until the caller has the room in place.
+    public GameRoom thaw(String roomId) {
+        Path path = pathFor(roomId);
+        if (!enabled || path == null || !Files.exists(path)) return null;
+
+        GameRoom room;
+        try (InputStream file = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(file)))) {
+            room = read(in);
+        } catch (NoSuchFileException e) {
+            return null; // thawed concurrently
+        } catch (IOException e) {
+            System.err.println("[Hibernation] Failed to read room " + roomId + ": " + e.getMessage());
+            return null;
+        }
+        return room;
+    }
+
+    public void discard(String roomId) {
+        Path path = pathFor(roomId);
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("[Hibernation] Failed to delete room file " + path + ": " + e.getMessage());
+        }
+    }
+
+    public int purgeExpired(long ttlMs) {
+        Path dir = Path.of(storeDir);
+        if (!enabled || !Files.isDirectory(dir)) return 0;
+
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        List<Path> expired = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    expired.add(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[Hibernation] Failed to scan " + dir + ": " + e.getMessage());
+            return 0;
+        }
+
+        int purged = 0;
+        for (Path file : expired) {
+            try {
+                if (Files.deleteIfExists(file)) purged++;
+            } catch (IOException e) {
+                // Retried on the next sweep
+            }
+        }
+        return purged;
+    }
+
+    private void write(DataOutputStream out, GameRoom room) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(room.getRoomId());
+        out.writeUTF(nullToEmpty(room.getLanguage()));
+        out.writeUTF(nullToEmpty(room.getScoringMode()));
+        out.writeInt(room.getDrawingTime());
+        out.writeInt(room.getMaxPlayers());
+        out.writeInt(room.getPlayersPerIpLimit());
+        out.writeInt(room.getCustomWordsPerTurn());
+        out.writeInt(room.getMaxRounds());
+        out.writeBoolean(room.isPrivate());
+        out.writeUTF(nullToEmpty(room.getLobbyName()));
+
+        List<String> customWords = room.getCustomWords();
+        out.writeInt(customWords.size());
+        for (String word : customWords) {
+            out.writeUTF(word);
+        }
+    }
+
+    private GameRoom read(DataInputStream in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported room format " + version);
+        }
+
+        GameRoom room = new GameRoom();
+        room.setRoomId(in.readUTF());
+        room.setLanguage(in.readUTF());
+        room.setScoringMode(in.readUTF());
+        room.setDrawingTime(in.readInt());
+        room.setRoundTime(room.getDrawingTime());
+        room.setMaxPlayers(in.readInt());
+        room.setPlayersPerIpLimit(in.readInt());
+        room.setCustomWordsPerTurn(in.readInt());
+        room.setMaxRounds(in.readInt());
+        room.setPrivate(in.readBoolean());
+        room.setLobbyName(in.readUTF());
+
+        int wordCount = in.readInt();
+        List<String> customWords = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            customWords.add(in.readUTF());
+        }
+        room.setCustomWords(customWords);
+        return room;
+    }
+
+    // Room ids come from clients, so they are hex-encoded rather than trusted as file names
+    private Path pathFor(String roomId) {
+        if (roomId == null || roomId.isEmpty() || roomId.length() > MAX_ROOM_ID_LENGTH) return null;
+        String name = HexFormat.of().formatHex(roomId.getBytes(StandardCharsets.UTF_8));
+        return Path.of(storeDir, name + SUFFIX);
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.scribble_backend.service;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.GameRoom;
+
+import jakarta.annotation.PostConstruct;
+
+// Retired rooms are reset and handed out again instead of being rebuilt, along with their slot
+// array and message ring. recycle() bumps the room's generation. Everything sent to a room's topics
+// or painted on its thumbnail carries the generation its caller looked up (GameService.liveGeneration)
+// and is dropped under the room lock once that no longer matches (RoomBroadcaster, ThumbnailService,
+// DrawBatcher), so no message from one game reaches the next however late it is. Draws and joins also
+// re-check the room is still registered under their id under its lock (GameService.isLive).
+// The rest is covered only by the quarantine: reads past their lookup (a state poll or thumbnail
+// request serializes whatever the object holds by then) and GameLoop's tick, which changes the rooms it
+// just listed outside their lock. It has to outlast those, so it can't be zero.
+@Service
+public class RoomPool {
+
+    @Value("${app.room-pool.size:256}")
+    private int capacity;
+
+    // How long a released room waits before it is reused
+    @Value("${app.room-pool.quarantine-ms:60000}")
+    private long quarantineMs;
+
+    @Autowired
+    private Clock clock;
+
+    private record Retired(GameRoom room, long retiredAt) {}
+
+    @PostConstruct
+    public void checkQuarantine() {
+        if (quarantineMs <= 0) {
+            throw new IllegalStateException("app.room-pool.quarantine-ms must be positive, was " + quarantineMs);
+        }
+    }
+
+    private final ArrayDeque<Retired> free = new ArrayDeque<>();
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder released = new LongAdder();
+
+    public GameRoom acquire() {
+        GameRoom room = null;
+        synchronized (free) {
+            Retired oldest = free.peekFirst();
+            if (oldest != null && clock.millis() - oldest.retiredAt() >= quarantineMs) {
+                room = free.pollFirst().room();
+            }
+        }
+        if (room == null) {
+            created.increment();
+            return new GameRoom();
+        }
+        room.recycle();
+        reused.increment();
+        return room;
+    }
+
+    // Only for rooms that are out of the room map and have nobody seated
+    public void release(GameRoom room) {
+        synchronized (free) {
+            if (free.size() >= capacity) return;
+            free.addLast(new Retired(room, clock.millis()));
+        }
+        released.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (free) {
+            stats.put("pooled", free.size());
+        }
+        stats.put("capacity", capacity);
+        stats.put("quarantineMs", quarantineMs);
+        stats.put("created", created.sum());
+        stats.put("reused", reused.sum());
+        stats.put("released", released.sum());
+        return stats;
+    }
+}
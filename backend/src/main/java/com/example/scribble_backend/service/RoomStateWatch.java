@@ -0,0 +1,123 @@
+package com.example.scribble_backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.GameRoom;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Versions each room's state for HTTP pollers. The version moves whenever a broadcast changes something
+// the serialized room carries (state, strokes, the timer), so pollers see the same updates as WebSocket
+// clients, and the JSON is built once per version.
+@Service
+public class RoomStateWatch {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+
+    // Seeded from the clock so ETags from a previous run or a recreated room never match
+    private final AtomicLong watchIds = new AtomicLong(System.currentTimeMillis());
+
+    public record Snapshot(String etag, byte[] json) {}
+
+    private final class Watch {
+        final long id = watchIds.incrementAndGet();
+        long version = 1;
+        Snapshot snapshot; // serialized lazily, dropped on every change
+        final List<Runnable> waiters = new ArrayList<>();
+
+        String etag() {
+            return "\"" + Long.toString(id, 36) + "-" + version + "\"";
+        }
+    }
+
+    public String etag(GameRoom room) {
+        Watch watch = watch(room.getRoomId());
+        synchronized (watch) {
+            return watch.etag();
+        }
+    }
+
+    public Snapshot snapshot(GameRoom room) {
+        Watch watch = watch(room.getRoomId());
+        synchronized (watch) {
+            if (watch.snapshot == null) {
+                watch.snapshot = new Snapshot(watch.etag(), objectMapper.writeValueAsBytes(room));
+            }
+            return watch.snapshot;
+        }
+    }
+
+    // Parks onChange until the version moves past ifNoneMatch; returns false if it already has
+    public boolean await(GameRoom room, String ifNoneMatch, Runnable onChange) {
+        Watch watch = watch(room.getRoomId());
+        synchronized (watch) {
+            if (!matches(ifNoneMatch, watch.etag())) return false;
+            watch.waiters.add(onChange);
+            return true;
+        }
+    }
+
+    public void cancel(String roomId, Runnable onChange) {
+        Watch watch = watches.get(roomId);
+        if (watch == null) return;
+        synchronized (watch) {
+            watch.waiters.remove(onChange);
+        }
+    }
+
+    public void changed(String roomId) {
+        // Rooms nobody has polled have no watch and nothing to invalidate
+        Watch watch = watches.get(roomId);
+        if (watch == null) return;
+
+        List<Runnable> woken;
+        synchronized (watch) {
+            watch.version++;
+            watch.snapshot = null;
+            if (watch.waiters.isEmpty()) return;
+            woken = new ArrayList<>(watch.waiters);
+            watch.waiters.clear();
+        }
+        woken.forEach(Runnable::run);
+    }
+
+    // Wakes remaining pollers so they find the room gone instead of waiting out their timeout
+    public void discard(String roomId) {
+        Watch watch = watches.remove(roomId);
+        if (watch == null) return;
+
+        List<Runnable> woken;
+        synchronized (watch) {
+            woken = new ArrayList<>(watch.waiters);
+            watch.waiters.clear();
+        }
+        woken.forEach(Runnable::run);
+    }
+
+    // If-None-Match semantics: "*" or any tag in the list, compared weakly (a W/ prefix is ignored)
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        String strong = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) return true;
+            if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+            if (candidate.equals(strong)) return true;
+        }
+        return false;
+    }
+
+    private Watch watch(String roomId) {
+        return watches.computeIfAbsent(roomId, id -> new Watch());
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.scribble_backend.service;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+
+// Keeps a tiny raster per public room, painted segment by segment as drawing arrives, so the lobby
+// can show what is being drawn. Spring Boot runs with java.awt.headless=true, so no display is needed.
+@Service
+public class ThumbnailService {
+
+    public static final int WIDTH = 128;
+    public static final int HEIGHT = 96;
+    private static final double CANVAS_SIZE = 1000.0;
+    private static final double CLIENT_CANVAS_WIDTH = 800.0; // brush sizes are sent in client pixels
+
+    @Value("${app.thumbnail.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.thumbnail.cache-bytes:4194304}")
+    private long cacheBytes;
+
+    private final Map<String, Canvas> canvases = new ConcurrentHashMap<>();
+
+    // Seeded from the clock so ETags from a previous run or a recreated room never match
+    private final AtomicLong canvasIds = new AtomicLong(System.currentTimeMillis());
+
+    // Encoded PNGs in access order; evicted oldest-first once the byte budget is exceeded
+    private final LinkedHashMap<String, Encoded> encodedCache = new LinkedHashMap<>(64, 0.75f, true);
+    private long encodedBytes;
+
+    private volatile Encoded blank;
+
+    public record Encoded(long version, byte[] png, String etag) {}
+
+    private static final class Canvas {
+        final long id;
+        BufferedImage image; // null while the canvas is blank
+        Graphics2D graphics;
+        long version = 1;
+
+        Canvas(long id) {
+            this.id = id;
+        }
+
+        // Open stroke, so APPENDs continue from where the last message left off
+        String openId;
+        String openColor;
+        int openWidth;
+        int lastX = -1;
+        int lastY;
+
+        void apply(GameRoom room, DrawMessage message) {
+            String type = message.getType() == null ? DrawMessage.DRAW : message.getType();
+            switch (type) {
+                case DrawMessage.CLEAR -> clear();
+                case DrawMessage.BEGIN -> {
+                    openId = message.getStrokeId();
+                    openColor = message.getColor();
+                    openWidth = message.getLineWidth();
+                    lastX = -1;
+                    polyline(message.getPoints());
+                }
+                case DrawMessage.APPEND, DrawMessage.END -> {
+                    if (openId == null || !openId.equals(message.getStrokeId())) return;
+                    polyline(message.getPoints());
+                    if (DrawMessage.END.equals(type)) openId = null;
+                }
+                case DrawMessage.FILL -> {
+                    int[] at = message.getPoints();
+                    if (at != null && at.length >= 2) fill(message.getColor(), at[0], at[1]);
+                }
+                case DrawMessage.UNDO, DrawMessage.REDO -> repaint(room.getDrawHistory());
+                case DrawMessage.DRAW -> line(message.getColor(), message.getLineWidth(),
+                        scale(message.getPrevX(), WIDTH), scale(message.getPrevY(), HEIGHT),
+                        scale(message.getCurrX(), WIDTH), scale(message.getCurrY(), HEIGHT));
+                default -> { }
+            }
+        }
+
+        // Undo can uncover anything, so the raster is rebuilt from the stored strokes
+        void repaint(List<DrawMessage> history) {
+            String id = openId;
+            String color = openColor;
+            int width = openWidth;
+            clear();
+            for (DrawMessage stroke : history) {
+                if (stroke.isUndone()) continue;
+                if (DrawMessage.FILL.equals(stroke.getType())) {
+                    int[] at = stroke.getPoints();
+                    fill(stroke.getColor(), at[0], at[1]);
+                } else {
+                    openColor = stroke.getColor();
+                    openWidth = stroke.getLineWidth();
+                    lastX = -1;
+                    polyline(stroke.getPoints());
+                }
+            }
+            openId = id;
+            openColor = color;
+            openWidth = width;
+        }
+
+        private void polyline(int[] points) {
+            if (points == null) return;
+            for (int i = 0; i + 1 < points.length; i += 2) {
+                int x = scale(points[i], WIDTH);
+                int y = scale(points[i + 1], HEIGHT);
+                line(openColor, openWidth, lastX < 0 ? x : lastX, lastX < 0 ? y : lastY, x, y);
+                lastX = x;
+                lastY = y;
+            }
+        }
+
+        private void line(String color, int lineWidth, int x0, int y0, int x1, int y1) {
+            ensureImage();
+            graphics.setColor(parseColor(color));
+            float width = (float) Math.max(1.0, lineWidth * WIDTH / CLIENT_CANVAS_WIDTH);
+            graphics.setStroke(new BasicStroke(width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            graphics.drawLine(x0, y0, x1, y1);
+            version++;
+        }
+
+        // Scanline flood fill; the raster is small and drawn without antialiasing, so exact match is enough
+        private void fill(String color, int canvasX, int canvasY) {
+            ensureImage();
+            int x = scale(canvasX, WIDTH);
+            int y = scale(canvasY, HEIGHT);
+            int target = image.getRGB(x, y);
+            image.setRGB(x, y, parseColor(color).getRGB());
+            int replacement = image.getRGB(x, y); // as stored in 565, so the comparison below matches
+            if (replacement == target) return;
+            image.setRGB(x, y, target);
+
+            int[] stack = new int[2 * WIDTH * HEIGHT]; // a pixel can be queued from the row above and below
+            int top = 0;
+            stack[top++] = y * WIDTH + x;
+            while (top > 0) {
+                int p = stack[--top];
+                int py = p / WIDTH;
+                int left = p % WIDTH;
+                while (left > 0 && image.getRGB(left - 1, py) == target) left--;
+                boolean spanAbove = false;
+                boolean spanBelow = false;
+                for (int px = left; px < WIDTH && image.getRGB(px, py) == target; px++) {
+                    image.setRGB(px, py, replacement);
+                    if (py > 0) {
+                        boolean match = image.getRGB(px, py - 1) == target;
+                        if (match && !spanAbove) stack[top++] = (py - 1) * WIDTH + px;
+                        spanAbove = match;
+                    }
+                    if (py < HEIGHT - 1) {
+                        boolean match = image.getRGB(px, py + 1) == target;
+                        if (match && !spanBelow) stack[top++] = (py + 1) * WIDTH + px;
+                        spanBelow = match;
+                    }
+                }
+            }
+            version++;
+        }
+
+        private void ensureImage() {
+            if (image != null) return;
+            image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_USHORT_565_RGB);
+            graphics = image.createGraphics();
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, WIDTH, HEIGHT);
+        }
+
+        void clear() {
+            if (graphics != null) graphics.dispose();
+            image = null;
+            graphics = null;
+            openId = null;
+            lastX = -1;
+            version++;
+        }
+    }
+
+    // generation as for RoomBroadcaster.send: a room recycled since the caller's lookup isn't painted.
+    // The room lock is taken before the canvas's, the order Canvas.apply already nests them in (undo)
+    public void paint(GameRoom room, long generation, DrawMessage message) {
+        if (!enabled) return;
+
+        synchronized (room) {
+            if (room.getGeneration() != generation || room.isPrivate()) return;
+            Canvas canvas = canvases.computeIfAbsent(room.getRoomId(), id -> new Canvas(canvasIds.incrementAndGet()));
+            synchronized (canvas) {
+                canvas.apply(room, message);
+            }
+        }
+    }
+
+    public void discard(String roomId) {
+        Canvas canvas = canvases.remove(roomId);
+        if (canvas != null) {
+            synchronized (canvas) {
+                canvas.clear();
+            }
+        }
+        synchronized (encodedCache) {
+            Encoded removed = encodedCache.remove(roomId);
+            if (removed != null) encodedBytes -= removed.png().length;
+        }
+    }
+
+    // Encodes only when the canvas changed since the cached copy; null if the room has no thumbnail
+    public Encoded getThumbnail(GameRoom room) {
+        if (!enabled || room.isPrivate()) return null;
+
+        Canvas canvas = canvases.get(room.getRoomId());
+        if (canvas == null) return getBlank();
+
+        long version;
+        String etag;
+        BufferedImage snapshot;
+        synchronized (canvas) {
+            version = canvas.version;
+            etag = "\"" + Long.toHexString(canvas.id) + "-" + version + "\"";
+            Encoded cached;
+            synchronized (encodedCache) {
+                cached = encodedCache.get(room.getRoomId());
+            }
+            if (cached != null && cached.version() == version) return cached;
+            if (canvas.image == null) return getBlank();
+
+            // Copy under the lock (24 KB) and encode outside it so drawing isn't held up
+            snapshot = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_USHORT_565_RGB);
+            canvas.image.copyData(snapshot.getRaster());
+        }
+
+        byte[] png = encode(snapshot);
+        if (png == null) return null;
+
+        Encoded encoded = new Encoded(version, png, etag);
+        synchronized (encodedCache) {
+            Encoded previous = encodedCache.put(room.getRoomId(), encoded);
+            if (previous != null) encodedBytes -= previous.png().length;
+            encodedBytes += png.length;
+            evictOverBudget();
+        }
+        return encoded;
+    }
+
+    private void evictOverBudget() {
+        Iterator<Encoded> it = encodedCache.values().iterator();
+        while (encodedBytes > cacheBytes && it.hasNext()) {
+            encodedBytes -= it.next().png().length;
+            it.remove();
+        }
+    }
+
+    private Encoded getBlank() {
+        Encoded b = blank;
+        if (b == null) {
+            BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_USHORT_565_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+            g.dispose();
+            b = new Encoded(0, encode(image), "\"blank\"");
+            blank = b;
+        }
+        return b;
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        try {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            System.err.println("[Thumbnail] Failed to encode: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static int scale(double coordinate, int size) {
+        return (int) Math.round(Math.max(0, Math.min(CANVAS_SIZE, coordinate)) * (size - 1) / CANVAS_SIZE);
+    }
+
+    private static Color parseColor(String color) {
+        if (color != null && color.length() == 7 && color.charAt(0) == '#') {
+            try {
+                return new Color(Integer.parseInt(color.substring(1), 16));
+            } catch (NumberFormatException e) {
+                // fall through to black
+            }
+        }
+        return Color.BLACK;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.scribble_backend.simulation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.GameRoomConfig;
+import com.example.scribble_backend.model.Player;
+import com.example.scribble_backend.scheduler.GameLoop;
+import com.example.scribble_backend.service.GameService;
+
+// Plays bot games through the real GameService and GameLoop, one virtual second per step, as fast as the CPU allows
+@Service
+@Profile("simulation")
+public class GameSimulator {
+
+    private static final long MAX_SIMULATED_SECONDS = 24 * 3600;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameLoop gameLoop;
+
+    @Autowired
+    private VirtualClock clock;
+
+    @Autowired
+    private Random random;
+
+    @Value("${app.simulation.players-per-room:4}")
+    private int playersPerRoom;
+
+    @Value("${app.simulation.rounds:3}")
+    private int rounds;
+
+    @Value("${app.simulation.drawing-time:60}")
+    private int drawingTime;
+
+    // Chance per simulated second that a bot acts
+    @Value("${app.simulation.choose-chance:0.3}")
+    private double chooseChance;
+
+    @Value("${app.simulation.guess-chance:0.05}")
+    private double guessChance;
+
+    @Value("${app.simulation.wrong-guess-chance:0.1}")
+    private double wrongGuessChance;
+
+    public record Result(int games, long turns, long simulatedSeconds, long elapsedNanos, long scoreChecksum) {
+        public double turnsPerSecond() {
+            return elapsedNanos == 0 ? 0 : turns / (elapsedNanos / 1e9);
+        }
+    }
+
+    // Same seed, same games: every decision goes through the one seeded Random on a single thread
+    public synchronized Result run(int games, long seed) {
+        random.setSeed(seed);
+        long start = System.nanoTime();
+
+        List<GameRoom> rooms = new ArrayList<>(games);
+        for (int g = 0; g < games; g++) {
+            rooms.add(createGame("sim-" + seed + "-" + g));
+        }
+
+        long[] lastTurn = new long[games];
+        long turns = 0;
+        long seconds = 0;
+        while (true) {
+            boolean anyRunning = false;
+            for (int g = 0; g < games; g++) {
+                GameRoom room = rooms.get(g);
+                if (!room.isGameRunning()) continue;
+                anyRunning = true;
+
+                long turn = room.getCurrentRound() * (long) GameRoom.MAX_SLOTS + room.getDrawerIndex();
+                if (turn != lastTurn[g]) {
+                    lastTurn[g] = turn;
+                    turns++;
+                }
+                playSecond(room);
+            }
+            if (!anyRunning) break;
+            if (++seconds > MAX_SIMULATED_SECONDS) {
+                throw new IllegalStateException("Simulation did not finish within " + MAX_SIMULATED_SECONDS + " game seconds");
+            }
+
+            clock.advance(Duration.ofSeconds(1));
+            gameLoop.tick();
+        }
+
+        long checksum = 0;
+        for (GameRoom room : rooms) {
+            for (Player player : room.getPlayers()) {
+                checksum = checksum * 31 + player.getScore();
+            }
+        }
+        // Frees the ids, so another run with the same seed can create its rooms again
+        for (GameRoom room : rooms) {
+            gameService.retireRoom(room);
+        }
+        return new Result(games, turns, seconds, System.nanoTime() - start, checksum);
+    }
+
+    private GameRoom createGame(String roomId) {
+        GameRoomConfig config = new GameRoomConfig();
+        config.setDrawingTime(drawingTime);
+        config.setRounds(rounds);
+        config.setMaxPlayers(playersPerRoom);
+
+        GameRoom room = gameService.createRoom(roomId, "bot0", roomId + "-0", config);
+        for (int p = 1; p < playersPerRoom; p++) {
+            gameService.joinRoom(roomId, "bot" + p, roomId + "-" + p);
+        }
+        gameService.startNewRound(room);
+        return room;
+    }
+
+    private void playSecond(GameRoom room) {
+        String drawer = room.getCurrentDrawerSessionId();
+        if (!room.isWordChosen()) {
+            List<String> choices = room.getWordChoices();
+            if (!choices.isEmpty() && random.nextDouble() < chooseChance) {
+                gameService.chooseWord(room.getRoomId(), drawer, choices.get(random.nextInt(choices.size())));
+            }
+            return;
+        }
+
+        for (Player player : room.getPlayers()) {
+            String sessionId = player.getSessionId();
+            if (sessionId.equals(drawer) || room.hasGuessedCorrectly(sessionId)) continue;
+
+            if (random.nextDouble() < guessChance) {
+                gameService.touch(room);
+                gameService.processGuess(room.getRoomId(), room.getCurrentWord(), sessionId);
+            } else if (random.nextDouble() < wrongGuessChance) {
+                gameService.processGuess(room.getRoomId(), "not-the-word", sessionId);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.scribble_backend.simulation;
+
+import java.time.Instant;
+import java.util.Random;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("simulation")
+public class SimulationConfig {
+
+    @Bean
+    public VirtualClock gameClock() {
+        return new VirtualClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Bean
+    public Random gameRandom(@Value("${app.simulation.seed:42}") long seed) {
+        return new Random(seed);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.scribble_backend.simulation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Runs with --spring.profiles.active=simulation, prints throughput and exits
+@Component
+@Profile("simulation")
+@ConditionalOnProperty(name = "app.simulation.run-on-startup", havingValue = "true")
+public class SimulationRunner implements CommandLineRunner {
+
+    @Autowired
+    private GameSimulator simulator;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Value("${app.simulation.games:1000}")
+    private int games;
+
+    @Value("${app.simulation.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(String... args) {
+        GameSimulator.Result result = simulator.run(games, seed);
+        System.out.println(String.format(
+                "[Simulation] %d games, %d turns, %d game seconds in %.2fs wall (%.0f turns/s, checksum %d)",
+                result.games(), result.turns(), result.simulatedSeconds(), result.elapsedNanos() / 1e9,
+                result.turnsPerSecond(), result.scoreChecksum()));
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.scribble_backend.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Only moves when the simulation advances it
+public class VirtualClock extends Clock {
+
+    private final AtomicLong millis;
+    private final ZoneId zone;
+
+    public VirtualClock(Instant start) {
+        this(new AtomicLong(start.toEpochMilli()), ZoneOffset.UTC);
+    }
+
+    // Views in other zones share the counter, so advancing any of them moves them all
+    private VirtualClock(AtomicLong millis, ZoneId zone) {
+        this.millis = millis;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        millis.addAndGet(duration.toMillis());
+    }
+
+    @Override
+    public long millis() {
+        return millis.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis.get());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new VirtualClock(millis, zone);
+    }
+}
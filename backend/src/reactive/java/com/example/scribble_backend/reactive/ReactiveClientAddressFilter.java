@@ -0,0 +1,36 @@
+package com.example.scribble_backend.reactive;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.example.scribble_backend.config.ConnectionLimiter;
+
+import reactor.core.publisher.Mono;
+
+// The reactive counterpart of ClientAddressFilter: exchange attributes are what @RequestAttribute reads here
+@Component
+@Profile("reactive")
+public class ReactiveClientAddressFilter implements WebFilter {
+
+    private final ConnectionLimiter connectionLimiter;
+
+    public ReactiveClientAddressFilter(ConnectionLimiter connectionLimiter) {
+        this.connectionLimiter = connectionLimiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        InetSocketAddress remote = request.getRemoteAddress();
+        String remoteAddr = remote == null ? "unknown" : remote.getHostString();
+        exchange.getAttributes().put(ConnectionLimiter.CLIENT_IP_ATTRIBUTE, connectionLimiter.resolveClientIp(remoteAddr,
+                request.getHeaders().getFirst("X-Forwarded-For"), request.getHeaders().getFirst("X-Real-IP")));
+        return chain.filter(exchange);
+    }
+}
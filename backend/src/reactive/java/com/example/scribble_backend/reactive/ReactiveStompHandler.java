@@ -0,0 +1,248 @@
+package com.example.scribble_backend.reactive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.BufferingStompDecoder;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.example.scribble_backend.config.ConnectionLimiter;
+import com.example.scribble_backend.config.HeartbeatMonitor;
+import com.example.scribble_backend.config.HeartbeatWheel;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+// The room protocol (STOMP) over a plain WebSocket on the event loop. Decoded frames go into the same
+// clientInboundChannel the servlet stack feeds, so the @MessageMapping controllers, the simple broker and
+// GameService are shared; frames for these sessions are picked off clientOutboundChannel by session id.
+// Does what StompSubProtocolHandler does for servlet sessions, minus SockJS and STOMP 1.0/1.1 quirks.
+public class ReactiveStompHandler implements WebSocketHandler, MessageHandler {
+
+    private static final byte[] EMPTY_PAYLOAD = new byte[0];
+    private static final int MAX_FRAME_BYTES = 64 * 1024;
+    private static final String HEARTBEAT_FRAME = "\n";
+
+    private final MessageChannel clientInboundChannel;
+    private final ConnectionLimiter connectionLimiter;
+    private final HeartbeatMonitor heartbeatMonitor;
+    private final ApplicationEventPublisher events;
+    private final int sendBufferFrames;
+
+    private final StompEncoder encoder = new StompEncoder();
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private final class Connection {
+        final String id = UUID.randomUUID().toString();
+        final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        final BufferingStompDecoder decoder = new BufferingStompDecoder(new StompDecoder(), MAX_FRAME_BYTES);
+        // Bounded: a client that can't keep up is closed rather than buffered without limit
+        final Sinks.Many<String> outbound = Sinks.many().unicast().onBackpressureBuffer(Queues.<String>get(sendBufferFrames).get());
+        final WebSocketSession session;
+        HeartbeatWheel.Entry heartbeat;
+
+        Connection(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    public ReactiveStompHandler(MessageChannel clientInboundChannel, ConnectionLimiter connectionLimiter,
+            HeartbeatMonitor heartbeatMonitor, ApplicationEventPublisher events, int sendBufferFrames) {
+        this.clientInboundChannel = clientInboundChannel;
+        this.connectionLimiter = connectionLimiter;
+        this.heartbeatMonitor = heartbeatMonitor;
+        this.events = events;
+        this.sendBufferFrames = sendBufferFrames;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        HandshakeInfo handshake = session.getHandshakeInfo();
+        String remoteAddr = handshake.getRemoteAddress() == null ? "unknown" : handshake.getRemoteAddress().getHostString();
+        String ipAddress = connectionLimiter.resolveClientIp(remoteAddr,
+                handshake.getHeaders().getFirst("X-Forwarded-For"), handshake.getHeaders().getFirst("X-Real-IP"));
+        ConnectionLimiter.Permit permit = connectionLimiter.tryAcquire(ipAddress);
+        if (permit == null) {
+            return session.close(CloseStatus.SERVICE_OVERLOAD);
+        }
+
+        Connection connection = new Connection(session);
+        connection.attributes.put("IP_ADDRESS", ipAddress);
+        connection.attributes.put(ConnectionLimiter.PERMIT_ATTRIBUTE, permit);
+        connection.heartbeat = heartbeatMonitor.track(connection.id,
+                () -> session.close(CloseStatus.GOING_AWAY.withReason("No heartbeat from client")).subscribe());
+        connections.put(connection.id, connection);
+
+        Mono<Void> input = session.receive()
+                .doOnNext(message -> receive(connection, message))
+                .then();
+        Mono<Void> output = session.send(connection.outbound.asFlux().map(session::textMessage));
+
+        // Either side ending ends the session; disconnect handling runs game logic, so it leaves the event loop
+        return Mono.zip(input, output).then()
+                .doFinally(signal -> Schedulers.boundedElastic().schedule(() -> closed(connection)));
+    }
+
+    private void receive(Connection connection, WebSocketMessage message) {
+        connection.heartbeat.onRead(HeartbeatMonitor.now());
+
+        DataBuffer payload = message.getPayload();
+        byte[] bytes = new byte[payload.readableByteCount()];
+        payload.read(bytes);
+
+        List<Message<byte[]>> frames;
+        try {
+            frames = connection.decoder.decode(ByteBuffer.wrap(bytes));
+        } catch (RuntimeException e) {
+            System.out.println("[Reactive] Closing " + connection.id + " after a bad frame: " + e.getMessage());
+            connection.session.close(CloseStatus.PROTOCOL_ERROR).subscribe();
+            return;
+        }
+
+        for (Message<byte[]> frame : frames) {
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(frame, StompHeaderAccessor.class);
+            if (accessor == null || accessor.isHeartbeat()) continue;
+
+            StompCommand command = accessor.getCommand();
+            accessor.setSessionId(connection.id);
+            accessor.setSessionAttributes(connection.attributes);
+            accessor.setHeader(SimpMessageHeaderAccessor.HEART_BEAT_HEADER, accessor.getHeartbeat());
+            accessor.setImmutable();
+
+            if (!clientInboundChannel.send(frame)) continue;
+            if (command == StompCommand.CONNECT || command == StompCommand.STOMP) {
+                events.publishEvent(new SessionConnectEvent(this, frame));
+            } else if (command == StompCommand.SUBSCRIBE) {
+                events.publishEvent(new SessionSubscribeEvent(this, frame));
+            } else if (command == StompCommand.UNSUBSCRIBE) {
+                events.publishEvent(new SessionUnsubscribeEvent(this, frame));
+            }
+        }
+    }
+
+    // Subscribed to clientOutboundChannel; frames for servlet sessions are left to their own handler
+    @Override
+    public void handleMessage(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        Connection connection = sessionId == null ? null : connections.get(sessionId);
+        if (connection == null) return;
+
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        if (type == SimpMessageType.DISCONNECT_ACK) {
+            synchronized (connection) {
+                connection.outbound.tryEmitComplete();
+            }
+            return;
+        }
+
+        String frame;
+        if (type == SimpMessageType.HEARTBEAT) {
+            frame = HEARTBEAT_FRAME;
+        } else if (type == SimpMessageType.CONNECT_ACK) {
+            frame = encode(connected(connection, headers), EMPTY_PAYLOAD);
+        } else if (type == SimpMessageType.MESSAGE && message.getPayload() instanceof byte[] payload) {
+            frame = encode(serverMessage(connection, headers), payload);
+        } else {
+            return;
+        }
+
+        Sinks.EmitResult result;
+        synchronized (connection) { // the sink takes one emitter at a time; sends come from several threads
+            result = connection.outbound.tryEmitNext(frame);
+        }
+        if (result.isSuccess()) {
+            connection.heartbeat.onWrite(HeartbeatMonitor.now());
+        } else if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+            System.out.println("[Reactive] Closing slow consumer " + connection.id);
+            connection.session.close(CloseStatus.POLICY_VIOLATION.withReason("Send buffer full")).subscribe();
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    // The session header is how a plain WebSocket client learns its id (SockJS clients read it from the URL)
+    private StompHeaderAccessor connected(Connection connection, MessageHeaders headers) {
+        StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+        connected.setNativeHeader("version", "1.2");
+        connected.setNativeHeader("session", connection.id);
+        long[] heartbeat = SimpMessageHeaderAccessor.getHeartbeat(headers);
+        connected.setHeartbeat(heartbeat == null ? 0 : heartbeat[0], heartbeat == null ? 0 : heartbeat[1]);
+        return connected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private StompHeaderAccessor serverMessage(Connection connection, MessageHeaders headers) {
+        StompHeaderAccessor frame = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        Map<String, List<String>> nativeHeaders = (Map<String, List<String>>) headers.get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (nativeHeaders != null) {
+            nativeHeaders.forEach((name, values) -> {
+                if (!SimpMessageHeaderAccessor.ORIGINAL_DESTINATION.equals(name)) frame.setNativeHeaderValues(name, values);
+            });
+            // User destinations go back out under the name the client subscribed to
+            List<String> original = nativeHeaders.get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+            if (original != null && !original.isEmpty()) destination = original.get(0);
+        }
+        frame.setDestination(destination);
+        frame.setSubscriptionId(SimpMessageHeaderAccessor.getSubscriptionId(headers));
+        frame.setNativeHeader("message-id", connection.id + "-" + messageIds.incrementAndGet());
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        if (contentType != null) frame.setNativeHeader("content-type", contentType.toString());
+        return frame;
+    }
+
+    private String encode(StompHeaderAccessor accessor, byte[] payload) {
+        return new String(encoder.encode(accessor.getMessageHeaders(), payload), StandardCharsets.UTF_8);
+    }
+
+    // Same cleanup as a servlet session ending: the broker drops subscriptions, listeners release the seat
+    private void closed(Connection connection) {
+        if (connections.remove(connection.id) == null) return;
+        heartbeatMonitor.untrack(connection.id);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        accessor.setSessionId(connection.id);
+        accessor.setSessionAttributes(connection.attributes);
+        Message<byte[]> disconnect = MessageBuilder.createMessage(EMPTY_PAYLOAD, accessor.getMessageHeaders());
+        try {
+            events.publishEvent(new SessionDisconnectEvent(this, disconnect, connection.id,
+                    org.springframework.web.socket.CloseStatus.NORMAL));
+        } finally {
+            clientInboundChannel.send(disconnect);
+        }
+    }
+}
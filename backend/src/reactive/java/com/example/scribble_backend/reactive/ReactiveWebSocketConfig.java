@@ -0,0 +1,54 @@
+package com.example.scribble_backend.reactive;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import com.example.scribble_backend.config.ConnectionLimiter;
+import com.example.scribble_backend.config.HeartbeatMonitor;
+
+// Event-loop runtime: build with -Preactive, run with the "reactive" profile. The broker, controllers and
+// game services are the servlet stack's own beans; only the WebSocket transport is swapped.
+@Configuration
+@Profile("reactive")
+public class ReactiveWebSocketConfig {
+
+    @Value("${app.cors.allowed-origins}")
+    private String allowedOrigins;
+
+    @Value("${app.reactive.send-buffer-frames:1024}")
+    private int sendBufferFrames;
+
+    @Bean
+    public ReactiveStompHandler reactiveStompHandler(
+            @Qualifier("clientInboundChannel") MessageChannel clientInboundChannel,
+            @Qualifier("clientOutboundChannel") SubscribableChannel clientOutboundChannel,
+            ConnectionLimiter connectionLimiter, HeartbeatMonitor heartbeatMonitor, ApplicationEventPublisher events) {
+        ReactiveStompHandler handler = new ReactiveStompHandler(clientInboundChannel, connectionLimiter,
+                heartbeatMonitor, events, sendBufferFrames);
+        clientOutboundChannel.subscribe(handler);
+        return handler;
+    }
+
+    // Same path as the servlet stack's raw WebSocket endpoint, so clients and the load script work with both
+    @Bean
+    public HandlerMapping reactiveStompMapping(ReactiveStompHandler handler) {
+        CorsConfiguration origins = new CorsConfiguration();
+        origins.setAllowedOriginPatterns(Arrays.asList(allowedOrigins.split(",")));
+
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of("/ws/websocket", handler), -1);
+        mapping.setCorsConfigurations(Map.of("/ws/**", origins));
+        return mapping;
+    }
+}
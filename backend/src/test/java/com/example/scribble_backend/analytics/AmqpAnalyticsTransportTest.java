@@ -0,0 +1,87 @@
+package com.example.scribble_backend.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.test.TestRabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.example.scribble_backend.model.GameEvent;
+import com.example.scribble_backend.model.GameEventBatch;
+import com.rabbitmq.client.Channel;
+
+// The opt-in RabbitMQ path end to end, minus the broker: TestRabbitTemplate hands each sent message
+// straight to the @RabbitListener for its queue, through the same JSON converter
+@SpringJUnitConfig
+@TestPropertySource(properties = "app.analytics.transport=amqp")
+class AmqpAnalyticsTransportTest {
+
+    @Configuration
+    @EnableRabbit
+    @Import({ AmqpAnalyticsConfig.class, WordStatsAggregator.class })
+    static class Broker {
+
+        @Bean
+        ConnectionFactory connectionFactory() {
+            ConnectionFactory factory = mock(ConnectionFactory.class);
+            Connection connection = mock(Connection.class);
+            Channel channel = mock(Channel.class);
+            given(factory.createConnection()).willReturn(connection);
+            given(connection.createChannel(anyBoolean())).willReturn(channel);
+            given(channel.isOpen()).willReturn(true);
+            return factory;
+        }
+
+        @Bean
+        TestRabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter analyticsMessageConverter) {
+            TestRabbitTemplate template = new TestRabbitTemplate(connectionFactory);
+            template.setMessageConverter(analyticsMessageConverter);
+            return template;
+        }
+
+        @Bean
+        SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                MessageConverter analyticsMessageConverter) {
+            SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+            factory.setConnectionFactory(connectionFactory);
+            factory.setMessageConverter(analyticsMessageConverter);
+            return factory;
+        }
+    }
+
+    @Autowired
+    private AnalyticsSink sink;
+
+    @Autowired
+    private WordStatsAggregator aggregator;
+
+    @Test
+    void batchesSentThroughTheQueueReachTheAggregator() {
+        sink.send(new GameEventBatch(List.of(
+                GameEvent.builder().type(GameEvent.Type.WORD_CHOSEN).language("en").word("Lighthouse").build(),
+                GameEvent.builder().type(GameEvent.Type.ROUND_END).language("en").word("Lighthouse").guessers(4).correctGuesses(1).build(),
+                GameEvent.builder().type(GameEvent.Type.ROUND_END).language("en").word("grandma's cat").customWord(true).build())));
+
+        List<Map<String, Object>> words = aggregator.getWords("en", 1, 10);
+        assertEquals(1, words.size());
+        assertEquals("lighthouse", words.get(0).get("word"));
+        assertEquals(0.25, words.get(0).get("solveRate"));
+        assertEquals(3L, aggregator.getEventsConsumed());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.scribble_backend.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.GameEvent;
+import com.example.scribble_backend.model.GameEventBatch;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class AnalyticsPipelineTest {
+
+    private final WordStatsAggregator aggregator = new WordStatsAggregator();
+
+    private AnalyticsPublisher publisher(AnalyticsSink sink, int queueCapacity) {
+        AnalyticsPublisher publisher = new AnalyticsPublisher();
+        ReflectionTestUtils.setField(publisher, "sink", sink);
+        ReflectionTestUtils.setField(publisher, "clock", Clock.systemUTC());
+        ReflectionTestUtils.setField(publisher, "enabled", true);
+        ReflectionTestUtils.setField(publisher, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(publisher, "batchSize", 50);
+        ReflectionTestUtils.setField(publisher, "flushMs", 20L);
+        return publisher;
+    }
+
+    @Test
+    void batchesReachTheAggregatorAndRankHardestWordsFirst() throws Exception {
+        InProcessAnalyticsSink sink = new InProcessAnalyticsSink();
+        ReflectionTestUtils.setField(sink, "objectMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(sink, "aggregator", aggregator);
+        AnalyticsPublisher publisher = publisher(sink, 1000);
+        publisher.start();
+
+        // "cat": three guessers, all solve. "zeppelin": nobody does, and one player leaves in round 2
+        for (int round = 1; round <= 3; round++) {
+            round(publisher, "cat", round, 3, 3);
+            round(publisher, "zeppelin", round, 3, 0);
+        }
+        publisher.publish(GameEvent.builder().type(GameEvent.Type.DISCONNECT).language("en").round(2).inGame(true).build());
+        publisher.stop();
+
+        List<Map<String, Object>> words = aggregator.getWords("en", 3, 10);
+        assertEquals("zeppelin", words.get(0).get("word"));
+        assertEquals(0.0, words.get(0).get("solveRate"));
+        assertEquals(3L, words.get(0).get("unsolvedRounds"));
+        assertEquals("cat", words.get(1).get("word"));
+        assertEquals(1.0, words.get(1).get("solveRate"));
+        assertEquals(20.0, words.get(1).get("avgSecondsToSolve"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> english = (Map<String, Object>) aggregator.getLanguages().get("en");
+        assertEquals(6L, english.get("roundsStarted"));
+        assertEquals(Map.of(2, 1L), english.get("disconnectsByRound"));
+        assertEquals(0L, publisher.getStats().get("dropped"));
+    }
+
+    @Test
+    void customWordsStayOutOfWordStats() {
+        aggregator.consume(new GameEventBatch(List.of(
+                event(GameEvent.Type.WORD_CHOSEN, "our-secret-nickname", 1).customWord(true).build(),
+                event(GameEvent.Type.GUESS, "our-secret-nickname", 1).customWord(true).correct(true).build(),
+                event(GameEvent.Type.ROUND_END, "our-secret-nickname", 1).customWord(true).guessers(2).correctGuesses(1).build(),
+                event(GameEvent.Type.ROUND_END, "cat", 2).guessers(2).correctGuesses(2).build())));
+
+        assertEquals(List.of("cat"), aggregator.getWords(null, 0, 10).stream().map(row -> row.get("word")).toList());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> english = (Map<String, Object>) aggregator.getLanguages().get("en");
+        assertEquals(2L, english.get("roundsEnded"));
+        assertEquals(1L, english.get("correctGuesses"));
+    }
+
+    @Test
+    void aStalledSinkDropsInsteadOfBlocking() throws Exception {
+        CountDownLatch brokerBack = new CountDownLatch(1);
+        AnalyticsPublisher publisher = publisher(batch -> {
+            try {
+                brokerBack.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 100);
+        publisher.start();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            publisher.publish(GameEvent.builder().type(GameEvent.Type.GUESS).language("en").word("cat").build());
+        }
+        assertTrue(System.nanoTime() - started < 1_000_000_000L);
+        assertTrue((long) publisher.getStats().get("dropped") > 9_000);
+
+        brokerBack.countDown();
+        publisher.stop();
+    }
+
+    private static void round(AnalyticsPublisher publisher, String word, int round, int guessers, int solvers) {
+        publisher.publish(event(GameEvent.Type.ROUND_START, null, round).build());
+        publisher.publish(event(GameEvent.Type.WORD_CHOSEN, word, round).build());
+        for (int i = 0; i < guessers; i++) {
+            boolean correct = i < solvers;
+            publisher.publish(event(GameEvent.Type.GUESS, word, round).correct(correct).elapsedSeconds(correct ? 20 : 5).build());
+        }
+        publisher.publish(event(GameEvent.Type.ROUND_END, word, round).guessers(guessers).correctGuesses(solvers).build());
+    }
+
+    private static GameEvent.GameEventBuilder event(GameEvent.Type type, String word, int round) {
+        return GameEvent.builder().type(type).language("en").word(word).round(round).timestamp(System.currentTimeMillis());
+    }
+}
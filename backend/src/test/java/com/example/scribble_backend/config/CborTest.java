@@ -0,0 +1,101 @@
+package com.example.scribble_backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.scribble_backend.model.ChatMessage;
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.Player;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.JsonNodeFactory;
+import tools.jackson.databind.node.ObjectNode;
+
+class CborTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void roundTripsStatesAndChat() {
+        for (Object payload : new Object[] { state(8), chat() }) {
+            byte[] json = mapper.writeValueAsBytes(payload);
+            JsonNode tree = mapper.readTree(json);
+            assertEquals(tree, Cbor.decode(Cbor.encode(tree)));
+            assertEquals(tree, Cbor.decode(Cbor.fromJson(mapper, json)));
+        }
+    }
+
+    // The frame opens a stringref namespace (tag 256) and repeats are written as references, not text
+    @Test
+    void repeatedStringsAreWrittenOnce() {
+        byte[] cbor = Cbor.fromJson(mapper, mapper.writeValueAsBytes(state(8)));
+        assertEquals((byte) 0xd9, cbor[0]);
+        assertEquals(1, cbor[1]);
+        assertEquals(0, cbor[2]);
+        assertEquals(1, occurrences(cbor, "sessionId".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Enough distinct repeated strings to cross every table-size threshold below 65536
+    @Test
+    void stringRefsStayInStepPastTheTableThresholds() {
+        ArrayNode items = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < 70_000; i++) {
+            ObjectNode item = items.addObject();
+            item.put("name", "w" + (i % 30_000));
+            item.put("type", i % 2 == 0 ? "CHAT" : "SYSTEM");
+            item.put("n", -i);
+            item.put("x", i / 3.0);
+        }
+        byte[] encoded = Cbor.encode(items);
+        assertEquals(items, Cbor.decode(encoded));
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        byte[] encoded = Cbor.encode(mapper.valueToTree(chat()));
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 3);
+        assertThrows(JacksonException.class, () -> Cbor.decode(truncated));
+    }
+
+    private static int occurrences(byte[] haystack, byte[] needle) {
+        int count = 0;
+        outer:
+        for (int i = 0; i + needle.length <= haystack.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) continue outer;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static ChatMessage chat() {
+        return ChatMessage.builder()
+                .type(ChatMessage.MessageType.CHAT)
+                .sender("player-3")
+                .senderSessionId(UUID.randomUUID().toString())
+                .content("is it a lighthouse?")
+                .serverTs(System.currentTimeMillis())
+                .build();
+    }
+
+    private static GameRoom state(int players) {
+        GameRoom room = new GameRoom();
+        room.setRoomId("482913");
+        room.setLanguage("en_us");
+        for (int i = 0; i < players; i++) {
+            room.addPlayer(new Player(UUID.randomUUID().toString(), "player-" + i, i * 120));
+        }
+        room.setGameRunning(true);
+        room.setCurrentRound(2);
+        return room;
+    }
+}
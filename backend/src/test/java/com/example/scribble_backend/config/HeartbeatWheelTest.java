@@ -0,0 +1,148 @@
+package com.example.scribble_backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class HeartbeatWheelTest {
+
+    private static final int SESSIONS = 10_000;
+    private static final int SILENT_EVERY = 100; // 1% of clients stop sending anything
+    private static final long TICK_MS = 100;
+    private static final long INTERVAL_MS = 20_000;
+    private static final long READ_TIMEOUT_MS = 50_000;
+    private static final long DURATION_MS = 5 * 60_000;
+
+    private int firedThisTick;
+    private int maxFiredPerTick;
+    private int reaped;
+
+    @Test
+    void spreadsHeartbeatsAndReapsSilentSessions() {
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK_MS, 512, new HeartbeatWheel.Sink() {
+            @Override
+            public void heartbeat(String sessionId) {
+                firedThisTick++;
+            }
+
+            @Override
+            public void reap(String sessionId) {
+                firedThisTick++;
+                reaped++;
+            }
+        });
+
+        // Clients connect evenly over the first interval and heartbeat at their own phase
+        int phases = (int) (INTERVAL_MS / TICK_MS);
+        List<List<HeartbeatWheel.Entry>> byPhase = new ArrayList<>();
+        for (int p = 0; p < phases; p++) {
+            byPhase.add(new ArrayList<>());
+        }
+        List<HeartbeatWheel.Entry> pending = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            HeartbeatWheel.Entry entry = wheel.newEntry("s" + i, (i % phases) * TICK_MS);
+            pending.add(entry);
+            if (i % SILENT_EVERY != 0) byPhase.get(i % phases).add(entry);
+        }
+
+        for (long now = 0; now <= DURATION_MS; now += TICK_MS) {
+            int tick = (int) (now / TICK_MS);
+            if (tick < phases) {
+                for (int i = tick; i < SESSIONS; i += phases) {
+                    wheel.register(pending.get(i), INTERVAL_MS, READ_TIMEOUT_MS);
+                }
+            } else {
+                for (HeartbeatWheel.Entry entry : byPhase.get(tick % phases)) {
+                    entry.onRead(now);
+                }
+            }
+            firedThisTick = 0;
+            wheel.advance(now);
+            maxFiredPerTick = Math.max(maxFiredPerTick, firedThisTick);
+        }
+
+        int silent = SESSIONS / SILENT_EVERY;
+        assertEquals(silent, reaped, "every silent session should be reaped, and nobody else");
+        assertEquals(SESSIONS - silent, wheel.size());
+
+        // Live sessions get one heartbeat per interval; silent ones until they are reaped
+        long expected = (SESSIONS - silent) * (DURATION_MS / INTERVAL_MS) + silent * (READ_TIMEOUT_MS / INTERVAL_MS);
+        assertTrue(Math.abs(wheel.getHeartbeatsSent() - expected) <= SESSIONS, "heartbeats: " + wheel.getHeartbeatsSent());
+
+        // Staggered connects stay staggered: no tick does much more than its even share
+        int evenShare = SESSIONS / (int) (INTERVAL_MS / TICK_MS);
+        assertTrue(maxFiredPerTick <= evenShare * 2, "burst of " + maxFiredPerTick + " in one tick");
+    }
+
+    // A client may send CONNECT twice on one session; it must still get one heartbeat per interval
+    @Test
+    void repeatedRegistrationKeepsOneEntry() {
+        List<String> heartbeats = new ArrayList<>();
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK_MS, 64, new HeartbeatWheel.Sink() {
+            @Override
+            public void heartbeat(String sessionId) {
+                heartbeats.add(sessionId);
+            }
+
+            @Override
+            public void reap(String sessionId) {
+                reaped++;
+            }
+        });
+        HeartbeatWheel.Entry entry = wheel.newEntry("s", 0);
+        wheel.register(entry, INTERVAL_MS, 0);
+        wheel.advance(0);
+        wheel.register(entry, INTERVAL_MS, 0);
+        wheel.register(entry, INTERVAL_MS, 0);
+
+        for (long now = 0; now <= 3 * INTERVAL_MS; now += TICK_MS) {
+            wheel.advance(now);
+        }
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("s", "s", "s"), heartbeats);
+        assertEquals(0, reaped);
+    }
+
+    // A transport that never sends CONNECT is closed at the deadline; one that does is timed as usual
+    @Test
+    void reapsSessionsThatNeverConnect() {
+        List<String> reapedIds = new ArrayList<>();
+        List<String> heartbeats = new ArrayList<>();
+        HeartbeatWheel wheel = new HeartbeatWheel(TICK_MS, 64, new HeartbeatWheel.Sink() {
+            @Override
+            public void heartbeat(String sessionId) {
+                heartbeats.add(sessionId);
+            }
+
+            @Override
+            public void reap(String sessionId) {
+                reapedIds.add(sessionId);
+            }
+        });
+        long connectTimeout = 10_000;
+        HeartbeatWheel.Entry idle = wheel.newEntry("idle", 0);
+        HeartbeatWheel.Entry connected = wheel.newEntry("connected", 0);
+        HeartbeatWheel.Entry quiet = wheel.newEntry("quiet", 0);
+        wheel.awaitConnect(idle, connectTimeout);
+        wheel.awaitConnect(connected, connectTimeout);
+        wheel.awaitConnect(quiet, connectTimeout);
+
+        for (long now = 0; now <= 2 * INTERVAL_MS; now += TICK_MS) {
+            if (now == 1_000) {
+                wheel.register(connected, INTERVAL_MS, 0);
+                wheel.register(quiet, 0, 0); // negotiated no heartbeats at all
+            }
+            if (now == connectTimeout - TICK_MS) assertTrue(reapedIds.isEmpty());
+            wheel.advance(now);
+        }
+
+        assertEquals(List.of("idle"), reapedIds);
+        assertEquals(1, wheel.getConnectTimeouts());
+        assertEquals(List.of("connected", "connected"), heartbeats);
+        assertEquals(1, wheel.size());
+    }
+}
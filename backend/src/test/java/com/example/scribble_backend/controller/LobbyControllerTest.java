@@ -0,0 +1,44 @@
+package com.example.scribble_backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.service.GameService;
+import com.example.scribble_backend.service.ThumbnailService;
+
+class LobbyControllerTest {
+
+    private static final String ETAG = "\"1f-3\"";
+
+    private LobbyController controller() {
+        GameRoom room = new GameRoom();
+        GameService gameService = mock(GameService.class);
+        when(gameService.getLoadedRoom("123456")).thenReturn(room);
+        ThumbnailService thumbnails = mock(ThumbnailService.class);
+        when(thumbnails.getThumbnail(room)).thenReturn(new ThumbnailService.Encoded(3, new byte[] { 1 }, ETAG));
+
+        LobbyController controller = new LobbyController();
+        ReflectionTestUtils.setField(controller, "gameService", gameService);
+        ReflectionTestUtils.setField(controller, "thumbnailService", thumbnails);
+        return controller;
+    }
+
+    @Test
+    void thumbnailRevalidationFollowsIfNoneMatch() {
+        LobbyController controller = controller();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getThumbnail("123456", ETAG).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getThumbnail("123456", "W/" + ETAG).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getThumbnail("123456", "\"0-1\", " + ETAG).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, controller.getThumbnail("123456", "*").getStatusCode());
+
+        assertEquals(HttpStatus.OK, controller.getThumbnail("123456", "\"1f-2\"").getStatusCode());
+        assertEquals(HttpStatus.OK, controller.getThumbnail("123456", null).getStatusCode());
+    }
+}
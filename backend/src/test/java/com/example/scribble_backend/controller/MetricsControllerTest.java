@@ -0,0 +1,52 @@
+package com.example.scribble_backend.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.service.LatencyRecorder;
+
+class MetricsControllerTest {
+
+    private MetricsController controller(String adminToken, LatencyRecorder recorder) {
+        MetricsController controller = new MetricsController();
+        ReflectionTestUtils.setField(controller, "adminToken", adminToken);
+        ReflectionTestUtils.setField(controller, "latencyRecorder", recorder);
+        return controller;
+    }
+
+    private static LatencyRecorder recorderWithSample() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        ReflectionTestUtils.setField(recorder, "enabled", true);
+        recorder.recordClientLeg("room", LatencyRecorder.CHAT_CLIENT, 1_000L, 1_005L);
+        return recorder;
+    }
+
+    @Test
+    void latencyResetIsOffWithoutAToken() {
+        LatencyRecorder recorder = recorderWithSample();
+        MetricsController controller = controller("", recorder);
+
+        assertEquals(HttpStatus.NOT_FOUND, controller.resetLatency(null).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.resetLatency("").getStatusCode());
+        assertFalse(recorder.snapshot().isEmpty());
+    }
+
+    @Test
+    void latencyResetNeedsTheAdminToken() {
+        LatencyRecorder recorder = recorderWithSample();
+        MetricsController controller = controller("s3cret", recorder);
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.resetLatency(null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, controller.resetLatency("s3cre").getStatusCode());
+        assertNotNull(recorder.snapshot("room"));
+
+        assertEquals(HttpStatus.NO_CONTENT, controller.resetLatency("s3cret").getStatusCode());
+        assertNull(recorder.snapshot("room"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.scribble_backend.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.Player;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecordingTest {
+
+    @Test
+    void dumpHoldsTheGameEvents() throws Exception {
+        Path dir = Files.createTempDirectory("jfr");
+        FlightRecording recording = new FlightRecording();
+        ReflectionTestUtils.setField(recording, "enabled", true);
+        ReflectionTestUtils.setField(recording, "settings", "default");
+        ReflectionTestUtils.setField(recording, "maxAgeMinutes", 5L);
+        ReflectionTestUtils.setField(recording, "maxSizeMb", 20L);
+        ReflectionTestUtils.setField(recording, "broadcastThreshold", "1 ms");
+        ReflectionTestUtils.setField(recording, "dumpDir", dir.toString());
+        recording.start();
+        try {
+            GameRoom room = new GameRoom();
+            room.setRoomId("424242");
+            room.addPlayer(new Player("s1", "alice", 0));
+            room.addPlayer(new Player("s2", "bob", 0));
+            RoomLifecycleEvent.commit(room.getRoomId(), RoomLifecycleEvent.CREATED, 1);
+            RoundEndEvent.commit(room);
+
+            BroadcastEvent fast = new BroadcastEvent(); // under the threshold, so never written
+            fast.begin();
+            fast.roomId = room.getRoomId();
+            fast.commit();
+
+            Path copy = Files.createTempFile("scribble-dump", ".jfr");
+            try (InputStream in = recording.dump().getInputStream()) {
+                Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // Nothing is left behind in the dump directory once the download is done
+            try (Stream<Path> left = Files.list(dir)) {
+                assertEquals(0, left.count());
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(copy).stream()
+                    .filter(e -> e.getEventType().getName().startsWith("scribble."))
+                    .toList();
+
+            assertEquals(2, events.size());
+            RecordedEvent created = events.stream().filter(e -> e.getEventType().getName().equals("scribble.RoomLifecycle")).findFirst().orElseThrow();
+            assertEquals("424242", created.getString("roomId"));
+            assertEquals(RoomLifecycleEvent.CREATED, created.getString("action"));
+            RecordedEvent roundEnd = events.stream().filter(e -> e.getEventType().getName().equals("scribble.RoundEnd")).findFirst().orElseThrow();
+            assertEquals(2, roundEnd.getInt("players"));
+        } finally {
+            recording.stop();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.scribble_backend.model;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+// Sizes the object graph each room owns, so the numbers don't depend on when the GC last ran
+class GameRoomFootprintTest {
+
+    static {
+        // The message ring holds records, whose field offsets Unsafe won't hand out
+        System.setProperty("jol.magicFieldOffset", "true");
+    }
+
+    @Test
+    void idleRoomStaysSmall() {
+        long idle = GraphLayout.parseInstance(idleRoom()).totalSize();
+        long active = GraphLayout.parseInstance(activeRoom()).totalSize();
+        System.out.println("[Footprint] idle room " + idle + " B, active room " + active + " B ("
+                + System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + ")");
+
+        assertTrue(idle < 1024, "idle room footprint regressed: " + idle + " bytes");
+        assertTrue(active > idle, "active room should cost more than an idle one");
+    }
+
+    @Test
+    void idleRoomAllocatesNoHistoryOrReplayBuffers() {
+        GameRoom room = idleRoom();
+        GraphLayout layout = GraphLayout.parseInstance(room);
+
+        assertTrue(layout.getClasses().stream().noneMatch(c -> c == StrokeHistory.class || c == RoomMessageLog.class),
+                "idle room allocated lazily-built structures: " + layout.getClasses());
+    }
+
+    // Lobby with only the host seated, as left behind by most abandoned games
+    private GameRoom idleRoom() {
+        GameRoom room = new GameRoom();
+        room.setRoomId("100000");
+        room.addPlayer(new Player("s0", "host", 0));
+        return room;
+    }
+
+    private GameRoom activeRoom() {
+        GameRoom room = new GameRoom();
+        room.setRoomId("100000");
+        for (int p = 0; p < 8; p++) {
+            room.addPlayer(new Player("s-" + p, "player" + p, p * 10));
+        }
+        room.setGameRunning(true);
+        room.setWordChoices(List.of("apple", "banana", "house"));
+        room.setCurrentWord("banana");
+        room.setWordChosen(true);
+        room.setCurrentDrawerSessionId("s-0");
+        room.setHintTimes(new int[] {90, 60, 30});
+        room.reveal(1);
+        room.markGuessedCorrectly("s-1");
+        room.markGuessedCorrectly("s-2");
+        // Mid-round: a few strokes on the canvas and the last messages kept for resuming clients
+        for (int i = 0; i < 20; i++) {
+            room.applyDraw(StrokeHistoryTest.draw(DrawMessage.BEGIN, "stroke-" + i, 10 * i, 100, 10 * i + 50, 300, 10 * i, 500));
+            room.applyDraw(StrokeHistoryTest.draw(DrawMessage.END, "stroke-" + i));
+        }
+        for (int i = 0; i < 50; i++) {
+            room.getMessageLog().append("chat", "guess " + i);
+        }
+        return room;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.scribble_backend.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.filter.AhoCorasick;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class GameRoomRecycleTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void recycledRoomLooksNew() {
+        GameRoom room = playedRoom();
+        room.recycle();
+
+        assertEquals(mapper.writeValueAsString(new GameRoom()), mapper.writeValueAsString(room));
+        assertEquals(0, room.getPlayerCount());
+        // State the JSON doesn't show
+        assertTrue(room.getDrawHistory().isEmpty());
+        assertNull(room.getAnswerFilter());
+        assertEquals(0, room.getMessageLog().getLastSeq());
+        assertEquals(List.of(), room.getMessageLog().since(0));
+    }
+
+    // Every field, serialized or not: playedRoom() must change it and recycle() must put it back, so a
+    // field added to GameRoom fails here until both know about it
+    @Test
+    void recycleResetsEveryField() throws IllegalAccessException {
+        GameRoom fresh = new GameRoom();
+        GameRoom room = playedRoom();
+        long generation = room.getGeneration();
+
+        for (Field field : instanceFields()) {
+            if (field.getName().equals("generation")) continue;
+            assertFalse(sameState(field, fresh, room), "playedRoom() leaves " + field.getName() + " as a new room has it");
+        }
+        room.recycle();
+        for (Field field : instanceFields()) {
+            if (field.getName().equals("generation")) continue;
+            assertTrue(sameState(field, fresh, room), "recycle() doesn't reset " + field.getName());
+        }
+        assertEquals(generation + 1, room.getGeneration());
+    }
+
+    @Test
+    void rematchKeepsSeatsAndResetsScores() {
+        GameRoom room = playedRoom();
+        room.resetForRematch(5000);
+
+        assertEquals(3, room.getPlayerCount());
+        assertEquals("host", room.getPlayerBySessionId("s0").getUsername());
+        room.getPlayers().forEach(p -> assertEquals(0, p.getScore()));
+        assertEquals(1, room.getCurrentRound());
+        assertEquals(-1, room.getDrawerIndex());
+        assertFalse(room.isGameRunning());
+        assertFalse(room.isGameOver());
+        assertNull(room.getCurrentWord());
+        assertEquals(room.getDrawingTime(), room.getRoundTime());
+        assertEquals(5000, room.getLastActivityTime());
+    }
+
+    // A room after its last round, as the game loop leaves it, with every setting changed from the default
+    private GameRoom playedRoom() {
+        GameRoom room = new GameRoom();
+        room.setRoomId("123456");
+        room.setLanguage("German");
+        room.setScoringMode("Competitive");
+        room.setDrawingTime(80);
+        room.setMaxPlayers(8);
+        room.setPlayersPerIpLimit(2);
+        room.setCustomWordsPerTurn(1);
+        room.setCustomWords(List.of("lighthouse"));
+        room.setPrivate(true);
+        room.setLobbyName("Friday night");
+        for (int p = 0; p < 3; p++) {
+            room.addPlayer(new Player("s" + p, p == 0 ? "host" : "player" + p, 100 * (p + 1)));
+        }
+        room.setWordChoices(List.of("apple", "banana", "house"));
+        room.setWordChosen(true);
+        room.setCurrentWord("GAME OVER");
+        room.setAnswerFilter(AhoCorasick.build(List.of("house")));
+        room.setCurrentDrawerSessionId("s1");
+        room.setRoundTime(12);
+        room.setGameRunning(true);
+        room.setHintTimes(new int[] {40, 20});
+        room.setHintsRevealed(1);
+        room.setMaxRounds(2);
+        room.setCurrentRound(room.getMaxRounds() + 1);
+        room.setDrawerIndex(2);
+        room.markGuessedCorrectly("s2");
+        room.setRoundStartTime(4000);
+        room.applyDraw(StrokeHistoryTest.draw(DrawMessage.BEGIN, "a", 0, 0, 100, 100));
+        room.reveal(1);
+        ReflectionTestUtils.setField(room, "skipVoteMask", 1L); // has no setter
+        room.updateActivity(4500);
+        room.getMessageLog().append("chat", "{}");
+        return room;
+    }
+
+    private static List<Field> instanceFields() {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : GameRoom.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            field.setAccessible(true);
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    // Slots and the message ring are kept for reuse, so those compare by what they hold
+    private static boolean sameState(Field field, GameRoom expected, GameRoom actual) throws IllegalAccessException {
+        switch (field.getName()) {
+            case "slots":
+                return actual.getPlayers().equals(expected.getPlayers());
+            case "messageLog":
+                return actual.getMessageLog().getLastSeq() == expected.getMessageLog().getLastSeq()
+                        && actual.getMessageLog().since(0).equals(expected.getMessageLog().since(0));
+            default:
+                return Objects.deepEquals(field.get(expected), field.get(actual));
+        }
+    }
+}
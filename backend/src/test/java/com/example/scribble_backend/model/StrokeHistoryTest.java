@@ -0,0 +1,172 @@
+package com.example.scribble_backend.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StrokeHistoryTest {
+
+    static DrawMessage draw(String type, String strokeId, int... points) {
+        DrawMessage message = new DrawMessage();
+        message.setType(type);
+        message.setStrokeId(strokeId);
+        message.setColor("#000000");
+        message.setLineWidth(8);
+        message.setPoints(points.length == 0 ? null : points);
+        return message;
+    }
+
+    static int[] line(int fromX, int toX, int y) {
+        int[] points = new int[(toX - fromX + 1) * 2];
+        for (int x = fromX, i = 0; x <= toX; x++) {
+            points[i++] = x;
+            points[i++] = y;
+        }
+        return points;
+    }
+
+    @Test
+    void straightStrokeIsStoredAsItsEndpoints() {
+        StrokeHistory history = new StrokeHistory();
+        history.apply(draw(DrawMessage.BEGIN, "a", 0, 500));
+        history.apply(draw(DrawMessage.APPEND, "a", line(1, 100, 500)));
+        history.apply(draw(DrawMessage.END, "a"));
+
+        List<DrawMessage> snapshot = history.snapshot();
+        assertEquals(1, snapshot.size());
+        assertArrayEquals(new int[] {0, 500, 100, 500}, snapshot.get(0).getPoints());
+        assertEquals(101, history.getRawPointCount());
+        assertEquals(2, history.getStoredPointCount());
+    }
+
+    @Test
+    void repeatedPointsAreDroppedAndCoordinatesClamped() {
+        StrokeHistory history = new StrokeHistory();
+        history.apply(draw(DrawMessage.BEGIN, "a", 10, 10, 10, 10, 10, 10));
+        history.apply(draw(DrawMessage.END, "a", 1200, -5));
+
+        assertArrayEquals(new int[] {10, 10, 1000, 0}, history.snapshot().get(0).getPoints());
+    }
+
+    // Snapshots go out with every state broadcast; they must not cut the stroke being drawn into pieces
+    @Test
+    void snapshotDoesNotCommitTheOpenStroke() {
+        StrokeHistory history = new StrokeHistory();
+        history.apply(draw(DrawMessage.BEGIN, "a", 0, 0));
+        history.apply(draw(DrawMessage.APPEND, "a", 50, 50));
+
+        List<DrawMessage> during = history.snapshot();
+        assertEquals(1, during.size());
+        assertEquals(DrawMessage.STROKE, during.get(0).getType());
+
+        assertTrue(history.apply(draw(DrawMessage.APPEND, "a", 100, 0)));
+        history.apply(draw(DrawMessage.END, "a"));
+
+        List<DrawMessage> after = history.snapshot();
+        assertEquals(1, after.size());
+        assertArrayEquals(new int[] {0, 0, 50, 50, 100, 0}, after.get(0).getPoints());
+    }
+
+    private static void stroke(StrokeHistory history, String id, int y) {
+        history.apply(draw(DrawMessage.BEGIN, id, 0, y));
+        history.apply(draw(DrawMessage.END, id, 100, y));
+    }
+
+    private static List<String> undone(StrokeHistory history) {
+        return history.snapshot().stream().filter(DrawMessage::isUndone).map(DrawMessage::getStrokeId).toList();
+    }
+
+    @Test
+    void undoAndRedoFlagStrokesInPlace() {
+        StrokeHistory history = new StrokeHistory();
+        stroke(history, "a", 100);
+        stroke(history, "b", 200);
+        stroke(history, "c", 300);
+
+        assertTrue(history.apply(draw(DrawMessage.UNDO, "c")));
+        assertTrue(history.apply(draw(DrawMessage.UNDO, "b")));
+        assertFalse(history.apply(draw(DrawMessage.UNDO, "b"))); // already undone
+        assertFalse(history.apply(draw(DrawMessage.UNDO, "nope")));
+        assertEquals(List.of("b", "c"), undone(history));
+
+        assertTrue(history.apply(draw(DrawMessage.REDO, "b")));
+        assertFalse(history.apply(draw(DrawMessage.REDO, "a"))); // never undone
+        assertEquals(List.of("c"), undone(history));
+        assertEquals(List.of("a", "b", "c"), history.snapshot().stream().map(DrawMessage::getStrokeId).toList());
+    }
+
+    @Test
+    void newStrokeDropsUndoneOnes() {
+        StrokeHistory history = new StrokeHistory();
+        stroke(history, "a", 100);
+        stroke(history, "b", 200);
+        history.apply(draw(DrawMessage.UNDO, "b"));
+
+        stroke(history, "c", 300);
+        assertEquals(List.of("a", "c"), history.snapshot().stream().map(DrawMessage::getStrokeId).toList());
+        assertFalse(history.apply(draw(DrawMessage.REDO, "b")));
+
+        // Fills count as new drawing too
+        history.apply(draw(DrawMessage.UNDO, "c"));
+        assertTrue(history.apply(draw(DrawMessage.FILL, "f", 500, 500)));
+        assertEquals(List.of("a", "f"), history.snapshot().stream().map(DrawMessage::getStrokeId).toList());
+    }
+
+    // A zigzag can't be simplified below the open-stroke limit, so it is stored in joined pieces
+    @Test
+    void longStrokeIsStoredInPiecesThatUndoTogether() {
+        StrokeHistory history = new StrokeHistory();
+        int[] zigzag = new int[1000 * 2];
+        for (int i = 0; i < 1000; i++) {
+            zigzag[2 * i] = i;
+            zigzag[2 * i + 1] = i % 2 == 0 ? 0 : 50;
+        }
+        history.apply(draw(DrawMessage.BEGIN, "z", 0, 0));
+        history.apply(draw(DrawMessage.APPEND, "z", zigzag));
+        history.apply(draw(DrawMessage.END, "z"));
+
+        List<DrawMessage> pieces = history.snapshot();
+        assertTrue(pieces.size() > 1);
+        assertEquals(1000, history.getStoredPointCount() - (pieces.size() - 1)); // joints are stored twice
+        for (int i = 0; i < pieces.size(); i++) {
+            int[] points = pieces.get(i).getPoints();
+            assertEquals("z", pieces.get(i).getStrokeId());
+            assertTrue(points.length / 2 <= 256);
+            if (i > 0) {
+                int[] previous = pieces.get(i - 1).getPoints();
+                assertEquals(previous[previous.length - 2], points[0]);
+                assertEquals(previous[previous.length - 1], points[1]);
+            }
+        }
+
+        assertTrue(history.apply(draw(DrawMessage.UNDO, "z")));
+        assertTrue(history.snapshot().stream().allMatch(DrawMessage::isUndone));
+    }
+
+    @Test
+    void committedSnapshotIsReusedUntilSomethingChanges() {
+        StrokeHistory history = new StrokeHistory();
+        stroke(history, "a", 100);
+        stroke(history, "b", 200);
+
+        List<DrawMessage> first = history.snapshot();
+        assertSame(first, history.snapshot());
+
+        history.apply(draw(DrawMessage.UNDO, "b"));
+        List<DrawMessage> afterUndo = history.snapshot();
+        assertNotSame(first, afterUndo);
+        assertFalse(first.get(1).isUndone());
+        assertTrue(afterUndo.get(1).isUndone());
+        assertSame(afterUndo, history.snapshot());
+
+        history.apply(draw(DrawMessage.UNDO, "b")); // no change, cache kept
+        assertSame(afterUndo, history.snapshot());
+    }
+}
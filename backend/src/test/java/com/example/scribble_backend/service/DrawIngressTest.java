@@ -0,0 +1,104 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+
+class DrawIngressTest {
+
+    private final DrawIngress ingress = new DrawIngress();
+    private final GameRoom room = new GameRoom();
+
+    DrawIngressTest() {
+        ReflectionTestUtils.setField(ingress, "segmentsPerSecond", 300.0);
+        ReflectionTestUtils.setField(ingress, "burstSegments", 600.0);
+        room.setRoomId("123456");
+        room.setCurrentDrawerSessionId("drawer");
+    }
+
+    @Test
+    void onlyTheDrawerGetsThrough() {
+        assertNull(ingress.admit(room, "guesser", clear()));
+        assertNull(ingress.admit(room, null, clear()));
+        assertNotNull(ingress.admit(room, "drawer", clear()));
+    }
+
+    @Test
+    void clampsAndRejectsFields() {
+        DrawMessage begin = stroke(DrawMessage.BEGIN, new int[] {-50, 400, 2000, 10, 7});
+        begin.setLineWidth(10_000);
+        DrawMessage admitted = ingress.admit(room, "drawer", begin);
+        assertArrayEquals(new int[] {0, 400, 1000, 10}, admitted.getPoints());
+        assertEquals(DrawIngress.MAX_LINE_WIDTH, admitted.getLineWidth());
+
+        DrawMessage badColor = stroke(DrawMessage.BEGIN, new int[] {1, 1});
+        badColor.setColor("red;background:url(x)");
+        assertNull(ingress.admit(room, "drawer", badColor));
+
+        DrawMessage longId = stroke(DrawMessage.APPEND, new int[] {1, 1});
+        longId.setStrokeId("x".repeat(DrawIngress.MAX_STROKE_ID_LENGTH + 1));
+        assertNull(ingress.admit(room, "drawer", longId));
+
+        assertNull(ingress.admit(room, "drawer", stroke(DrawMessage.APPEND, new int[2 * DrawIngress.MAX_POINTS_PER_MESSAGE + 2])));
+
+        DrawMessage unknown = new DrawMessage();
+        unknown.setType("EXPLODE");
+        assertNull(ingress.admit(room, "drawer", unknown));
+    }
+
+    @Test
+    void floodIsThinnedThenDropped() {
+        int[] points = new int[2 * DrawIngress.MAX_POINTS_PER_MESSAGE];
+        int relayedPoints = 0;
+        int dropped = 0;
+        for (int i = 0; i < 10; i++) {
+            DrawMessage admitted = ingress.admit(room, "drawer", stroke(DrawMessage.APPEND, points.clone()));
+            if (admitted == null) dropped++;
+            else relayedPoints += admitted.getPoints().length / 2;
+        }
+        // 2560 points sent at once; the burst allows 600 (plus whatever refilled while the loop ran)
+        assertTrue(relayedPoints >= 600 && relayedPoints < 700, "relayed " + relayedPoints);
+        assertTrue(dropped >= 6, "dropped " + dropped);
+    }
+
+    @Test
+    void newDrawerStartsWithAFullBudget() {
+        for (int i = 0; i < 20; i++) {
+            ingress.admit(room, "drawer", clear());
+        }
+        assertNull(ingress.admit(room, "drawer", clear()));
+
+        room.setCurrentDrawerSessionId("next");
+        assertNotNull(ingress.admit(room, "next", clear()));
+    }
+
+    @Test
+    void thinningKeepsBothEnds() {
+        int[] points = {0, 0, 1, 1, 2, 2, 3, 3, 4, 4};
+        assertArrayEquals(new int[] {0, 0, 2, 2, 4, 4}, DrawIngress.thin(points, 3));
+    }
+
+    private static DrawMessage stroke(String type, int[] points) {
+        DrawMessage message = new DrawMessage();
+        message.setType(type);
+        message.setStrokeId("drawer-1");
+        message.setColor("#FF0000");
+        message.setLineWidth(8);
+        message.setPoints(points);
+        return message;
+    }
+
+    private static DrawMessage clear() {
+        DrawMessage message = new DrawMessage();
+        message.setType(DrawMessage.CLEAR);
+        return message;
+    }
+}
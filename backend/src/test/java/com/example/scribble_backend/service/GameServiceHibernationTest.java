@@ -0,0 +1,56 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.GameRoomConfig;
+
+@SpringBootTest(properties = {
+        "app.simulation.run-on-startup=false",
+        "app.hibernation.enabled=true",
+        "app.hibernation.dir=${java.io.tmpdir}/scribble-hibernation-test" })
+@ActiveProfiles("simulation")
+class GameServiceHibernationTest {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private RoomHibernationStore hibernationStore;
+
+    // A private lobby everyone dropped out of, parked by the cleanup
+    private void park(String roomId) {
+        GameRoomConfig config = new GameRoomConfig();
+        config.setPrivate(true);
+        config.setLobbyName("Friday night");
+        GameRoom room = gameService.createRoom(roomId, "host", roomId + "-host", config);
+        gameService.markDisconnected(roomId + "-host");
+        gameService.retireRoom(room);
+        assertNull(gameService.getLoadedRoom(roomId));
+        assertTrue(hibernationStore.isParked(roomId));
+    }
+
+    @Test
+    void createCannotTakeTheIdOfAParkedLobby() {
+        park("parked-1");
+
+        assertNull(gameService.createRoom("parked-1", "stranger", "parked-1-stranger", new GameRoomConfig()));
+        assertTrue(hibernationStore.isParked("parked-1"));
+
+        GameRoom thawed = gameService.getRoom("parked-1");
+        assertNotNull(thawed);
+        assertEquals("Friday night", thawed.getLobbyName());
+        assertFalse(hibernationStore.isParked("parked-1"));
+        assertSame(thawed, gameService.getRoom("parked-1"));
+    }
+}
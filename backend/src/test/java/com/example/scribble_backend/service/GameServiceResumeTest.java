@@ -0,0 +1,71 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.model.GameRoomConfig;
+import com.example.scribble_backend.model.Player;
+
+@SpringBootTest(properties = "app.simulation.run-on-startup=false")
+@ActiveProfiles("simulation")
+class GameServiceResumeTest {
+
+    @Autowired
+    private GameService gameService;
+
+    // Two seats, both taken; the guest then drops and holds its seat through the grace period
+    private GameRoom fullRoomWithDroppedGuest(String roomId) {
+        GameRoomConfig config = new GameRoomConfig();
+        config.setMaxPlayers(2);
+        GameRoom room = gameService.createRoom(roomId, "host", roomId + "-host", config, "10.0.0.1");
+        gameService.joinRoom(roomId, "guest", roomId + "-guest", "10.0.0.2");
+        gameService.markDisconnected(roomId + "-guest");
+        return room;
+    }
+
+    @Test
+    void droppedPlayerReclaimsSeatInFullRoomWithItsToken() {
+        GameRoom room = fullRoomWithDroppedGuest("resume-1");
+        Player guest = room.getPlayerBySessionId("resume-1-guest");
+        String token = guest.getResumeToken();
+
+        assertSame(room, gameService.joinRoom("resume-1", "guest", "resume-1-guest2", "10.0.0.9", null, token));
+        assertSame(guest, room.getPlayerBySessionId("resume-1-guest2"));
+        assertTrue(guest.isConnected());
+        assertEquals(2, room.getPlayerCount());
+        // Tokens are single use
+        assertNotEquals(token, guest.getResumeToken());
+        assertNull(gameService.resumeSession("resume-1", token, "resume-1-guest3", null));
+    }
+
+    @Test
+    void sameNameAndAddressWithoutTokenDoesNotTakeTheSeat() {
+        GameRoom room = fullRoomWithDroppedGuest("resume-2");
+
+        assertNull(gameService.joinRoom("resume-2", "guest", "resume-2-impostor", "10.0.0.2"));
+        assertNull(gameService.joinRoom("resume-2", "guest", "resume-2-impostor", null, null, "not-a-token"));
+        assertNull(room.getPlayerBySessionId("resume-2-impostor"));
+        assertNotNull(room.getPlayerBySessionId("resume-2-guest"));
+    }
+
+    @Test
+    void resumeRebindsTheDrawer() {
+        GameRoom room = fullRoomWithDroppedGuest("resume-3");
+        Player guest = room.getPlayerBySessionId("resume-3-guest");
+        room.setCurrentDrawerSessionId("resume-3-guest");
+
+        assertSame(guest, gameService.resumeSession("resume-3", guest.getResumeToken(), "resume-3-guest2", null));
+        assertEquals("resume-3-guest2", room.getCurrentDrawerSessionId());
+        assertNull(gameService.resumeSession("resume-3", null, "resume-3-guest4", null));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.simulation.VirtualClock;
+
+@SpringBootTest(properties = "app.simulation.run-on-startup=false")
+@ActiveProfiles("simulation")
+class GameServiceRoomLifecycleTest {
+
+    private static final int RACES = 200;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private RoomPool roomPool;
+
+    @Autowired
+    private VirtualClock clock;
+
+    // A join racing the retirement of an empty room either lands in a live room or fails; it never
+    // seats anyone in a room that goes back to the pool
+    @Test
+    void joinRacingRetireNeverSeatsIntoAPooledRoom() throws Exception {
+        GameRoom[] joined = new GameRoom[RACES];
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < RACES; i++) {
+                String roomId = "race-" + i;
+                GameRoom room = gameService.createRoom(roomId, "host", roomId + "-host");
+                gameService.removePlayerFromRoom(roomId, roomId + "-host");
+
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<GameRoom> join = threads.submit(() -> {
+                    start.await();
+                    return gameService.joinRoom(roomId, "guest", roomId + "-guest");
+                });
+                Future<?> retire = threads.submit(() -> {
+                    start.await();
+                    gameService.retireRoom(room);
+                    return null;
+                });
+                joined[i] = join.get();
+                retire.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        clock.advance(Duration.ofHours(1));
+        Set<GameRoom> reused = Collections.newSetFromMap(new IdentityHashMap<>());
+        while ((int) roomPool.getStats().get("pooled") > 0) {
+            reused.add(roomPool.acquire());
+        }
+
+        for (int i = 0; i < RACES; i++) {
+            if (joined[i] == null) continue;
+            assertFalse(reused.contains(joined[i]), "race " + i + " seated a player in a pooled room");
+            assertNotNull(joined[i].getPlayerBySessionId("race-" + i + "-guest"));
+        }
+    }
+
+    @Test
+    void joinAfterRetireFindsNothing() {
+        GameRoom room = gameService.createRoom("retired-1", "host", "retired-1-host");
+        gameService.removePlayerFromRoom("retired-1", "retired-1-host");
+        gameService.retireRoom(room);
+
+        assertNull(gameService.joinRoom("retired-1", "guest", "retired-1-guest"));
+        assertNull(gameService.getLoadedRoom("retired-1"));
+        assertTrue(room.getPlayers().isEmpty());
+    }
+
+    @Test
+    void retiringARoomTwiceReleasesItOnce() {
+        GameRoom room = gameService.createRoom("retired-2", "host", "retired-2-host");
+        gameService.removePlayerFromRoom("retired-2", "retired-2-host");
+        long released = (long) roomPool.getStats().get("released");
+
+        gameService.retireRoom(room);
+        gameService.retireRoom(room);
+
+        assertEquals(released + 1, (long) roomPool.getStats().get("released"));
+    }
+
+    @Test
+    void createCannotReplaceAQuickPlayRoom() {
+        GameRoom quickPlay = gameService.createQuickPlayRoom("en_us");
+        String roomId = quickPlay.getRoomId();
+
+        assertNull(gameService.createRoom(roomId, "intruder", roomId + "-intruder"));
+        assertSame(quickPlay, gameService.getLoadedRoom(roomId));
+        assertEquals("Quick Play", quickPlay.getLobbyName());
+        assertTrue(quickPlay.getPlayers().isEmpty());
+    }
+}
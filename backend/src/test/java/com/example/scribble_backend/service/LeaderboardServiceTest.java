@@ -0,0 +1,90 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.LeaderboardEntry;
+import com.example.scribble_backend.model.Player;
+
+class LeaderboardServiceTest {
+
+    private LeaderboardService leaderboard(long rankRefreshMs) {
+        LeaderboardService service = new LeaderboardService();
+        ReflectionTestUtils.setField(service, "rankRefreshMs", rankRefreshMs);
+        return service;
+    }
+
+    private static Player player(String name, int score) {
+        return new Player(name + "-session", name, score);
+    }
+
+    @Test
+    void pagesAndRanksFollowScoreThenName() {
+        LeaderboardService service = leaderboard(0);
+        service.recordGame(List.of(player("carol", 300), player("alice", 500), player("bob", 300)));
+        service.recordGame(List.of(player("dave", 100)));
+
+        assertEquals(List.of("alice", "bob"), names(service.getTopPage(0, 2)));
+        assertEquals(List.of("carol", "dave"), names(service.getTopPage(1, 2)));
+        assertTrue(service.getTopPage(2, 2).isEmpty());
+
+        assertEquals(1, service.getRank("alice"));
+        assertEquals(3, service.getRank(" carol "));
+        assertEquals(-1, service.getRank("nobody"));
+
+        // Scores accumulate across games and move the player up
+        service.recordGame(List.of(player("dave", 450)));
+        assertEquals(1, service.getRank("dave"));
+        assertEquals(2, service.getRank("alice"));
+        assertEquals(4, service.getTopPage(0, 10).size());
+    }
+
+    @Test
+    void ranksAreServedFromTheSnapshotUntilTheRefreshInterval() {
+        LeaderboardService service = leaderboard(60_000);
+        service.recordGame(List.of(player("alice", 100)));
+        assertEquals(1, service.getRank("alice"));
+
+        service.recordGame(List.of(player("bob", 200)));
+        assertEquals(1, service.getRank("alice"));
+        assertEquals(-1, service.getRank("bob"));
+        assertEquals(200, service.getEntry("bob").score());
+
+        ReflectionTestUtils.setField(service, "nextRebuildAt", System.nanoTime());
+        assertEquals(2, service.getRank("alice"));
+        assertEquals(1, service.getRank("bob"));
+    }
+
+    @Test
+    void failedFlushIsRetriedAndCountedOnce() throws IOException {
+        Path file = Files.createTempDirectory("leaderboard").resolve("leaderboard.tsv");
+        Files.createDirectory(file); // can't be opened for appending
+        LeaderboardService service = leaderboard(0);
+        ReflectionTestUtils.setField(service, "storeFile", file.toString());
+        ReflectionTestUtils.setField(service, "maxBatch", 100);
+
+        service.recordGame(List.of(player("alice", 100)));
+        assertEquals(0, service.flush());
+        Files.delete(file);
+        assertEquals(1, service.flush());
+        assertEquals(0, service.flush());
+
+        LeaderboardService reloaded = leaderboard(0);
+        ReflectionTestUtils.setField(reloaded, "storeFile", file.toString());
+        reloaded.load();
+        assertEquals(100, reloaded.getEntry("alice").score());
+        assertEquals(1, reloaded.getEntry("alice").gamesPlayed());
+    }
+
+    private static List<String> names(List<LeaderboardEntry> entries) {
+        return entries.stream().map(LeaderboardEntry::username).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.simulation.VirtualClock;
+
+class MatchmakingServiceTest {
+
+    private final VirtualClock clock = new VirtualClock(Instant.parse("2025-01-01T00:00:00Z"));
+    private final MatchmakingService matchmaking = new MatchmakingService();
+
+    MatchmakingServiceTest() {
+        ReflectionTestUtils.setField(matchmaking, "clock", clock);
+        ReflectionTestUtils.setField(matchmaking, "reservationMs", 15000L);
+        ReflectionTestUtils.setField(matchmaking, "maxReservationsPerIp", 2);
+    }
+
+    private GameRoom room(String roomId, int maxPlayers) {
+        GameRoom room = new GameRoom();
+        room.setRoomId(roomId);
+        room.setLanguage("English");
+        room.setMaxPlayers(maxPlayers);
+        matchmaking.track(room);
+        return room;
+    }
+
+    @Test
+    void reservationOnlyCountsForTheNameItWasMadeFor() {
+        GameRoom room = room("100001", 1);
+        MatchmakingService.Reservation reservation = matchmaking.reserve("English", "alice", "10.0.0.1");
+        assertNotNull(reservation);
+
+        assertEquals(reservation.token(), matchmaking.reservedFor(room, reservation.token(), "alice"));
+        assertNull(matchmaking.reservedFor(room, reservation.token(), "mallory"));
+        assertNull(matchmaking.reservedFor(room, "forged", "alice"));
+        // Someone else holding the token still finds the seat taken
+        assertEquals(0, matchmaking.freeSeats(room, null));
+        assertEquals(1, matchmaking.freeSeats(room, reservation.token()));
+
+        clock.advance(Duration.ofSeconds(16));
+        assertNull(matchmaking.reservedFor(room, reservation.token(), "alice"));
+    }
+
+    @Test
+    void eachAddressHoldsOnlyAFewReservations() {
+        GameRoom room = room("100002", 8);
+        assertTrue(matchmaking.tryAcquireQuota("10.0.0.1"));
+        MatchmakingService.Reservation first = matchmaking.reserve("English", "alice", "10.0.0.1");
+        assertTrue(matchmaking.tryAcquireQuota("10.0.0.1"));
+        matchmaking.reserve("English", "alice", "10.0.0.1");
+
+        assertFalse(matchmaking.tryAcquireQuota("10.0.0.1"));
+        assertTrue(matchmaking.tryAcquireQuota("10.0.0.2")); // other clients are unaffected
+        matchmaking.releaseQuota("10.0.0.2");
+
+        // Redeeming or expiring a reservation gives the slot back
+        matchmaking.redeem(room, first.token());
+        matchmaking.redeem(room, first.token()); // only once
+        assertTrue(matchmaking.tryAcquireQuota("10.0.0.1"));
+        assertFalse(matchmaking.tryAcquireQuota("10.0.0.1"));
+        matchmaking.releaseQuota("10.0.0.1");
+
+        clock.advance(Duration.ofSeconds(16));
+        assertEquals(1, matchmaking.expireReservations());
+        assertTrue(matchmaking.tryAcquireQuota("10.0.0.1"));
+        assertTrue(matchmaking.tryAcquireQuota("10.0.0.1"));
+        assertFalse(matchmaking.tryAcquireQuota("10.0.0.1"));
+    }
+}
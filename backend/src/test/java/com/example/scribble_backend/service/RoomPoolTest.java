@@ -0,0 +1,151 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+import com.example.scribble_backend.simulation.VirtualClock;
+
+class RoomPoolTest {
+
+    private final VirtualClock clock = new VirtualClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+    private RoomPool pool(int capacity) {
+        RoomPool pool = new RoomPool();
+        ReflectionTestUtils.setField(pool, "capacity", capacity);
+        ReflectionTestUtils.setField(pool, "quarantineMs", 60000L);
+        ReflectionTestUtils.setField(pool, "clock", clock);
+        return pool;
+    }
+
+    private GameRoom retired(String roomId) {
+        GameRoom room = new GameRoom();
+        room.setRoomId(roomId);
+        room.setCurrentWord("banana");
+        room.getMessageLog().append("chat", "{}");
+        return room;
+    }
+
+    @Test
+    void releasedRoomKeepsItsStateUntilQuarantineEnds() {
+        RoomPool pool = pool(4);
+        GameRoom room = retired("123456");
+        pool.release(room);
+
+        clock.advance(Duration.ofSeconds(59));
+        assertNotSame(room, pool.acquire());
+        assertEquals("123456", room.getRoomId()); // a late reader still sees the room it looked up
+
+        clock.advance(Duration.ofSeconds(1));
+        assertSame(room, pool.acquire());
+        assertNull(room.getRoomId());
+        assertNull(room.getCurrentWord());
+        assertEquals(0, room.getMessageLog().getLastSeq());
+    }
+
+    private RoomBroadcaster broadcaster(SimpMessagingTemplate template) {
+        RoomBroadcaster broadcaster = new RoomBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "messagingTemplate", template);
+        ReflectionTestUtils.setField(broadcaster, "overloadController", new OverloadController());
+        ReflectionTestUtils.setField(broadcaster, "stateWatch", new RoomStateWatch());
+        return broadcaster;
+    }
+
+    // A batch still queued from the room's last game is dropped, even when it comes back under the same id
+    @Test
+    void drawsQueuedBeforeReuseAreNotSentToTheNextGame() {
+        RoomPool pool = pool(4);
+        SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        DrawBatcher batcher = new DrawBatcher();
+        ReflectionTestUtils.setField(batcher, "broadcaster", broadcaster(template));
+        ReflectionTestUtils.setField(batcher, "latencyRecorder", mock(LatencyRecorder.class));
+
+        GameRoom room = retired("123456");
+        DrawMessage stale = new DrawMessage();
+        batcher.enqueue("123456", room, room.getGeneration(), stale, 0);
+        pool.release(room);
+        clock.advance(Duration.ofMinutes(1));
+        assertSame(room, pool.acquire());
+        room.setRoomId("123456");
+
+        DrawMessage fresh = new DrawMessage();
+        batcher.enqueue("123456", room, room.getGeneration(), fresh, 0);
+        assertEquals(1, batcher.flush());
+        verify(template).convertAndSend(eq("/topic/room/123456/draw"), same(fresh), anyMap());
+        verifyNoMoreInteractions(template);
+    }
+
+    // However late it runs, a send or paint for the room's last game never lands in the next one
+    @Test
+    void sendsFromBeforeReuseAreDropped() {
+        RoomPool pool = pool(4);
+        SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        RoomBroadcaster broadcaster = broadcaster(template);
+        ThumbnailService thumbnails = new ThumbnailService();
+        ReflectionTestUtils.setField(thumbnails, "enabled", true);
+
+        GameRoom room = retired("123456");
+        long lookedUp = room.getGeneration();
+        pool.release(room);
+        clock.advance(Duration.ofMinutes(1));
+        assertSame(room, pool.acquire());
+        room.setRoomId("654321");
+
+        DrawMessage clear = new DrawMessage();
+        clear.setType(DrawMessage.CLEAR);
+        assertFalse(broadcaster.send(room, lookedUp, "chat", "late"));
+        assertFalse(broadcaster.sendVolatile(room, lookedUp, "time", 10));
+        thumbnails.paint(room, lookedUp, clear);
+        verifyNoInteractions(template);
+        assertEquals(0, room.getMessageLog().getLastSeq());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(thumbnails, "canvases")).isEmpty());
+
+        assertTrue(broadcaster.send(room, room.getGeneration(), "chat", "hello"));
+        verify(template).convertAndSend(eq("/topic/room/654321/chat"), eq((Object) "hello"), anyMap());
+        assertEquals(1, room.getMessageLog().getLastSeq());
+    }
+
+    @Test
+    void rejectsAQuarantineOfZero() {
+        RoomPool pool = pool(4);
+        ReflectionTestUtils.setField(pool, "quarantineMs", 0L);
+        assertThrows(IllegalStateException.class, pool::checkQuarantine);
+    }
+
+    @Test
+    void reusesOldestFirstAndDropsPastCapacity() {
+        RoomPool pool = pool(2);
+        GameRoom first = retired("1");
+        GameRoom second = retired("2");
+        pool.release(first);
+        pool.release(second);
+        pool.release(retired("3"));
+        clock.advance(Duration.ofMinutes(1));
+
+        assertSame(first, pool.acquire());
+        assertSame(second, pool.acquire());
+        assertEquals(0, pool.getStats().get("pooled"));
+        assertEquals(2L, pool.getStats().get("released"));
+    }
+}
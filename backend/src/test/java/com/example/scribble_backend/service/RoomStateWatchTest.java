@@ -0,0 +1,63 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class RoomStateWatchTest {
+
+    @Test
+    void ifNoneMatchTakesListsWildcardsAndWeakTags() {
+        String etag = "\"abc-3\"";
+        assertTrue(RoomStateWatch.matches("\"abc-3\"", etag));
+        assertTrue(RoomStateWatch.matches("W/\"abc-3\"", etag));
+        assertTrue(RoomStateWatch.matches("\"abc-1\", W/\"abc-3\"", etag));
+        assertTrue(RoomStateWatch.matches("*", etag));
+        assertFalse(RoomStateWatch.matches("\"abc-1\", \"abc-2\"", etag));
+        assertFalse(RoomStateWatch.matches("abc-3", etag));
+        assertFalse(RoomStateWatch.matches(null, etag));
+    }
+
+    // Strokes and the timer are part of the polled JSON, so relaying them must move the version too
+    @Test
+    void drawAndTimerBroadcastsInvalidateTheSnapshot() {
+        RoomStateWatch watch = new RoomStateWatch();
+        ReflectionTestUtils.setField(watch, "objectMapper", JsonMapper.builder().build());
+        RoomBroadcaster broadcaster = new RoomBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "messagingTemplate", mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(broadcaster, "overloadController", new OverloadController());
+        ReflectionTestUtils.setField(broadcaster, "stateWatch", watch);
+
+        GameRoom room = new GameRoom();
+        room.setRoomId("777777");
+        String initial = watch.snapshot(room).etag();
+
+        AtomicInteger woken = new AtomicInteger();
+        assertTrue(watch.await(room, "\"stale\", W/" + initial, woken::incrementAndGet));
+        broadcaster.send(room, room.getGeneration(), "draw", new DrawMessage());
+        assertEquals(1, woken.get());
+        String afterDraw = watch.snapshot(room).etag();
+        assertNotEquals(initial, afterDraw);
+
+        broadcaster.sendVolatile(room, room.getGeneration(), "time", 42);
+        assertNotEquals(afterDraw, watch.etag(room));
+        assertFalse(watch.await(room, afterDraw, woken::incrementAndGet));
+
+        String beforeChat = watch.etag(room);
+        broadcaster.send(room, room.getGeneration(), "chat", "hello");
+        assertEquals(beforeChat, watch.etag(room));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.scribble_backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.scribble_backend.model.DrawMessage;
+import com.example.scribble_backend.model.GameRoom;
+
+class ThumbnailServiceTest {
+
+    private static final int WHITE = 0xFFFFFF;
+    private static final int RED = 0xFF0000;
+    private static final int BLUE = 0x0000FF;
+
+    private final ThumbnailService thumbnails = new ThumbnailService();
+    private final GameRoom room = new GameRoom();
+
+    ThumbnailServiceTest() {
+        ReflectionTestUtils.setField(thumbnails, "enabled", true);
+        ReflectionTestUtils.setField(thumbnails, "cacheBytes", 1L << 20);
+        room.setRoomId("313131");
+    }
+
+    private void paint(String type, String color, int lineWidth, int... points) {
+        DrawMessage message = new DrawMessage();
+        message.setType(type);
+        message.setStrokeId(type + "-" + points.length);
+        message.setColor(color);
+        message.setLineWidth(lineWidth);
+        message.setPoints(points);
+        thumbnails.paint(room, room.getGeneration(), message);
+    }
+
+    private BufferedImage image() throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(thumbnails.getThumbnail(room).png()));
+    }
+
+    private static int rgb(BufferedImage image, int x, int y) {
+        return image.getRGB(x, y) & 0xFFFFFF;
+    }
+
+    private static int count(BufferedImage image, int color) {
+        int n = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (rgb(image, x, y) == color) n++;
+            }
+        }
+        return n;
+    }
+
+    @Test
+    void fillFromEitherCornerCoversTheWholeBlankCanvas() throws Exception {
+        paint(DrawMessage.FILL, "#ff0000", 0, 0, 0);
+        assertEquals(ThumbnailService.WIDTH * ThumbnailService.HEIGHT, count(image(), RED));
+
+        paint(DrawMessage.FILL, "#0000ff", 0, 1000, 1000);
+        assertEquals(ThumbnailService.WIDTH * ThumbnailService.HEIGHT, count(image(), BLUE));
+    }
+
+    @Test
+    void outOfRangeFillPointsAreClampedToTheEdge() throws Exception {
+        paint(DrawMessage.FILL, "#ff0000", 0, -500, 5000);
+        BufferedImage image = image();
+        assertEquals(RED, rgb(image, 0, ThumbnailService.HEIGHT - 1));
+        assertEquals(ThumbnailService.WIDTH * ThumbnailService.HEIGHT, count(image, RED));
+    }
+
+    // A closed box: filling inside must not leak out, filling outside must not leak in
+    @Test
+    void fillStopsAtStrokeBoundaries() throws Exception {
+        paint(DrawMessage.BEGIN, "#000000", 8, 250, 250, 750, 250, 750, 750, 250, 750, 250, 250);
+        paint(DrawMessage.FILL, "#ff0000", 0, 500, 500);
+        BufferedImage inside = image();
+        int filled = count(inside, RED);
+        assertEquals(RED, rgb(inside, 64, 48));
+        assertEquals(WHITE, rgb(inside, 0, 0));
+        assertEquals(WHITE, rgb(inside, ThumbnailService.WIDTH - 1, ThumbnailService.HEIGHT - 1));
+
+        paint(DrawMessage.FILL, "#0000ff", 0, 0, 0);
+        BufferedImage outside = image();
+        assertEquals(filled, count(outside, RED));
+        assertEquals(0, count(outside, WHITE));
+    }
+
+    // Alternating one-pixel columns make the scanline fill push a seed per column on both neighbouring rows
+    @Test
+    void combPatternStaysWithinTheFillStack() throws Exception {
+        for (int x = 0; x <= 1000; x += 16) {
+            paint(DrawMessage.BEGIN, "#000000", 1, x, 10, x, 1000);
+        }
+        paint(DrawMessage.FILL, "#ff0000", 0, 4, 500);
+        BufferedImage image = image();
+        assertEquals(RED, rgb(image, 1, 0));
+        assertEquals(RED, rgb(image, 1, ThumbnailService.HEIGHT - 1));
+        assertEquals(0, count(image, WHITE));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.scribble_backend.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "app.simulation.run-on-startup=false")
+@ActiveProfiles("simulation")
+class GameSimulatorTest {
+
+    @Autowired
+    private GameSimulator simulator;
+
+    @Test
+    void playsEveryTurnOfEveryGameDeterministically() {
+        GameSimulator.Result first = simulator.run(200, 7);
+        GameSimulator.Result second = simulator.run(200, 7);
+
+        // 4 bots x 3 rounds, each bot draws once per round
+        assertEquals(200L * 4 * 3, first.turns());
+        assertEquals(first.turns(), second.turns());
+        assertEquals(first.simulatedSeconds(), second.simulatedSeconds());
+        assertEquals(first.scoreChecksum(), second.scoreChecksum());
+        assertTrue(first.simulatedSeconds() > 0);
+        assertTrue(first.turnsPerSecond() > 0);
+    }
+}
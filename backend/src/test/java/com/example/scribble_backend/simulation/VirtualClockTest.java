@@ -0,0 +1,33 @@
+package com.example.scribble_backend.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+class VirtualClockTest {
+
+    @Test
+    void zonedViewSharesTheVirtualInstant() {
+        VirtualClock clock = new VirtualClock(Instant.parse("2024-01-01T00:00:00Z"));
+        Clock tokyo = clock.withZone(ZoneId.of("Asia/Tokyo"));
+
+        assertEquals(ZoneId.of("Asia/Tokyo"), tokyo.getZone());
+        assertEquals(LocalDateTime.parse("2024-01-01T09:00:00"), LocalDateTime.now(tokyo));
+
+        clock.advance(Duration.ofMinutes(90));
+        assertEquals(clock.instant(), tokyo.instant());
+        assertEquals(LocalDateTime.parse("2024-01-01T10:30:00"), LocalDateTime.now(tokyo));
+
+        ((VirtualClock) tokyo).advance(Duration.ofSeconds(5));
+        assertEquals(Instant.parse("2024-01-01T01:30:05Z"), clock.instant());
+        assertSame(clock, clock.withZone(ZoneOffset.UTC));
+    }
+}
@@ -1,4 +1,4 @@
-import { useState } from 'react'
+import { useState, useRef } from 'react'
 import './App.css'
 import LoginScreen from './components/LoginScreen'
 import LobbyScreen from './components/LobbyScreen'
@@ -10,6 +10,8 @@ import { SpeedInsights } from '@vercel/speed-insights/react'
 // Get backend URL from environment variables or use localhost as fallback
 const BACKEND_URL = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080'
 const WS_URL = import.meta.env.VITE_WS_URL || BACKEND_URL
+// 'websocket' for a backend on the reactive runtime, which has no SockJS endpoint
+const WS_TRANSPORT = import.meta.env.VITE_WS_TRANSPORT || 'sockjs'
 
 function App() {
   const [screen, setScreen] = useState('login') // 'login', 'lobby', 'game'
@@ -18,22 +20,34 @@ function App() {
   const [stompClient, setStompClient] = useState(null)
   const [mySessionId, setMySessionId] = useState('')
   const [connected, setConnected] = useState(false)
+  // Set when the player backs out to the login screen, so the closed socket isn't reopened
+  const leaving = useRef(false)
 
   const connectWebSocket = (callback, retryCount = 0) => {
-    const socket = new SockJS(`${WS_URL}/ws`, null, {
-      timeout: 10000,
-      transports: ['websocket', 'xhr-streaming', 'xhr-polling']
-    })
+    leaving.current = false
+    const socket = WS_TRANSPORT === 'websocket'
+      ? new WebSocket(`${WS_URL.replace(/^http/, 'ws')}/ws/websocket`)
+      : new SockJS(`${WS_URL}/ws`, null, {
+          timeout: 10000,
+          transports: ['websocket', 'xhr-streaming', 'xhr-polling']
+        })
     const client = Stomp.over(socket)
     client.debug = null
     client.reconnect_delay = 5000
     client.heartbeat.outgoing = 20000 // Match backend heartbeat
     client.heartbeat.incoming = 20000
 
+    // Once connected, a drop is handled by onclose below; the game screen resumes on the new client
+    let established = false
+
     client.connect({}, (frame) => {
-      const url = socket._transport.url
-      const parts = url.split('/')
-      const sessionId = parts[parts.length - 2]
+      established = true
+      // Plain WebSocket sessions get their id in the CONNECTED frame; SockJS puts it in the transport URL
+      let sessionId = frame.headers.session
+      if (!sessionId) {
+        const parts = socket._transport.url.split('/')
+        sessionId = parts[parts.length - 2]
+      }
       setMySessionId(sessionId)
       setConnected(true)
       setStompClient(client)
@@ -52,6 +66,7 @@ function App() {
       if (callback) callback(client, sessionId)
     }, (error) => {
       console.error('WebSocket connection error:', error)
+      if (established) return
       
       if (retryCount < 5) { // Increased to 5 attempts
         const delay = Math.min(1000 * Math.pow(2, retryCount), 15000)
@@ -66,12 +81,13 @@ function App() {
     socket.onclose = () => {
       console.log('WebSocket closed')
       setConnected(false)
+      if (!established || leaving.current) return
       
-      // Attempt to reconnect after 3 seconds
+      // Attempt to reconnect after 3 seconds, staying on the current screen
       setTimeout(() => {
         if (!client.connected) {
           console.log('Attempting to reconnect...')
-          connectWebSocket(callback, 0)
+          connectWebSocket(null, 0)
         }
       }, 3000)
     }
@@ -101,6 +117,7 @@ function App() {
           username={username}
           mySessionId={mySessionId}
           onBack={() => {
+            leaving.current = true;
             if (stompClient) stompClient.disconnect();
             setScreen('login');
             setConnected(false);
@@ -12,12 +12,73 @@ import {
   Trophy,
   Users,
   MessageSquare,
-  Palette
+  Palette,
+  PaintBucket,
+  Undo2,
+  Redo2
 } from 'lucide-react'
 import { cn } from '../lib/utils'
 
 const BACKEND_URL = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080'
 
+// Points drawn since the last APPEND are sent together at most this often
+const STROKE_FLUSH_MS = 40
+
+const toGrid = (value, size) => Math.max(0, Math.min(1000, Math.round((value / size) * 1000)))
+
+const parseHex = (color) => {
+  const hex = (color || '#000000').replace('#', '')
+  const full = hex.length === 3 ? hex.split('').map(c => c + c).join('') : hex
+  const n = parseInt(full, 16) || 0
+  return [(n >> 16) & 255, (n >> 8) & 255, n & 255]
+}
+
+// Scanline flood fill; the tolerance swallows the antialiased fringe around strokes
+const floodFill = (ctx, width, height, startX, startY, color) => {
+  const image = ctx.getImageData(0, 0, width, height)
+  const data = image.data
+  const start = (startY * width + startX) * 4
+  const target = [data[start], data[start + 1], data[start + 2]]
+  const [r, g, b] = parseHex(color)
+  if (target[0] === r && target[1] === g && target[2] === b) return
+
+  const tolerance = 48
+  const seen = new Uint8Array(width * height)
+  const matches = (p) => !seen[p] &&
+    Math.abs(data[p * 4] - target[0]) <= tolerance &&
+    Math.abs(data[p * 4 + 1] - target[1]) <= tolerance &&
+    Math.abs(data[p * 4 + 2] - target[2]) <= tolerance
+
+  const stack = [startY * width + startX]
+  while (stack.length) {
+    const p = stack.pop()
+    const y = Math.floor(p / width)
+    let x = p % width
+    while (x > 0 && matches(y * width + x - 1)) x--
+    let above = false
+    let below = false
+    for (; x < width && matches(y * width + x); x++) {
+      const q = y * width + x
+      seen[q] = 1
+      data[q * 4] = r
+      data[q * 4 + 1] = g
+      data[q * 4 + 2] = b
+      data[q * 4 + 3] = 255
+      if (y > 0) {
+        const m = matches(q - width)
+        if (m && !above) stack.push(q - width)
+        above = m
+      }
+      if (y < height - 1) {
+        const m = matches(q + width)
+        if (m && !below) stack.push(q + width)
+        below = m
+      }
+    }
+  }
+  ctx.putImageData(image, 0, 0)
+}
+
 export default function GameScreen({ stompClient, username, roomId, mySessionId, onBack }) {
   const [gameState, setGameState] = useState(null)
   const [timer, setTimer] = useState(60)
@@ -31,6 +92,18 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
   const [activeTab, setActiveTab] = useState('canvas')
   const canvasRef = useRef(null)
   const drawHistory = useRef([])
+  // Strokes still receiving points, by strokeId
+  const openStrokes = useRef({})
+  // The stroke this client is drawing: { id, pending, timer }
+  const myStroke = useRef(null)
+  const strokeCounter = useRef(0)
+  // Resume bookkeeping: with the token and the last room message seen, a new connection only gets the gap
+  const resumeKey = `scribble.resume.${roomId}`
+  const resumeToken = useRef(sessionStorage.getItem(resumeKey))
+  const lastSeq = useRef(0)
+  // Live messages held back while a resume replays the gap; applied afterwards if they came after it
+  const resumeBuffer = useRef(null)
+  const joinedClient = useRef(stompClient)
   const messagesEndRef = useRef(null)
   const [isDrawing, setIsDrawing] = useState(false)
   const [currentTool, setCurrentTool] = useState('pen')
@@ -77,22 +150,52 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
     }
   }, [stompClient])
 
+  const paintPoints = (ctx, canvas, color, lineWidth, points, from) => {
+    ctx.strokeStyle = color
+    ctx.fillStyle = color
+    ctx.lineWidth = lineWidth
+    ctx.lineCap = 'round'
+    ctx.lineJoin = 'round'
+
+    const px = (i) => (points[i] / 1000) * canvas.width
+    const py = (i) => (points[i + 1] / 1000) * canvas.height
+    if (points.length === 2 && from === 0) {
+      ctx.beginPath()
+      ctx.arc(px(0), py(0), lineWidth / 2, 0, Math.PI * 2)
+      ctx.fill()
+      return
+    }
+    const begin = Math.max(0, from - 2)
+    if (points.length - begin < 4) return
+    ctx.beginPath()
+    ctx.moveTo(px(begin), py(begin))
+    for (let i = begin + 2; i + 1 < points.length; i += 2) ctx.lineTo(px(i), py(i))
+    ctx.stroke()
+  }
+
   const renderDrawing = (data) => {
     const canvas = canvasRef.current
-    if (!canvas) return
+    if (!canvas || data.undone) return
 
     const ctx = canvas.getContext('2d')
 
-    if (data.type === 'CLEAR') {
-      ctx.fillStyle = '#FFFFFF'
-      ctx.fillRect(0, 0, canvas.width, canvas.height)
+    if (data.type === 'FILL') {
+      const x = Math.min(canvas.width - 1, Math.floor((data.points[0] / 1000) * canvas.width))
+      const y = Math.min(canvas.height - 1, Math.floor((data.points[1] / 1000) * canvas.height))
+      floodFill(ctx, canvas.width, canvas.height, x, y, data.color)
       return
     }
 
-    const x1 = (data.prevX / 1000) * canvas.width
-    const y1 = (data.prevY / 1000) * canvas.height
-    const x2 = (data.currX / 1000) * canvas.width
-    const y2 = (data.currY / 1000) * canvas.height
+    if (data.type === 'STROKE') {
+      paintPoints(ctx, canvas, data.color, data.lineWidth, data.points || [], 0)
+      return
+    }
+
+    // Old single-segment messages
+    const x1 = ((data.prevX || 0) / 1000) * canvas.width
+    const y1 = ((data.prevY || 0) / 1000) * canvas.height
+    const x2 = ((data.currX || 0) / 1000) * canvas.width
+    const y2 = ((data.currY || 0) / 1000) * canvas.height
 
     ctx.beginPath()
     ctx.moveTo(x1, y1)
@@ -103,6 +206,75 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
     ctx.lineJoin = 'round'
     ctx.stroke()
   }
+
+  const redrawCanvas = () => {
+    const canvas = canvasRef.current
+    if (!canvas) return
+    const ctx = canvas.getContext('2d')
+    ctx.fillStyle = '#FFFFFF'
+    ctx.fillRect(0, 0, canvas.width, canvas.height)
+    drawHistory.current.forEach(data => renderDrawing(data))
+  }
+
+  // Mirrors the server's StrokeHistory: anything new discards strokes that could still be redone
+  const dropUndone = () => {
+    if (drawHistory.current.some(d => d.undone)) {
+      drawHistory.current = drawHistory.current.filter(d => !d.undone)
+    }
+  }
+
+  const applyDrawMessage = (data) => {
+    switch (data.type) {
+      case 'CLEAR': {
+        drawHistory.current = []
+        openStrokes.current = {}
+        redrawCanvas()
+        break
+      }
+      case 'BEGIN': {
+        dropUndone()
+        const stroke = { type: 'STROKE', strokeId: data.strokeId, color: data.color, lineWidth: data.lineWidth, points: [...(data.points || [])] }
+        drawHistory.current.push(stroke)
+        openStrokes.current[data.strokeId] = stroke
+        renderDrawing(stroke)
+        break
+      }
+      case 'APPEND':
+      case 'END': {
+        const stroke = openStrokes.current[data.strokeId]
+        if (!stroke) break
+        const from = stroke.points.length
+        stroke.points.push(...(data.points || []))
+        const canvas = canvasRef.current
+        if (canvas && data.points?.length) {
+          paintPoints(canvas.getContext('2d'), canvas, stroke.color, stroke.lineWidth, stroke.points, from)
+        }
+        if (data.type === 'END') delete openStrokes.current[data.strokeId]
+        break
+      }
+      case 'UNDO':
+      case 'REDO': {
+        const undone = data.type === 'UNDO'
+        drawHistory.current.forEach(d => { if (d.strokeId === data.strokeId) d.undone = undone })
+        redrawCanvas()
+        break
+      }
+      case 'STROKE': {
+        // History snapshots: the last stroke may still be open on the drawer's side
+        const stroke = { ...data, points: [...(data.points || [])] }
+        drawHistory.current.push(stroke)
+        openStrokes.current[data.strokeId] = stroke
+        renderDrawing(stroke)
+        break
+      }
+      default: {
+        if (data.type !== 'FILL' && data.type !== 'DRAW') break
+        if (!data.undone) dropUndone()
+        drawHistory.current.push(data)
+        renderDrawing(data)
+      }
+    }
+  }
   
   useEffect(() => {
     const fetchInitialState = async () => {
@@ -113,8 +285,7 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
           setGameState(state)
           
           if (state.drawHistory && state.drawHistory.length > 0 && drawHistory.current.length === 0) {
-            drawHistory.current = state.drawHistory
-            state.drawHistory.forEach(data => renderDrawing(data))
+            state.drawHistory.forEach(data => applyDrawMessage(data))
           }
 
           if ((state.isGameRunning || state.gameRunning) && state.roundTime) {
@@ -136,6 +307,7 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
       
       if (e.key === 'q' || e.key === 'Q') setCurrentTool('pen')
       else if (e.key === 'e' || e.key === 'E') setCurrentTool('eraser')
+      else if (e.key === 'f' || e.key === 'F') setCurrentTool('fill')
       else if (e.key === '1') setBrushSize(8)
       else if (e.key === '2') setBrushSize(16)
       else if (e.key === '3') setBrushSize(24)
@@ -194,11 +366,7 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
       canvas.width = width
       canvas.height = height
       
-      const ctx = canvas.getContext('2d')
-      ctx.fillStyle = '#FFFFFF'
-      ctx.fillRect(0, 0, width, height)
-      
-      drawHistory.current.forEach(data => renderDrawing(data))
+      redrawCanvas()
     }
 
     const init = () => {
@@ -260,22 +428,34 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
 
     const subs = []
 
-    subs.push(stompClient.subscribe(`/topic/room/${roomId}/draw`, (msg) => {
-      const data = JSON.parse(msg.body)
-      if (data.type === 'CLEAR') {
-        drawHistory.current = []
-      } else {
-        drawHistory.current.push(data)
-      }
-      renderDrawing(data)
-    }))
+    const deliver = (seq, handler, msg) => {
+      if (seq > lastSeq.current) lastSeq.current = seq
+      handler(msg)
+    }
 
-    subs.push(stompClient.subscribe(`/topic/room/${roomId}/chat`, (msg) => {
+    // Room topics carry a "seq" header; it is what a resume asks the server to replay after
+    const sequenced = (handler) => (msg) => {
+      const seq = Number(msg.headers.seq) || 0
+      if (resumeBuffer.current) resumeBuffer.current.push({ seq, handler, msg })
+      else deliver(seq, handler, msg)
+    }
+
+    const applyDrawBody = (body) => {
+      // The server batches segments into arrays while it is under load
+      const items = Array.isArray(body) ? body : [body]
+      items.forEach(data => applyDrawMessage(data))
+    }
+
+    subs.push(stompClient.subscribe(`/topic/room/${roomId}/draw`, sequenced((msg) => {
+      applyDrawBody(JSON.parse(msg.body))
+    })))
+
+    subs.push(stompClient.subscribe(`/topic/room/${roomId}/chat`, sequenced((msg) => {
       const chatMsg = JSON.parse(msg.body)
       setMessages(prev => [...prev, chatMsg])
-    }))
+    })))
 
-    subs.push(stompClient.subscribe(`/topic/room/${roomId}/state`, (msg) => {
+    const handleState = (msg) => {
       const state = JSON.parse(msg.body)
       setGameState(state)
       setShowGameOver(state.gameOver || false)
@@ -292,21 +472,63 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
       if ((state.isGameRunning || state.gameRunning) && state.roundTime !== undefined) {
         setTimer(state.roundTime)
       }
-    }))
+    }
+
+    subs.push(stompClient.subscribe(`/topic/room/${roomId}/state`, sequenced(handleState)))
 
     subs.push(stompClient.subscribe(`/topic/room/${roomId}/time`, (msg) => {
       setTimer(parseInt(msg.body))
     }))
 
+    // The canvas so far arrives as one array when joining mid-round, or resuming after too long a gap
     subs.push(stompClient.subscribe('/user/queue/draw', (msg) => {
-      const data = JSON.parse(msg.body)
-      if (data.type === 'CLEAR') {
-        drawHistory.current = []
+      applyDrawMessage({ type: 'CLEAR' })
+      applyDrawBody(JSON.parse(msg.body))
+    }))
+
+    // The server holds this session's first snapshot until it sees this subscription
+    subs.push(stompClient.subscribe('/user/queue/state', handleState))
+
+    // Room messages this client missed while it was disconnected, oldest first
+    subs.push(stompClient.subscribe('/user/queue/replay', (msg) => {
+      const entry = JSON.parse(msg.body)
+      if (entry.channel === 'draw') applyDrawBody(entry.payload)
+      else if (entry.channel === 'chat') setMessages(prev => [...prev, entry.payload])
+    }))
+
+    // Sent after every join or resume: the next resume token and the seq the snapshot covers
+    subs.push(stompClient.subscribe('/user/queue/session', (msg) => {
+      const info = JSON.parse(msg.body)
+      resumeToken.current = info.resumeToken
+      sessionStorage.setItem(resumeKey, info.resumeToken)
+      if (info.seq > lastSeq.current) lastSeq.current = info.seq
+
+      const held = resumeBuffer.current
+      resumeBuffer.current = null
+      if (held) held.filter(m => m.seq === 0 || m.seq > info.seq).forEach(m => deliver(m.seq, m.handler, m.msg))
+    }))
+
+    subs.push(stompClient.subscribe('/user/queue/errors', () => {
+      if (!resumeBuffer.current) return
+      // The seat is gone (reconnect grace period over): come back as a new player
+      resumeBuffer.current = null
+      stompClient.send('/app/join', {}, JSON.stringify({ username, roomId, action: 'join' }))
+    }))
+
+    // A new client after a dropped connection: take the seat back and fetch only what was missed
+    if (stompClient !== joinedClient.current) {
+      if (resumeToken.current) {
+        resumeBuffer.current = []
+        stompClient.send('/app/resume', {}, JSON.stringify({
+          roomId,
+          resumeToken: resumeToken.current,
+          lastSeq: lastSeq.current
+        }))
       } else {
-        drawHistory.current.push(data)
+        stompClient.send('/app/join', {}, JSON.stringify({ username, roomId, action: 'join' }))
       }
-      renderDrawing(data)
-    }))
+      joinedClient.current = stompClient
+    }
 
     return () => subs.forEach(s => s.unsubscribe())
   }, [stompClient, roomId])
@@ -337,24 +559,70 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
     return { canvasX, canvasY }
   }
 
+  const sendDraw = (message) => {
+    stompClient.send(`/app/draw/${roomId}`, {}, JSON.stringify({ ...message, clientTs: Date.now() }))
+  }
+
+  const flushStroke = (type) => {
+    const stroke = myStroke.current
+    if (!stroke) return
+    clearTimeout(stroke.timer)
+    stroke.timer = null
+    if (stroke.pending.length > 0 || type === 'END') {
+      sendDraw({ type, strokeId: stroke.id, points: stroke.pending })
+      stroke.pending = []
+    }
+    if (type === 'END') myStroke.current = null
+  }
+
+  const beginStroke = (canvasX, canvasY) => {
+    const canvas = canvasRef.current
+    if (myStroke.current) flushStroke('END')
+
+    strokeCounter.current += 1
+    const id = `${mySessionId}-${strokeCounter.current}`
+    myStroke.current = { id, pending: [], timer: null }
+    sendDraw({
+      type: 'BEGIN',
+      strokeId: id,
+      color: currentTool === 'eraser' ? '#FFFFFF' : currentColor,
+      lineWidth: brushSize,
+      points: [toGrid(canvasX, canvas.width), toGrid(canvasY, canvas.height)]
+    })
+  }
+
   const startDrawing = (e) => {
     if (!isMyTurn) return
 
 
     const { canvasX, canvasY } = getCoordinates(e)
 
+    if (currentTool === 'fill') {
+      const canvas = canvasRef.current
+      strokeCounter.current += 1
+      sendDraw({
+        type: 'FILL',
+        strokeId: `${mySessionId}-${strokeCounter.current}`,
+        color: currentColor,
+        points: [toGrid(canvasX, canvas.width), toGrid(canvasY, canvas.height)]
+      })
+      return
+    }
+
     setIsDrawing(true)
     setLastPos({ x: canvasX, y: canvasY })
+    beginStroke(canvasX, canvasY)
   }
 
   const draw = (e) => {
-    if (!isMyTurn) return
+    if (!isMyTurn || currentTool === 'fill') return
 
     const { canvasX, canvasY } = getCoordinates(e)
     
     if (!isDrawing && (e.buttons === 1 || e.type === 'touchmove')) {
       setIsDrawing(true)
       setLastPos({ x: canvasX, y: canvasY })
+      beginStroke(canvasX, canvasY)
       return
     }
     
@@ -371,26 +639,32 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
     ctx.lineJoin = 'round'
     ctx.stroke()
 
-    const prevX = Math.max(0, Math.min(1000, Math.round((lastPos.x / canvas.width) * 1000)))
-    const prevY = Math.max(0, Math.min(1000, Math.round((lastPos.y / canvas.height) * 1000)))
-    const currX = Math.max(0, Math.min(1000, Math.round((canvasX / canvas.width) * 1000)))
-    const currY = Math.max(0, Math.min(1000, Math.round((canvasY / canvas.height) * 1000)))
-
-    stompClient.send(`/app/draw/${roomId}`, {}, JSON.stringify({
-      type: 'DRAW',
-      prevX,
-      prevY,
-      currX,
-      currY,
-      color: currentTool === 'eraser' ? '#FFFFFF' : currentColor,
-      lineWidth: brushSize
-    }))
+    const stroke = myStroke.current
+    if (stroke) {
+      stroke.pending.push(toGrid(canvasX, canvas.width), toGrid(canvasY, canvas.height))
+      if (!stroke.timer) stroke.timer = setTimeout(() => flushStroke('APPEND'), STROKE_FLUSH_MS)
+    }
 
     setLastPos({ x: canvasX, y: canvasY })
   }
 
   const stopDrawing = (e) => {
     setIsDrawing(false)
+    flushStroke('END')
+  }
+
+  // Undo takes back the newest visible stroke; redo restores the oldest of the ones undone since
+  const handleUndo = () => {
+    if (!isMyTurn) return
+    const visible = drawHistory.current.filter(d => !d.undone && d.strokeId)
+    const last = visible[visible.length - 1]
+    if (last) sendDraw({ type: 'UNDO', strokeId: last.strokeId })
+  }
+
+  const handleRedo = () => {
+    if (!isMyTurn) return
+    const next = drawHistory.current.find(d => d.undone)
+    if (next) sendDraw({ type: 'REDO', strokeId: next.strokeId })
   }
 
   const handleSendMessage = () => {
@@ -399,7 +673,8 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
     stompClient.send(`/app/chat/${roomId}`, {}, JSON.stringify({
       type: 'CHAT',
       sender: username,
-      content: chatInput
+      content: chatInput,
+      clientTs: Date.now()
     }))
 
     setChatInput('')
@@ -423,6 +698,11 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
     }
   }
 
+  const handleRematch = () => {
+    if (!stompClient || !stompClient.connected) return
+    stompClient.send(`/app/rematch/${roomId}`, {}, '{}')
+  }
+
   const handleClearCanvas = () => {
     if (!isMyTurn) return
 
@@ -606,6 +886,18 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
                   >
                     <Eraser size={18} />
                   </button>
+                  <button
+                    onClick={() => setCurrentTool('fill')}
+                    className={cn("p-2 rounded-md", currentTool === 'fill' ? "bg-white shadow-sm text-blue-600" : "text-gray-500")}
+                  >
+                    <PaintBucket size={18} />
+                  </button>
+                  <button onClick={handleUndo} className="p-2 rounded-md text-gray-500 hover:text-gray-900">
+                    <Undo2 size={18} />
+                  </button>
+                  <button onClick={handleRedo} className="p-2 rounded-md text-gray-500 hover:text-gray-900">
+                    <Redo2 size={18} />
+                  </button>
                   <button onClick={handleClearCanvas} className="p-2 rounded-md text-gray-500 hover:text-red-600">
                     <Trash2 size={18} />
                   </button>
@@ -617,10 +909,10 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
                   {colorPalette.map((color) => (
                     <button
                       key={color}
-                      onClick={() => { setCurrentColor(color); setCurrentTool('pen'); }}
+                      onClick={() => { setCurrentColor(color); setCurrentTool(tool => tool === 'fill' ? 'fill' : 'pen'); }}
                       className={cn(
                         "w-6 h-6 rounded-sm border border-gray-300 hover:scale-110 transition-transform",
-                        currentColor === color && currentTool === 'pen' ? "ring-2 ring-gray-900 z-10" : ""
+                        currentColor === color && currentTool !== 'eraser' ? "ring-2 ring-gray-900 z-10" : ""
                       )}
                       style={{ backgroundColor: color }}
                     />
@@ -777,6 +1069,12 @@ export default function GameScreen({ stompClient, username, roomId, mySessionId,
                   </div>
                 ))}
               </div>
+              <button 
+                onClick={handleRematch}
+                className="w-full rounded-xl bg-indigo-600 py-3 mb-2 text-white font-bold"
+              >
+                Play Again
+              </button>
               <button 
                 onClick={onBack}
                 className="w-full rounded-xl bg-gray-900 py-3 text-white font-bold"
@@ -76,11 +76,39 @@ export default function LobbyScreen({ stompClient, username, mySessionId, onBack
     joinRoom(lobbyCode)
   }
 
+  // The server holds a seat for us in the fullest matching room, so this join can't bounce off a full one
+  const quickPlay = () => {
+    fetch(`${BACKEND_URL}/api/lobby/quickplay`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json' },
+      body: JSON.stringify({ username, language })
+    })
+      .then(res => res.json())
+      .then(data => {
+        if (!data.success) {
+          alert(data.retryAfterSeconds
+            ? `Server is busy, please try again in ${data.retryAfterSeconds} seconds.`
+            : (data.error || 'Quick play failed'))
+          return
+        }
+        stompClient.send('/app/join', {}, JSON.stringify({
+          username,
+          roomId: data.roomId,
+          action: 'join',
+          reservation: data.reservation
+        }))
+        onJoinRoom(data.roomId)
+      })
+      .catch(() => alert('Quick play failed, please try again.'))
+  }
+
   const joinRoom = (roomCode) => {
+    // Coming back to a room this tab was seated in (e.g. after a reload) reclaims the old seat
     stompClient.send('/app/join', {}, JSON.stringify({
       username,
       roomId: roomCode,
-      action: 'join'
+      action: 'join',
+      resumeToken: sessionStorage.getItem(`scribble.resume.${roomCode}`)
     }))
 
     onJoinRoom(roomCode)
@@ -158,10 +186,10 @@ export default function LobbyScreen({ stompClient, username, mySessionId, onBack
             </div>
 
             {[
-              { label: 'Drawing Time', icon: Clock, value: drawTime, setter: setDrawTime, min: 30, max: 300, step: 10 },
+              { label: 'Drawing Time', icon: Clock, value: drawTime, setter: setDrawTime, min: 60, max: 240, step: 10 },
               { label: 'Rounds', icon: Zap, value: rounds, setter: setRounds, min: 1, max: 10, step: 1 },
-              { label: 'Max Players', icon: Users, value: maxPlayers, setter: setMaxPlayers, min: 2, max: 50, step: 2 },
-              { label: 'Custom Words', icon: null, emoji: '✏️', value: customWords, setter: setCustomWords, min: 0, max: 5, step: 1 },
+              { label: 'Max Players', icon: Users, value: maxPlayers, setter: setMaxPlayers, min: 2, max: 24, step: 2 },
+              { label: 'Custom Words', icon: null, emoji: '✏️', value: customWords, setter: setCustomWords, min: 1, max: 5, step: 1 },
             ].map((setting, idx) => (
               <div key={idx} className="flex items-center justify-between rounded-lg border border-gray-100 p-3">
                 <label className="flex items-center gap-2 text-sm font-medium text-gray-600">
@@ -192,6 +220,15 @@ export default function LobbyScreen({ stompClient, username, mySessionId, onBack
           </div>
 
           <div className="mt-6 space-y-3">
+            <motion.button 
+              onClick={quickPlay}
+              whileHover={{ scale: 1.02 }}
+              whileTap={{ scale: 0.98 }}
+              className="flex w-full items-center justify-center gap-2 rounded-xl bg-amber-500 py-3 font-bold text-white shadow-lg shadow-amber-500/20 transition-all hover:bg-amber-600"
+            >
+              <Zap size={20} />
+              Quick Play
+            </motion.button>
             <motion.button 
               onClick={() => createRoom(false)}
               whileHover={{ scale: 1.02 }}
@@ -292,6 +329,13 @@ export default function LobbyScreen({ stompClient, username, mySessionId, onBack
                         whileHover={{ scale: 1.02, y: -2 }}
                         className="group cursor-pointer rounded-xl border border-gray-200 bg-white p-4 shadow-sm transition-all hover:border-indigo-500 hover:shadow-md"
                       >
+                        <img
+                          src={`${BACKEND_URL}/api/lobby/${encodeURIComponent(lobby.roomId)}/thumbnail.png`}
+                          alt=""
+                          width={128}
+                          height={96}
+                          className="mb-3 aspect-[4/3] w-full rounded-lg border border-gray-100 bg-white object-cover"
+                        />
                         <div className="mb-3 flex items-start justify-between">
                           <h4 className="font-bold text-gray-900 group-hover:text-indigo-600">
                             {lobby.lobbyName || 'Game Room'}
@@ -1,6 +1,40 @@
 import { defineConfig } from 'vite'
 import react from '@vitejs/plugin-react'
 import { VitePWA } from 'vite-plugin-pwa'
+import { readdirSync, readFileSync, writeFileSync } from 'node:fs'
+import { join, resolve } from 'node:path'
+import { gzipSync, brotliCompressSync, constants as zlib } from 'node:zlib'
+
+// Writes .gz and .br next to every text asset at build time so the backend can serve
+// the negotiated encoding straight from the jar instead of compressing per request
+function precompress({ threshold = 1024 } = {}) {
+  let outDir
+  const walk = (dir) => readdirSync(dir, { withFileTypes: true })
+    .flatMap(entry => entry.isDirectory() ? walk(join(dir, entry.name)) : [join(dir, entry.name)])
+
+  return {
+    name: 'precompress',
+    apply: 'build',
+    enforce: 'post',
+    configResolved(config) {
+      outDir = resolve(config.root, config.build.outDir)
+    },
+    closeBundle() {
+      for (const file of walk(outDir)) {
+        if (!/\.(js|mjs|css|html|svg|json|webmanifest|txt)$/.test(file)) continue
+        const source = readFileSync(file)
+        if (source.length < threshold) continue
+        writeFileSync(`${file}.gz`, gzipSync(source, { level: 9 }))
+        writeFileSync(`${file}.br`, brotliCompressSync(source, {
+          params: {
+            [zlib.BROTLI_PARAM_QUALITY]: zlib.BROTLI_MAX_QUALITY,
+            [zlib.BROTLI_PARAM_SIZE_HINT]: source.length
+          }
+        }))
+      }
+    }
+  }
+}
 
 export default defineConfig({
   plugins: [
@@ -29,7 +63,8 @@ export default defineConfig({
           }
         ]
       }
-    })
+    }),
+    precompress()
   ],
   server: {
     port: 3000,